@@ -11,8 +11,9 @@ import java.awt.event.KeyListener;
 import java.awt.geom.Rectangle2D;
 
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 
-import asteroids.util.internal.ResourceUtils;
+import asteroids.util.internal.AssetManager;
 
 @SuppressWarnings("serial")
 public class AsteroidsMenu2 extends JPanel implements KeyListener {
@@ -20,15 +21,16 @@ public class AsteroidsMenu2 extends JPanel implements KeyListener {
 	private String[] menu_options;
 	private int selectedIndex = 0;
 	private final AsteroidsFrame2<?> game;
-	private Image background;
+	private volatile Image background;
 
 	public AsteroidsMenu2(AsteroidsFrame2<?> game) {
 		this.game = game;
 		addKeyListener(this);
 		setBackground(Color.BLACK);
-		background = ResourceUtils.loadImage("asteroids/resources/menu-background.jpg");
-		assert background != null : "No background found!";
-		background = background.getScaledInstance(game.getWidth(), game.getHeight(), Image.SCALE_DEFAULT);
+		AssetManager.getDefault().loadImage("asteroids/resources/menu-background.jpg").thenAccept(image -> {
+			background = image.getScaledInstance(game.getWidth(), game.getHeight(), Image.SCALE_DEFAULT);
+			SwingUtilities.invokeLater(this::repaint);
+		});
 		this.menu_options = createOptions();
 	}
 	
@@ -56,7 +58,9 @@ public class AsteroidsMenu2 extends JPanel implements KeyListener {
 		super.paintComponent(g);
 		Graphics2D g2d = (Graphics2D) g;
 		g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-		g2d.drawImage(background, 0, 0, game.getWidth(), game.getHeight(), null);
+		Image background = this.background;
+		if (background != null)
+			g2d.drawImage(background, 0, 0, game.getWidth(), game.getHeight(), null);
 		g2d.setFont(g2d.getFont().deriveFont(150f));
 		int titleHeight = g2d.getFontMetrics().getHeight();
 		g2d.setColor(Color.WHITE);
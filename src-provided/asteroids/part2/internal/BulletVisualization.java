@@ -4,6 +4,7 @@ import java.awt.Color;
 import java.awt.Graphics2D;
 
 import asteroids.model.Bullet;
+import asteroids.model.WorldSnapshot;
 import asteroids.part2.facade.IFacade;
 import asteroids.util.ModelException;
 
@@ -18,9 +19,19 @@ public class BulletVisualization<F extends IFacade> extends Visualization<F, Bul
 		Graphics2D g2d = ctx.getGraphics();
 		try {
 			F facade = ctx.getFacade();
-			double radius = facade.getBulletRadius(getObject());
-			double x = ctx.worldToScreenX(facade.getBulletPosition(getObject())[0]);
-			double y = ctx.worldToScreenY(facade.getBulletPosition(getObject())[1]);
+			WorldSnapshot snapshot = ctx.getSnapshot();
+			int index = (snapshot == null) ? -1 : snapshot.indexOf(getObject());
+			double radius, x, y;
+			if (index >= 0) {
+				double[] position = ctx.getSnapshotPosition(getObject());
+				radius = snapshot.getRadius(index);
+				x = ctx.worldToScreenX(position[0]);
+				y = ctx.worldToScreenY(position[1]);
+			} else {
+				radius = facade.getBulletRadius(getObject());
+				x = ctx.worldToScreenX(facade.getBulletPosition(getObject())[0]);
+				y = ctx.worldToScreenY(facade.getBulletPosition(getObject())[1]);
+			}
 			g2d.setColor(getColor());
 			g2d.drawOval((int) (x - radius), (int) (y - radius), (int) (2 * radius), (int) (2 * radius));
 		} catch (ModelException e) {
@@ -2,6 +2,8 @@ package asteroids.part2.internal;
 
 import java.awt.Graphics2D;
 
+import asteroids.model.Entity;
+import asteroids.model.WorldSnapshot;
 import asteroids.util.ModelException;
 
 public interface DrawContext<F> {
@@ -15,4 +17,66 @@ public interface DrawContext<F> {
 	public double worldToScreenY(double y);
 
 	public void handleError(ModelException e);
+
+	/**
+	 * Returns the snapshot of the world to draw, or null if objects should be
+	 * drawn from the live state of the world.
+	 */
+	public default WorldSnapshot getSnapshot() {
+		return null;
+	}
+
+	/**
+	 * Returns the snapshot published before the one returned by getSnapshot(),
+	 * or null if positions should not be interpolated.
+	 */
+	public default WorldSnapshot getPreviousSnapshot() {
+		return null;
+	}
+
+	/**
+	 * Returns how far rendering lies between the previous and the current
+	 * snapshot, as a factor between 0 and 1.
+	 */
+	public default double getInterpolationFactor() {
+		return 1;
+	}
+
+	/**
+	 * Returns the indices, in the current snapshot, of the entities that should
+	 * be drawn, or null if there is no snapshot. By default all entities are drawn.
+	 */
+	public default int[] getVisibleIndices() {
+		WorldSnapshot snapshot = getSnapshot();
+		if (snapshot == null)
+			return null;
+		int[] result = new int[snapshot.getNbEntities()];
+		for (int i = 0; i < result.length; i++)
+			result[i] = i;
+		return result;
+	}
+
+	/**
+	 * Returns the position at which the given object should be drawn, blended
+	 * between its positions in the previous and the current snapshot, or null if
+	 * the object is not in the current snapshot.
+	 */
+	public default double[] getSnapshotPosition(Object object) {
+		WorldSnapshot current = getSnapshot();
+		if (current == null || !(object instanceof Entity))
+			return null;
+		int index = current.indexOf((Entity) object);
+		if (index < 0)
+			return null;
+		double x = current.getX(index);
+		double y = current.getY(index);
+		WorldSnapshot previous = getPreviousSnapshot();
+		int previousIndex = (previous == null) ? -1 : previous.indexOf((Entity) object);
+		if (previousIndex >= 0) {
+			double factor = getInterpolationFactor();
+			x = previous.getX(previousIndex) + factor * (x - previous.getX(previousIndex));
+			y = previous.getY(previousIndex) + factor * (y - previous.getY(previousIndex));
+		}
+		return new double[] { x, y };
+	}
 }
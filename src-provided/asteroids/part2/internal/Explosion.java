@@ -3,7 +3,9 @@ package asteroids.part2.internal;
 import java.awt.Graphics2D;
 import java.awt.Image;
 
-import asteroids.util.internal.ResourceUtils;
+import java.util.concurrent.CompletableFuture;
+
+import asteroids.util.internal.AssetManager;
 
 public class Explosion implements Drawable<DrawContext<?>> {
 
@@ -11,7 +13,8 @@ public class Explosion implements Drawable<DrawContext<?>> {
 	private double timeLeft = INITIAL_TIME_LEFT;
 	private int x, y;
 
-	private static final Image explosions = ResourceUtils.loadImage("asteroids/resources/explosions.png");
+	private static final CompletableFuture<Image> explosions = AssetManager.getDefault()
+			.loadImage("asteroids/resources/explosions.png");
 
 	public Explosion(double x, double y) {
 		this.x = (int) x;
@@ -25,6 +28,9 @@ public class Explosion implements Drawable<DrawContext<?>> {
 
 	@Override
 	public void draw(DrawContext<?> ctx) {
+		Image image = AssetManager.getIfLoaded(explosions);
+		if (image == null)
+			return;
 		Graphics2D g2d = ctx.getGraphics();
 		int NB_FRAMES_HORIZONTAL = 5;
 		int NB_FRAMES_VERTICAL = 5;
@@ -36,7 +42,7 @@ public class Explosion implements Drawable<DrawContext<?>> {
 		int column = imageNumber % NB_FRAMES_VERTICAL;
 		int sx = column * FRAME_WIDTH;
 		int sy = row * FRAME_HEIGHT;
-		g2d.drawImage(explosions, x - FRAME_WIDTH / 2, y - FRAME_WIDTH / 2, x + FRAME_WIDTH / 2, y + FRAME_WIDTH / 2,
+		g2d.drawImage(image, x - FRAME_WIDTH / 2, y - FRAME_WIDTH / 2, x + FRAME_WIDTH / 2, y + FRAME_WIDTH / 2,
 				sx, sy, sx + FRAME_WIDTH, sy + FRAME_HEIGHT, null);
 	}
 }
@@ -4,21 +4,30 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.net.URL;
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.io.UncheckedIOException;
+import java.nio.ShortBuffer;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
-import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.Clip;
 import javax.sound.sampled.LineUnavailableException;
-import javax.sound.sampled.UnsupportedAudioFileException;
 
-import asteroids.util.internal.ResourceUtils;
+import asteroids.util.internal.AssetManager;
 
 /**
  * Sound manager that reads a text file to determine which sound files to load.
+ * The sounds are loaded in parallel in the background: a sound that is played
+ * before it has been loaded is skipped, and a sound that is looped before it has
+ * been loaded starts looping once it arrives.
+ *
+ * All sounds are played through one SoundMixer, so that overlapping sounds do
+ * not cut each other off. Requests are passed to the mixer thread through a
+ * lock-free queue, and never block the thread that makes them.
  */
 public class FileSoundManager implements Runnable, Sound {
 
@@ -43,15 +52,9 @@ public class FileSoundManager implements Runnable, Sound {
 
 		@Override
 		public void execute() {
-			Clip clip = clips.get(getSound());
-			if (clip == null) {
-				System.err.println("clip " + getSound() + " not found");
-			} else {
-				if (clip.isRunning()) {
-					clip.stop();
-				}
-				clip.setFramePosition(0);
-				clip.start();
+			ShortBuffer samples = getSamples(getSound());
+			if (samples != null) {
+				mixer.play(getSound(), samples, false);
 			}
 		}
 	}
@@ -63,12 +66,8 @@ public class FileSoundManager implements Runnable, Sound {
 
 		@Override
 		public void execute() {
-			Clip clip = clips.get(getSound());
-			if (clip == null) {
-				System.err.println("clip " + getSound() + " not found");
-			} else {
-				clip.stop();
-			}
+			pendingLoops.remove(getSound());
+			mixer.stop(getSound());
 		}
 	}
 
@@ -79,31 +78,44 @@ public class FileSoundManager implements Runnable, Sound {
 
 		@Override
 		public void execute() {
-			Clip clip = clips.get(getSound());
-			if (clip == null) {
-				System.err.println("clip " + getSound() + " not found");
-			} else {
-				if (clip.isRunning()) {
-					clip.stop();
+			ShortBuffer samples = getSamples(getSound());
+			if (samples == null) {
+				CompletableFuture<ShortBuffer> future = sounds.get(getSound());
+				if (future != null && !future.isDone() && pendingLoops.add(getSound())) {
+					// Loop once loaded, unless the sound is stopped in the meantime.
+					future.thenRun(() -> addRequest(new PendingLoop(getSound())));
 				}
-				clip.setFramePosition(0);
-				clip.loop(Clip.LOOP_CONTINUOUSLY);
+			} else {
+				mixer.stop(getSound());
+				mixer.play(getSound(), samples, true);
 			}
 		}
 	}
 
-	HashMap<String, Clip> clips = new HashMap<>();
-	Queue<Request> requests = new LinkedList<>();
+	public class PendingLoop extends Request {
+		public PendingLoop(String sound) {
+			super(sound);
+		}
+
+		@Override
+		public void execute() {
+			if (pendingLoops.remove(getSound()))
+				new Loop(getSound()).execute();
+		}
+	}
+
+	Map<String, CompletableFuture<ShortBuffer>> sounds = new ConcurrentHashMap<>();
+	Queue<Request> requests = new ConcurrentLinkedQueue<>();
+	// Only accessed by the mixer thread.
+	Set<String> pendingLoops = new HashSet<>();
+	SoundMixer mixer = new SoundMixer();
+	private volatile boolean running = true;
 
 	public FileSoundManager(String path) {
 		try {
 			loadSounds(path);
 		} catch (IOException e) {
 			System.err.println("error loading sound description file");
-		} catch (LineUnavailableException e) {
-			System.err.println("no line available");
-		} catch (UnsupportedAudioFileException e) {
-			System.err.println("audio format not supported");
 		} catch (IllegalArgumentException e) {
 			System.err.println("system does not support at least one clip instance through any installed mixer");
 		} catch (SecurityException e) {
@@ -111,25 +123,43 @@ public class FileSoundManager implements Runnable, Sound {
 		}
 	}
 
-	private void loadSounds(String path) throws IOException, LineUnavailableException, UnsupportedAudioFileException {
+	private void loadSounds(String path) throws IOException {
 		if (AudioSystem.getMixerInfo().length == 0)
 			throw new IllegalArgumentException("no mixer installed");
 		ClassLoader loader = FileSoundManager.class.getClassLoader();
 		InputStream stream = loader.getResourceAsStream(path);
 		BufferedReader reader = new BufferedReader(new InputStreamReader(stream));
 		for (String line = reader.readLine(); line != null; line = reader.readLine()) {
-			Clip clip = AudioSystem.getClip();
-			URL url = ResourceUtils.toURL("asteroids/resources/" + line);
-			if (url == null) {
-				System.err.println("sound " + line + " not found");
-				continue;
-			}
-			AudioInputStream audioStream = AudioSystem.getAudioInputStream(url);
-			clip.open(audioStream);
-			clips.put(line.substring(0, line.lastIndexOf('.')), clip);
+			String name = line;
+			CompletableFuture<ShortBuffer> sound = AssetManager.getDefault().loadAudio("asteroids/resources/" + name)
+					.thenApply(data -> {
+						try {
+							return SoundMixer.toMixerFormat(data);
+						} catch (IOException e) {
+							throw new UncheckedIOException(e);
+						}
+					});
+			sound.exceptionally(e -> {
+				System.err.println("sound " + name + " could not be loaded: " + e.getMessage());
+				return null;
+			});
+			sounds.put(name.substring(0, name.lastIndexOf('.')), sound);
 		}
 	}
 
+	/**
+	 * Returns the samples of the sound with the given name, or null if it is not
+	 * loaded (yet).
+	 */
+	private ShortBuffer getSamples(String name) {
+		CompletableFuture<ShortBuffer> sound = sounds.get(name);
+		if (sound == null) {
+			System.err.println("clip " + name + " not found");
+			return null;
+		}
+		return AssetManager.getIfLoaded(sound);
+	}
+
 	@Override
 	public void play(String name) {
 		addRequest(new Play(name));
@@ -146,35 +176,36 @@ public class FileSoundManager implements Runnable, Sound {
 	}
 
 	public void addRequest(Request request) {
-		synchronized (this) {
+		if (running)
 			requests.add(request);
-			notifyAll();
-		}
 	}
 
 	@Override
 	public void run() {
-		while (true) {
-			Request request = null;
-			synchronized (this) {
-				while (request == null) {
-					if (requests.isEmpty()) {
-						try {
-							wait();
-						} catch (InterruptedException e) {
-							return;
-						}
-					} else {
-						request = requests.remove();
-					}
-				}
+		try {
+			mixer.open();
+		} catch (LineUnavailableException | IllegalArgumentException e) {
+			System.err.println("no line available");
+			running = false;
+			requests.clear();
+			return;
+		}
+		try {
+			while (running) {
+				Request request;
+				while ((request = requests.poll()) != null)
+					request.execute();
+				mixer.mixBlock();
 			}
-			request.execute();
+		} finally {
+			mixer.close();
 		}
 	}
 
 	@Override
 	public void start() {
-		new Thread(this).start();
+		Thread thread = new Thread(this, "asteroids-sound");
+		thread.setDaemon(true);
+		thread.start();
 	}
 }
@@ -10,6 +10,7 @@ import java.awt.geom.AffineTransform;
 import java.awt.geom.Path2D;
 
 import asteroids.model.Ship;
+import asteroids.model.WorldSnapshot;
 import asteroids.part2.facade.IFacade;
 import asteroids.util.ModelException;
 
@@ -24,10 +25,24 @@ public class ShipVisualization<F extends IFacade> extends Visualization<F, Ship>
 		try {
 			Graphics2D g2d = ctx.getGraphics();
 			F facade = ctx.getFacade();
-			double radius = facade.getShipRadius(getObject());
-			double angle = -facade.getShipOrientation(getObject());
-			double x = ctx.worldToScreenX(facade.getShipPosition(getObject())[0]);
-			double y = ctx.worldToScreenY(facade.getShipPosition(getObject())[1]);
+			WorldSnapshot snapshot = ctx.getSnapshot();
+			int index = (snapshot == null) ? -1 : snapshot.indexOf(getObject());
+			double radius, angle, x, y;
+			boolean thrusterActive;
+			if (index >= 0) {
+				double[] position = ctx.getSnapshotPosition(getObject());
+				radius = snapshot.getRadius(index);
+				angle = -snapshot.getOrientation(index);
+				x = ctx.worldToScreenX(position[0]);
+				y = ctx.worldToScreenY(position[1]);
+				thrusterActive = snapshot.isThrusterActive(index);
+			} else {
+				radius = facade.getShipRadius(getObject());
+				angle = -facade.getShipOrientation(getObject());
+				x = ctx.worldToScreenX(facade.getShipPosition(getObject())[0]);
+				y = ctx.worldToScreenY(facade.getShipPosition(getObject())[1]);
+				thrusterActive = facade.isShipThrusterActive(getObject());
+			}
 			g2d.setColor(getColor());
 			if (getImage() == null) {
 				g2d.drawOval((int) Math.round(x - radius), (int) Math.round(y - radius),
@@ -42,7 +57,7 @@ public class ShipVisualization<F extends IFacade> extends Visualization<F, Ship>
 			g2d.setStroke(new BasicStroke(2));
 			g2d.drawLine((int) Math.round(x), (int) Math.round(y), (int) Math.round(x + Math.cos(angle) * radius),
 					(int) Math.round(y + sin(angle) * radius));
-			if (facade.isShipThrusterActive(getObject())) {
+			if (thrusterActive) {
 				Path2D.Double flame = new Path2D.Double();
 				double flameAngle = Math.PI / 12;
 				flame.moveTo(radius * Math.cos(Math.PI - flameAngle), radius * Math.sin(Math.PI - flameAngle));
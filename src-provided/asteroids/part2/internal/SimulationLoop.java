@@ -0,0 +1,115 @@
+package asteroids.part2.internal;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.DoubleConsumer;
+
+/**
+ * A simulation loop that advances a game at a fixed timestep on its own thread.
+ *
+ * Elapsed wall-clock time is collected in an accumulator, and the game is
+ * stepped as many times as whole timesteps fit in it. Slow frames therefore
+ * lead to more steps of the same size, instead of a single longer step.
+ * Inputs submitted from other threads are queued and run on the simulation
+ * thread, right before the next step.
+ */
+public class SimulationLoop implements Runnable {
+
+	/**
+	 * The maximum amount of wall-clock time that is simulated in one iteration,
+	 * so that the loop can catch up after a long pause.
+	 */
+	public static final double MAX_FRAME_TIME = 0.25;
+
+	private final double timestep;
+	private final DoubleConsumer step;
+	private final DoubleConsumer frame;
+	private final Queue<Runnable> inputs = new ConcurrentLinkedQueue<>();
+	private volatile boolean running = false;
+	private Thread thread;
+
+	/**
+	 * Creates a new simulation loop.
+	 *
+	 * @param timestep
+	 *            The fixed duration, in seconds, of each step.
+	 * @param step
+	 *            Advances the game by the given duration.
+	 * @param frame
+	 *            Called after one or more steps, with the total duration that
+	 *            was simulated since the previous frame.
+	 */
+	public SimulationLoop(double timestep, DoubleConsumer step, DoubleConsumer frame) {
+		if (!(timestep > 0) || Double.isInfinite(timestep))
+			throw new IllegalArgumentException("Invalid timestep: " + timestep);
+		this.timestep = timestep;
+		this.step = step;
+		this.frame = frame;
+	}
+
+	public double getTimestep() {
+		return timestep;
+	}
+
+	public boolean isRunning() {
+		return running;
+	}
+
+	public synchronized void start() {
+		if (thread != null)
+			return;
+		running = true;
+		thread = new Thread(this, "asteroids-simulation");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stops this loop. Steps that are in progress are completed; no new steps
+	 * are started afterwards.
+	 */
+	public synchronized void stop() {
+		running = false;
+		if (thread != null && thread != Thread.currentThread())
+			thread.interrupt();
+	}
+
+	/**
+	 * Queues the given input, to be run on the simulation thread before the
+	 * next step.
+	 */
+	public void submit(Runnable input) {
+		inputs.add(input);
+	}
+
+	@Override
+	public void run() {
+		long previous = System.nanoTime();
+		double accumulator = 0;
+		while (running) {
+			long now = System.nanoTime();
+			accumulator += Math.min((now - previous) / 1E9, MAX_FRAME_TIME);
+			previous = now;
+
+			int steps = 0;
+			while (running && accumulator >= timestep) {
+				Runnable input;
+				while ((input = inputs.poll()) != null)
+					input.run();
+				step.accept(timestep);
+				accumulator -= timestep;
+				steps++;
+			}
+			if (steps > 0 && running)
+				frame.accept(steps * timestep);
+
+			long sleep = (long) ((timestep - accumulator) * 1000);
+			try {
+				if (sleep > 0)
+					Thread.sleep(sleep);
+			} catch (InterruptedException e) {
+				running = false;
+			}
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package asteroids.part2.internal;
+
+import asteroids.model.WorldSnapshot;
+
+/**
+ * The last two snapshots published by a simulation, together with the moment
+ * the most recent one was published. Renderers use a frame to interpolate the
+ * state of the world between two simulation steps.
+ */
+public final class SnapshotFrame {
+
+	private final WorldSnapshot previous;
+	private final WorldSnapshot current;
+	private final long publishedNanos;
+
+	public SnapshotFrame(WorldSnapshot previous, WorldSnapshot current, long publishedNanos) {
+		if (current == null)
+			throw new IllegalArgumentException("current snapshot null");
+		this.previous = previous;
+		this.current = current;
+		this.publishedNanos = publishedNanos;
+	}
+
+	/**
+	 * Returns a new frame with the given snapshot as its most recent one, and
+	 * the current snapshot of this frame as its previous one.
+	 */
+	public SnapshotFrame next(WorldSnapshot snapshot, long publishedNanos) {
+		if (snapshot == current)
+			return this;
+		return new SnapshotFrame(current, snapshot, publishedNanos);
+	}
+
+	public WorldSnapshot getPreviousSnapshot() {
+		return previous;
+	}
+
+	public WorldSnapshot getCurrentSnapshot() {
+		return current;
+	}
+
+	public long getPublishedNanos() {
+		return publishedNanos;
+	}
+
+	/**
+	 * Returns how far the given render time lies between the previous and the
+	 * current snapshot, as a factor between 0 and 1.
+	 * 
+	 * Rendering runs one simulation step behind: the previous snapshot is shown
+	 * when the current one has just been published, and the current snapshot is
+	 * reached one step later.
+	 */
+	public double getInterpolationFactor(long renderNanos) {
+		if (previous == null)
+			return 1;
+		double step = current.getTime() - previous.getTime();
+		if (!(step > 0))
+			return 1;
+		double factor = (renderNanos - publishedNanos) / 1E9 / step;
+		return Math.max(0, Math.min(1, factor));
+	}
+}
@@ -0,0 +1,199 @@
+package asteroids.part2.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+
+import asteroids.util.internal.AssetManager.AudioData;
+
+/**
+ * A software mixer that plays any number of sounds at the same time through a
+ * single output line.
+ *
+ * Sounds are converted once to the format of the mixer, 16-bit signed stereo
+ * PCM, and kept in direct buffers. Each playing sound is a voice; the mixer
+ * adds up all voices block by block and writes the result to the line. At most
+ * MAX_VOICES voices play at the same time: when another one is started, the
+ * oldest voice that is not looping is dropped.
+ *
+ * A mixer is not thread-safe: all methods except toMixerFormat should be called
+ * from the thread that runs it.
+ */
+public class SoundMixer {
+
+	public static final float SAMPLE_RATE = 44100;
+	public static final int CHANNELS = 2;
+	public static final int MAX_VOICES = 32;
+
+	/**
+	 * The number of frames mixed at once, about 12 milliseconds.
+	 */
+	private static final int BLOCK_FRAMES = 512;
+
+	public static final AudioFormat FORMAT = new AudioFormat(SAMPLE_RATE, 16, CHANNELS, true, false);
+
+	private final List<Voice> voices = new ArrayList<>();
+	private final int[] mix = new int[BLOCK_FRAMES * CHANNELS];
+	private final byte[] block = new byte[BLOCK_FRAMES * CHANNELS * 2];
+	private SourceDataLine line;
+
+	private static final class Voice {
+		private final String name;
+		private final ShortBuffer samples;
+		private final boolean looping;
+		private int position = 0;
+
+		private Voice(String name, ShortBuffer samples, boolean looping) {
+			this.name = name;
+			this.samples = samples;
+			this.looping = looping;
+		}
+	}
+
+	/**
+	 * Opens the output line of this mixer.
+	 */
+	public void open() throws LineUnavailableException {
+		line = AudioSystem.getSourceDataLine(FORMAT);
+		line.open(FORMAT, block.length * 4);
+		line.start();
+	}
+
+	public void close() {
+		if (line != null) {
+			line.close();
+			line = null;
+		}
+	}
+
+	/**
+	 * Starts a new voice playing the given samples.
+	 */
+	public void play(String name, ShortBuffer samples, boolean looping) {
+		if (voices.size() >= MAX_VOICES) {
+			Iterator<Voice> iter = voices.iterator();
+			while (iter.hasNext()) {
+				if (!iter.next().looping) {
+					iter.remove();
+					break;
+				}
+			}
+			if (voices.size() >= MAX_VOICES)
+				return;
+		}
+		voices.add(new Voice(name, samples, looping));
+	}
+
+	/**
+	 * Stops all voices of the sound with the given name.
+	 */
+	public void stop(String name) {
+		voices.removeIf(voice -> voice.name.equals(name));
+	}
+
+	public int getNbVoices() {
+		return voices.size();
+	}
+
+	/**
+	 * Mixes the next block of all voices and writes it to the line. Blocks while
+	 * the line is full, which paces the thread that runs this mixer.
+	 */
+	public void mixBlock() {
+		mix(mix);
+		for (int i = 0; i < mix.length; i++) {
+			int sample = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mix[i]));
+			block[2 * i] = (byte) sample;
+			block[2 * i + 1] = (byte) (sample >> 8);
+		}
+		line.write(block, 0, block.length);
+	}
+
+	/**
+	 * Adds the next samples of all voices into the given array, and advances the
+	 * voices. Voices that have finished are removed.
+	 */
+	void mix(int[] result) {
+		Arrays.fill(result, 0);
+		Iterator<Voice> iter = voices.iterator();
+		while (iter.hasNext()) {
+			Voice voice = iter.next();
+			ShortBuffer samples = voice.samples;
+			int length = samples.limit();
+			int i = 0;
+			while (i < result.length && length > 0) {
+				int n = Math.min(result.length - i, length - voice.position);
+				for (int k = 0; k < n; k++)
+					result[i + k] += samples.get(voice.position + k);
+				i += n;
+				voice.position += n;
+				if (voice.position >= length) {
+					if (!voice.looping)
+						break;
+					voice.position = 0;
+				}
+			}
+			if (length == 0 || (!voice.looping && voice.position >= length))
+				iter.remove();
+		}
+	}
+
+	/**
+	 * Converts the given decoded sound to the format of the mixer, in a direct
+	 * buffer of interleaved stereo samples.
+	 */
+	public static ShortBuffer toMixerFormat(AudioData data) throws IOException {
+		AudioFormat source = data.getFormat();
+		AudioFormat pcm = new AudioFormat(source.getSampleRate(), 16, source.getChannels(), true, false);
+		short[] samples;
+		try (AudioInputStream stream = AudioSystem.getAudioInputStream(pcm, new AudioInputStream(
+				new ByteArrayInputStream(data.getSamples()), source, data.getSamples().length / source.getFrameSize()))) {
+			byte[] bytes = readAll(stream);
+			samples = new short[bytes.length / 2];
+			ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asShortBuffer().get(samples);
+		}
+
+		int channels = source.getChannels();
+		int sourceFrames = samples.length / channels;
+		double ratio = source.getSampleRate() / SAMPLE_RATE;
+		int frames = (int) Math.floor(sourceFrames / ratio);
+		ShortBuffer result = ByteBuffer.allocateDirect(frames * CHANNELS * 2).order(ByteOrder.nativeOrder())
+				.asShortBuffer();
+		for (int frame = 0; frame < frames; frame++) {
+			// Linear interpolation between the two nearest source frames.
+			double position = frame * ratio;
+			int first = (int) position;
+			int second = Math.min(first + 1, sourceFrames - 1);
+			double weight = position - first;
+			for (int channel = 0; channel < CHANNELS; channel++) {
+				int sourceChannel = Math.min(channel, channels - 1);
+				double sample = (1 - weight) * samples[first * channels + sourceChannel]
+						+ weight * samples[second * channels + sourceChannel];
+				result.put((short) Math.round(sample));
+			}
+		}
+		result.flip();
+		return result.asReadOnlyBuffer();
+	}
+
+	private static byte[] readAll(AudioInputStream stream) throws IOException {
+		ByteArrayOutputStream result = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		for (int read = stream.read(buffer); read >= 0; read = stream.read(buffer))
+			result.write(buffer, 0, read);
+		return result.toByteArray();
+	}
+}
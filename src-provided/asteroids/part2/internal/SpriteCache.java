@@ -0,0 +1,164 @@
+package asteroids.part2.internal;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A cache of images pre-rendered at a number of quantized sizes.
+ *
+ * Drawing a cached sprite is a plain blit, instead of scaling the source image
+ * for every entity in every frame. Sizes are quantized so that entities with
+ * nearly the same radius, or an entity that shrinks slowly, share sprites.
+ * The least recently used sprites are evicted once the cached sprites exceed
+ * a maximal number of pixels. Sprites larger than that number of pixels are
+ * not cached at all; such images are scaled while they are drawn instead.
+ */
+public class SpriteCache {
+
+	/**
+	 * Diameters up to this size are cached at every whole pixel; larger
+	 * diameters are rounded to about 1/16th of their size.
+	 */
+	private static final int EXACT_DIAMETER = 32;
+
+	private static final SpriteCache DEFAULT = new SpriteCache(16 * 1024 * 1024);
+
+	public static SpriteCache getDefault() {
+		return DEFAULT;
+	}
+
+	private final long maxPixels;
+	private long pixels = 0;
+	private final LinkedHashMap<Key, BufferedImage> sprites = new LinkedHashMap<>(64, 0.75f, true);
+
+	/**
+	 * Creates a new sprite cache that holds sprites of at most the given total
+	 * number of pixels.
+	 */
+	public SpriteCache(long maxPixels) {
+		if (maxPixels <= 0)
+			throw new IllegalArgumentException("Invalid cache size: " + maxPixels);
+		this.maxPixels = maxPixels;
+	}
+
+	/**
+	 * Returns the diameter at which a sprite of the given radius is cached.
+	 */
+	public static int quantizeDiameter(double radius) {
+		int diameter = (int) Math.max(1, Math.round(2 * radius));
+		if (diameter <= EXACT_DIAMETER)
+			return diameter;
+		int step = Integer.highestOneBit(diameter) / 16;
+		return (int) Math.round((double) diameter / step) * step;
+	}
+
+	/**
+	 * Draws the given image for an entity of the given radius, centred on the
+	 * given point: as a cached sprite if it fits in this cache, and scaled while
+	 * it is drawn otherwise.
+	 */
+	public void draw(Graphics2D g2d, Image image, double x, double y, double radius) {
+		BufferedImage sprite = getSprite(image, radius);
+		if (sprite != null) {
+			g2d.drawImage(sprite, (int) Math.round(x - sprite.getWidth() / 2.0),
+					(int) Math.round(y - sprite.getHeight() / 2.0), null);
+			return;
+		}
+		AffineTransform T = AffineTransform.getScaleInstance(2 * radius / image.getWidth(null),
+				2 * radius / image.getHeight(null));
+		T.preConcatenate(AffineTransform.getTranslateInstance(x - radius, y - radius));
+		g2d.drawImage(image, T, null);
+	}
+
+	/**
+	 * Returns the given image, rendered into a square sprite for an entity of
+	 * the given radius, or null if that sprite has more pixels than this cache
+	 * may hold.
+	 */
+	public synchronized BufferedImage getSprite(Image image, double radius) {
+		Key key = new Key(image, quantizeDiameter(radius));
+		if ((long) key.diameter * key.diameter > maxPixels)
+			return null;
+		BufferedImage sprite = sprites.get(key);
+		if (sprite == null) {
+			sprite = render(image, key.diameter);
+			sprites.put(key, sprite);
+			pixels += (long) key.diameter * key.diameter;
+			evict();
+		}
+		return sprite;
+	}
+
+	public synchronized int size() {
+		return sprites.size();
+	}
+
+	public synchronized void clear() {
+		sprites.clear();
+		pixels = 0;
+	}
+
+	private void evict() {
+		// Each sprite fits in the cache, so the sprite just added is never evicted.
+		while (pixels > maxPixels) {
+			Map.Entry<Key, BufferedImage> eldest = sprites.entrySet().iterator().next();
+			pixels -= (long) eldest.getKey().diameter * eldest.getKey().diameter;
+			sprites.remove(eldest.getKey());
+		}
+	}
+
+	private static BufferedImage render(Image image, int diameter) {
+		BufferedImage sprite = createImage(diameter);
+		Graphics2D g2d = sprite.createGraphics();
+		g2d.setComposite(AlphaComposite.Src);
+		g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+		g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+		g2d.drawImage(image, 0, 0, diameter, diameter, null);
+		g2d.dispose();
+		return sprite;
+	}
+
+	/**
+	 * Creates an image in the format of the screen, if there is one, so that
+	 * drawing it needs no conversion.
+	 */
+	private static BufferedImage createImage(int diameter) {
+		if (!GraphicsEnvironment.isHeadless()) {
+			GraphicsConfiguration configuration = GraphicsEnvironment.getLocalGraphicsEnvironment()
+					.getDefaultScreenDevice().getDefaultConfiguration();
+			return configuration.createCompatibleImage(diameter, diameter, Transparency.TRANSLUCENT);
+		}
+		return new BufferedImage(diameter, diameter, BufferedImage.TYPE_INT_ARGB);
+	}
+
+	private static final class Key {
+		private final Image image;
+		private final int diameter;
+
+		private Key(Image image, int diameter) {
+			this.image = image;
+			this.diameter = diameter;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof Key))
+				return false;
+			return image == ((Key) other).image && diameter == ((Key) other).diameter;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(image) + diameter;
+		}
+	}
+}
@@ -6,7 +6,7 @@ import java.awt.Image;
 public abstract class Visualization<F, T> implements Drawable<DrawContext<F>> {
 	private final Color color;
 	private final T object;
-	private final Image image;
+	private volatile Image image;
 
 	public Visualization(Color color, T object, Image image) {
 		if (object == null)
@@ -27,4 +27,12 @@ public abstract class Visualization<F, T> implements Drawable<DrawContext<F>> {
 	public Image getImage() {
 		return image;
 	}
+
+	/**
+	 * Sets the image of this visualization, for instance once it has been loaded
+	 * in the background.
+	 */
+	public void setImage(Image image) {
+		this.image = image;
+	}
 }
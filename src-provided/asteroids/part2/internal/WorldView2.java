@@ -5,10 +5,9 @@ import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Image;
 import java.awt.RenderingHints;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
+import java.awt.geom.AffineTransform;
 import java.awt.geom.Rectangle2D;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -19,21 +18,28 @@ import java.util.function.Function;
 import java.util.function.Supplier;
 
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 import javax.swing.Timer;
 
 import asteroids.model.Bullet;
 import asteroids.model.Ship;
 import asteroids.model.World;
+import asteroids.model.WorldSnapshot;
 import asteroids.part2.CollisionListener;
 import asteroids.part2.facade.IFacade;
 import asteroids.util.ModelException;
+import asteroids.util.internal.AssetManager;
 import asteroids.util.internal.InternalUtils;
-import asteroids.util.internal.ResourceUtils;
 
 @SuppressWarnings("serial")
-public class WorldView2<F extends IFacade> extends JPanel implements KeyListener, ActionListener, CollisionListener {
+public class WorldView2<F extends IFacade> extends JPanel implements KeyListener, CollisionListener {
 
-	private static final int TIMER_DELAY = 1000 / 30;
+	private static final double TIMESTEP = 1.0 / 30;
+	private static final int RENDER_DELAY = 1000 / 60;
+	private static final double RENDER_MARGIN = 50;
+	private static final double PAN_STEP = 50;
+	private static final double ZOOM_STEP = 1.25;
+	private static final double MIN_ZOOM = 0.05, MAX_ZOOM = 20;
 
 	private AsteroidsFrame2<F> game;
 	private F facade;
@@ -42,24 +48,33 @@ public class WorldView2<F extends IFacade> extends JPanel implements KeyListener
 	private double deltaAngle = Double.NaN;
 	private boolean thrusterChange = false;
 	private boolean fire;
-	private Timer timer;
-	private long timeAfterLastEvolve;
-	private Image background;
-	private String msg = null;
+	private SimulationLoop simulation;
+	private Timer renderTimer;
+	private volatile SnapshotFrame frame;
+	private volatile Image background;
+	private volatile String msg = null;
 	private Map<Object, Visualization<F, ?>> visualizations = new HashMap<>();
 	private Set<Explosion> explosions = new HashSet<>();
 
-	private boolean showCollisions = false;
+	private volatile boolean showCollisions = false;
+
+	// The camera is centred on (cameraX, cameraY) in drawing coordinates, where
+	// y grows downwards. NaN centres the camera on the panel.
+	private double cameraX = Double.NaN, cameraY = Double.NaN;
+	private double zoom = 1;
 
 	public WorldView2(AsteroidsFrame2<F> game, World world, Ship player, Set<Ship> enemies) throws ModelException {
 		this.game = game;
 		this.facade = game.getFacade();
 		this.world = world;
 		this.player = player;
-		this.timer = new Timer(TIMER_DELAY, this);
+		this.simulation = new SimulationLoop(TIMESTEP, this::stepSimulation, this::simulationFrame);
+		this.renderTimer = new Timer(RENDER_DELAY, e -> repaint());
 		setBackground(Color.BLACK);
-		background = ResourceUtils.loadImage("asteroids/resources/game-background.jpg")
-				.getScaledInstance(game.getWidth(), game.getHeight(), Image.SCALE_DEFAULT);
+		AssetManager.getDefault().loadImage("asteroids/resources/game-background.jpg").thenAccept(image -> {
+			background = image.getScaledInstance(game.getWidth(), game.getHeight(), Image.SCALE_DEFAULT);
+			SwingUtilities.invokeLater(this::repaint);
+		});
 		if (player != null) {
 			visualizations.put(player, createPlayerVisualization(player));
 		}
@@ -81,9 +96,19 @@ public class WorldView2<F extends IFacade> extends JPanel implements KeyListener
 		} catch (ModelException e) {
 			handleError(e);
 		}
-		Image image = ResourceUtils.loadImage("asteroids/resources/sphere.png").getScaledInstance(size, size,
-				Image.SCALE_DEFAULT);
-		return new ShipVisualization<>(Color.GREEN, enemy, image);
+		ShipVisualization<F> visualization = new ShipVisualization<>(Color.GREEN, enemy, null);
+		loadImage(visualization, "asteroids/resources/sphere.png", size);
+		return visualization;
+	}
+
+	/**
+	 * Loads the given image in the background, and sets it on the given
+	 * visualization at the given size once it has arrived. Until then, the
+	 * visualization is drawn without image.
+	 */
+	protected void loadImage(Visualization<F, ?> visualization, String filename, int size) {
+		AssetManager.getDefault().loadImage(filename)
+				.thenAccept(image -> visualization.setImage(image.getScaledInstance(size, size, Image.SCALE_DEFAULT)));
 	}
 
 	public boolean getShowCollisions() {
@@ -97,11 +122,10 @@ public class WorldView2<F extends IFacade> extends JPanel implements KeyListener
 		} catch (ModelException e) {
 			handleError(e);
 		}
-		Image image = ResourceUtils.loadImage("asteroids/resources/sphere.png").getScaledInstance(size, size,
-				Image.SCALE_DEFAULT);
-		assert image != null : "No player image!";
+		ShipVisualization<F> visualization = new ShipVisualization<>(Color.WHITE, player, null);
+		loadImage(visualization, "asteroids/resources/sphere.png", size);
 		return new CompositeVisualization<>(player, //
-				new ShipVisualization<>(Color.WHITE, player, image),
+				visualization,
 				createCollisionVisualization(player, () -> getShowCollisions()));
 	}
 
@@ -132,16 +156,93 @@ public class WorldView2<F extends IFacade> extends JPanel implements KeyListener
 		super.paintComponent(g);
 		Graphics2D g2d = (Graphics2D) g;
 		g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-		g2d.drawImage(background, 0, 0, null);
+		Image background = this.background;
+		if (background != null)
+			g2d.drawImage(background, 0, 0, null);
 		g2d.setColor(Color.WHITE);
-		DrawContext<F> ctx = createDrawContext(g2d);
+		SnapshotFrame frame = this.frame;
+		if (frame == null)
+			frame = new SnapshotFrame(null, world.getSnapshot(), System.nanoTime());
+		AffineTransform transform = g2d.getTransform();
+		g2d.transform(getCameraTransform());
+		DrawContext<F> ctx = createDrawContext(g2d, frame, System.nanoTime());
 		drawObjects(ctx);
+		g2d.setTransform(transform);
 		drawMessage(g2d);
 	}
 
-	private DrawContext<F> createDrawContext(Graphics2D g2d) {
+	/**
+	 * Returns the transformation from drawing coordinates to the screen, as
+	 * determined by the position and zoom of the camera.
+	 */
+	protected AffineTransform getCameraTransform() {
+		AffineTransform T = AffineTransform.getTranslateInstance(getWidth() / 2.0, getHeight() / 2.0);
+		T.scale(zoom, zoom);
+		T.translate(-getCameraX(), -getCameraY());
+		return T;
+	}
+
+	private double getCameraX() {
+		return Double.isNaN(cameraX) ? getWidth() / 2.0 : cameraX;
+	}
+
+	private double getCameraY() {
+		return Double.isNaN(cameraY) ? getHeight() / 2.0 : cameraY;
+	}
+
+	private void pan(double dx, double dy) {
+		cameraX = getCameraX() + dx / zoom;
+		cameraY = getCameraY() + dy / zoom;
+	}
+
+	private void zoom(double factor) {
+		zoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom * factor));
+	}
+
+	private void resetCamera() {
+		cameraX = Double.NaN;
+		cameraY = Double.NaN;
+		zoom = 1;
+	}
+
+	/**
+	 * Returns the indices of the entities in the given snapshot that lie within
+	 * the visible part of the world, widened by a margin.
+	 */
+	private int[] getVisibleIndices(WorldSnapshot snapshot) {
+		return getVisibleIndices(snapshot, getWidth(), getHeight(), getCameraX(), getCameraY(), zoom);
+	}
+
+	/**
+	 * Returns the indices of the entities in the given snapshot that lie within
+	 * the part of the world visible in a panel of the given size, through a
+	 * camera centred on the given point in drawing coordinates with the given
+	 * zoom, widened by a margin.
+	 */
+	public static int[] getVisibleIndices(WorldSnapshot snapshot, double panelWidth, double panelHeight,
+			double cameraX, double cameraY, double zoom) {
+		double halfWidth = panelWidth / 2.0 / zoom + RENDER_MARGIN;
+		double halfHeight = panelHeight / 2.0 / zoom + RENDER_MARGIN;
+		double minX = cameraX - halfWidth, maxX = cameraX + halfWidth;
+		// Flipping the y-axis is its own inverse.
+		double minY = worldToScreenY(snapshot, cameraY + halfHeight), maxY = worldToScreenY(snapshot, cameraY - halfHeight);
+		return snapshot.getIndicesWithin(minX, minY, maxX, maxY);
+	}
+
+	/**
+	 * Returns the y-coordinate in drawing coordinates of the given y-coordinate
+	 * in the world of the given snapshot. Drawing coordinates have their y-axis
+	 * flipped about the height of the world, for all entities alike.
+	 */
+	public static double worldToScreenY(WorldSnapshot snapshot, double y) {
+		return snapshot.getHeight() - y;
+	}
+
+	private DrawContext<F> createDrawContext(Graphics2D g2d, SnapshotFrame frame, long renderNanos) {
 		return new DrawContext<F>() {
 
+			private int[] visibleIndices;
+
 			@Override
 			public Graphics2D getGraphics() {
 				return g2d;
@@ -149,7 +250,7 @@ public class WorldView2<F extends IFacade> extends JPanel implements KeyListener
 
 			@Override
 			public double worldToScreenY(double y) {
-				return getHeight() - y;
+				return WorldView2.worldToScreenY(frame.getCurrentSnapshot(), y);
 			}
 
 			@Override
@@ -166,6 +267,28 @@ public class WorldView2<F extends IFacade> extends JPanel implements KeyListener
 			public void handleError(ModelException e) {
 				WorldView2.this.handleError(e);
 			}
+
+			@Override
+			public WorldSnapshot getSnapshot() {
+				return frame.getCurrentSnapshot();
+			}
+
+			@Override
+			public WorldSnapshot getPreviousSnapshot() {
+				return frame.getPreviousSnapshot();
+			}
+
+			@Override
+			public double getInterpolationFactor() {
+				return frame.getInterpolationFactor(renderNanos);
+			}
+
+			@Override
+			public int[] getVisibleIndices() {
+				if (visibleIndices == null)
+					visibleIndices = WorldView2.this.getVisibleIndices(frame.getCurrentSnapshot());
+				return visibleIndices;
+			}
 		};
 	}
 
@@ -188,6 +311,14 @@ public class WorldView2<F extends IFacade> extends JPanel implements KeyListener
 	}
 
 	protected void drawBullets(DrawContext<F> ctx) {
+		WorldSnapshot snapshot = ctx.getSnapshot();
+		if (snapshot != null) {
+			for (int i : ctx.getVisibleIndices()) {
+				if (snapshot.getType(i) == WorldSnapshot.BULLET)
+					getOrCreateVisualization((Bullet) snapshot.getEntity(i), this::createBulletVisualization).draw(ctx);
+			}
+			return;
+		}
 		Set<? extends Bullet> bullets;
 		try {
 			bullets = facade.getWorldBullets(world);
@@ -212,6 +343,14 @@ public class WorldView2<F extends IFacade> extends JPanel implements KeyListener
 	}
 
 	protected void drawShips(DrawContext<F> ctx) {
+		WorldSnapshot snapshot = ctx.getSnapshot();
+		if (snapshot != null) {
+			for (int i : ctx.getVisibleIndices()) {
+				if (snapshot.getType(i) == WorldSnapshot.SHIP)
+					getOrCreateVisualization((Ship) snapshot.getEntity(i), this::createEnemyVisualization).draw(ctx);
+			}
+			return;
+		}
 		Set<? extends Ship> ships;
 		try {
 			ships = facade.getWorldShips(world);
@@ -239,23 +378,48 @@ public class WorldView2<F extends IFacade> extends JPanel implements KeyListener
 		switch (e.getKeyCode()) {
 		case KeyEvent.VK_ESCAPE:
 			System.out.println("exiting...");
-			timer.stop();
+			simulation.stop();
+			renderTimer.stop();
 			// game.showMenu();
 			System.exit(0);
 			break;
 		case KeyEvent.VK_LEFT:
 		case KeyEvent.VK_KP_LEFT:
-			deltaAngle = Math.PI / 12.0;
+			simulation.submit(() -> deltaAngle = Math.PI / 12.0);
 			break;
 		case KeyEvent.VK_RIGHT:
 		case KeyEvent.VK_KP_RIGHT:
-			deltaAngle = -Math.PI / 12.0;
+			simulation.submit(() -> deltaAngle = -Math.PI / 12.0);
 			break;
 		case KeyEvent.VK_C:
 			showCollisions = !showCollisions;
 			break;
+		case KeyEvent.VK_A:
+			pan(-PAN_STEP, 0);
+			break;
+		case KeyEvent.VK_D:
+			pan(PAN_STEP, 0);
+			break;
+		case KeyEvent.VK_W:
+			pan(0, -PAN_STEP);
+			break;
+		case KeyEvent.VK_S:
+			pan(0, PAN_STEP);
+			break;
+		case KeyEvent.VK_PLUS:
+		case KeyEvent.VK_EQUALS:
+		case KeyEvent.VK_ADD:
+			zoom(ZOOM_STEP);
+			break;
+		case KeyEvent.VK_MINUS:
+		case KeyEvent.VK_SUBTRACT:
+			zoom(1 / ZOOM_STEP);
+			break;
+		case KeyEvent.VK_0:
+			resetCamera();
+			break;
 		case KeyEvent.VK_SPACE:
-			fire = true;
+			simulation.submit(() -> fire = true);
 			break;
 		}
 	}
@@ -267,29 +431,38 @@ public class WorldView2<F extends IFacade> extends JPanel implements KeyListener
 		case KeyEvent.VK_KP_LEFT:
 		case KeyEvent.VK_RIGHT:
 		case KeyEvent.VK_KP_RIGHT:
-			deltaAngle = Double.NaN;
+			simulation.submit(() -> deltaAngle = Double.NaN);
 			break;
 		case KeyEvent.VK_UP:
 		case KeyEvent.VK_KP_UP:
-			thrusterChange = true;
+			simulation.submit(() -> thrusterChange = true);
 			break;
 		}
 	}
 
-	@Override
-	public void actionPerformed(ActionEvent e) {
-		long now = System.currentTimeMillis();
-		long millisSinceLastEvolve = now - timeAfterLastEvolve;
-		timeAfterLastEvolve = now;
-
+	/**
+	 * Advances the game by one fixed timestep. Runs on the simulation thread,
+	 * after the queued player inputs have been applied.
+	 */
+	private void stepSimulation(double timestep) {
 		doActions();
 
-		evolveWorld(millisSinceLastEvolve);
+		evolveWorld(timestep);
 
-		updateExplosions(millisSinceLastEvolve);
+		WorldSnapshot snapshot = world.getSnapshot();
+		SnapshotFrame frame = this.frame;
+		this.frame = (frame == null) ? new SnapshotFrame(null, snapshot, System.nanoTime())
+				: frame.next(snapshot, System.nanoTime());
+	}
 
+	/**
+	 * Hands a new frame to the view. Runs on the simulation thread, after one
+	 * or more steps; explosions are updated on the event thread. Painting is
+	 * driven by the render timer, which interpolates between the last two steps.
+	 */
+	private void simulationFrame(double elapsed) {
 		checkGameOver();
-		repaint();
+		SwingUtilities.invokeLater(() -> updateExplosions(elapsed));
 	}
 
 	private void doActions() {
@@ -355,19 +528,18 @@ public class WorldView2<F extends IFacade> extends JPanel implements KeyListener
 		}
 	}
 
-	private void evolveWorld(long millisSinceLastEvolve) {
+	private void evolveWorld(double timestep) {
 		try {
-			millisSinceLastEvolve = Math.max(5, millisSinceLastEvolve);
-			facade.evolve(world, millisSinceLastEvolve / 1000., this);
+			facade.evolve(world, timestep, this);
 		} catch (ModelException exc) {
 			handleError(exc);
 		}
 	}
 
-	private void updateExplosions(long millisSinceLastEvolve) {
+	private void updateExplosions(double elapsed) {
 		Iterator<Explosion> iter = explosions.iterator();
 		while (iter.hasNext()) {
-			boolean done = iter.next().evolve(millisSinceLastEvolve / 1000.);
+			boolean done = iter.next().evolve(elapsed);
 			if (done)
 				iter.remove();
 		}
@@ -388,14 +560,18 @@ public class WorldView2<F extends IFacade> extends JPanel implements KeyListener
 	}
 
 	protected void gameOver(String string) {
-		timer.stop();
+		simulation.stop();
 		msg = string;
+		SwingUtilities.invokeLater(() -> {
+			renderTimer.stop();
+			repaint();
+		});
 	}
 
 	public void startGame() {
 		game.getSound().loop("game-theme");
-		timeAfterLastEvolve = System.currentTimeMillis();
-		timer.start();
+		simulation.start();
+		renderTimer.start();
 	}
 
 	@Override
@@ -409,7 +585,8 @@ public class WorldView2<F extends IFacade> extends JPanel implements KeyListener
 			if ((entity1 instanceof Bullet && !(entity2 instanceof Bullet))
 					|| (entity2 instanceof Bullet && !(entity1 instanceof Bullet))) {
 				game.getSound().play("explosion");
-				explosions.add(new Explosion(x, facade.getWorldSize(world)[1] - y));
+				Explosion explosion = new Explosion(x, facade.getWorldSize(world)[1] - y);
+				SwingUtilities.invokeLater(() -> explosions.add(explosion));
 			}
 		} catch (ModelException exc) {
 			handleError(exc);
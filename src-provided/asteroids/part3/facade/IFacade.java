@@ -5,6 +5,7 @@ import java.util.Set;
 
 import asteroids.model.*;
 import asteroids.programs.*;
+import asteroids.part2.CollisionListener;
 import asteroids.part3.programs.IProgramFactory;
 import asteroids.util.ModelException;
 
@@ -262,6 +263,28 @@ public interface IFacade extends asteroids.part2.facade.IFacade {
 	 */
 	public List<Object> executeProgram(Ship ship, double dt) throws ModelException;
 
+	/**
+	 * Advance <code>world</code> by <code>dt</code> seconds, after executing the
+	 * program loaded on each ship in it during that period of time. The outcome
+	 * is the same as executing those programs one by one, in the order in which
+	 * their ships were created, with {@link #executeProgram(Ship, double)}.
+	 * 
+	 * If the program of a ship fails, a ModelException is thrown and
+	 * <code>world</code> is not advanced. The actions of the programs of the ships
+	 * created before it, including the bullets they fired, are kept, and so are the
+	 * actions its own program performed before it failed. The programs of the ships
+	 * created after it are not executed: they are left as they were before this
+	 * method was called.
+	 * 
+	 * To enable explosions within the UI, notify <code>collisionListener</code>
+	 * whenever an entity collides with a boundary or another entity during this
+	 * method. <code>collisionListener</code> may be null. If
+	 * <code>collisionListener</code> is <code>null</code>, do not call its
+	 * notify methods.
+	 */
+	@Override
+	public void evolve(World world, double dt, CollisionListener collisionListener) throws ModelException;
+
 	/**
 	 * Creates a new program factory.
 	 */
@@ -3,11 +3,12 @@ package asteroids.part3.internal;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Image;
-import java.awt.geom.AffineTransform;
 
 import asteroids.model.Asteroid;
 import asteroids.model.World;
+import asteroids.model.WorldSnapshot;
 import asteroids.part2.internal.DrawContext;
+import asteroids.part2.internal.SpriteCache;
 import asteroids.part2.internal.Visualization;
 import asteroids.part3.facade.IFacade;
 import asteroids.util.ModelException;
@@ -25,20 +26,27 @@ public class AsteroidVisualization extends Visualization<IFacade, Asteroid> {
 		Graphics2D g2d = ctx.getGraphics();
 
 		try {
-			World world = facade.getAsteroidWorld(getObject());
-			if (world != null) {
-				double radius = facade.getAsteroidRadius(getObject());
-				double[] xy = facade.getAsteroidPosition(getObject());
-				xy[1] = facade.getWorldSize(world)[1] - xy[1];
-				double x = xy[0], y = xy[1];
+			WorldSnapshot snapshot = ctx.getSnapshot();
+			int index = (snapshot == null) ? -1 : snapshot.indexOf(getObject());
+			World world = (index >= 0) ? null : facade.getAsteroidWorld(getObject());
+			if (index >= 0 || world != null) {
+				double radius, x, y;
+				if (index >= 0) {
+					double[] position = ctx.getSnapshotPosition(getObject());
+					radius = snapshot.getRadius(index);
+					x = position[0];
+					y = ctx.worldToScreenY(position[1]);
+				} else {
+					radius = facade.getAsteroidRadius(getObject());
+					double[] xy = facade.getAsteroidPosition(getObject());
+					x = xy[0];
+					y = facade.getWorldSize(world)[1] - xy[1];
+				}
 				if (getImage() == null) {
 					g2d.setColor(getColor());
 					g2d.drawOval((int) (x - radius), (int) (y - radius), (int) (2 * radius), (int) (2 * radius));
 				} else {
-					AffineTransform T = AffineTransform.getScaleInstance(2 * radius / getImage().getWidth(null),
-							2 * radius / getImage().getHeight(null));
-					T.preConcatenate(AffineTransform.getTranslateInstance(x - radius, y - radius));
-					g2d.drawImage(this.getImage(), T, null);
+					SpriteCache.getDefault().draw(g2d, getImage(), x, y, radius);
 				}
 			}
 		} catch (ModelException e) {
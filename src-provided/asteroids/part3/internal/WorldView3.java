@@ -1,6 +1,5 @@
 package asteroids.part3.internal;
 
-import java.awt.Image;
 import java.util.Collections;
 import java.util.function.Supplier;
 
@@ -8,16 +7,18 @@ import asteroids.model.Asteroid;
 import asteroids.model.Planetoid;
 import asteroids.model.Ship;
 import asteroids.model.World;
+import asteroids.model.WorldSnapshot;
 import asteroids.part2.internal.DrawContext;
 import asteroids.part2.internal.Visualization;
 import asteroids.part2.internal.WorldView2;
 import asteroids.part3.facade.IFacade;
 import asteroids.util.ModelException;
-import asteroids.util.internal.ResourceUtils;
+import asteroids.util.internal.AssetManager;
 
 @SuppressWarnings("serial")
 public class WorldView3 extends WorldView2<IFacade> {
 
+
 	public WorldView3(AsteroidsFrame3 game, World world, Ship player, Ship other) throws ModelException {
 		super(game, world, player, Collections.singleton(other));
 	}
@@ -61,6 +62,14 @@ public class WorldView3 extends WorldView2<IFacade> {
 	}
 
 	protected void drawAsteroids(DrawContext<IFacade> ctx) {
+		WorldSnapshot snapshot = ctx.getSnapshot();
+		if (snapshot != null) {
+			for (int i : ctx.getVisibleIndices()) {
+				if (snapshot.getType(i) == WorldSnapshot.ASTEROID)
+					getOrCreateVisualization((Asteroid) snapshot.getEntity(i), this::createAsteroidVisualization).draw(ctx);
+			}
+			return;
+		}
 		try {
 			for (Asteroid asteroid : getFacade().getWorldAsteroids(getWorld())) {
 				Visualization<IFacade, Asteroid> vis = getOrCreateVisualization(asteroid,
@@ -73,18 +82,21 @@ public class WorldView3 extends WorldView2<IFacade> {
 	}
 
 	protected AsteroidVisualization createAsteroidVisualization(Asteroid asteroid) {
-		int size = 1;
-		try {
-			size = (int) (2 * getFacade().getAsteroidRadius(asteroid));
-		} catch (ModelException e) {
-			handleError(e);
-		}
-		Image image = ResourceUtils.loadImage("asteroids/resources/asteroid1.png").getScaledInstance(size, size,
-				Image.SCALE_DEFAULT);
-		return new AsteroidVisualization(asteroid, image);
+		// The full-size image is shared by all asteroids; the sprite cache renders it at their size.
+		AsteroidVisualization visualization = new AsteroidVisualization(asteroid, null);
+		AssetManager.getDefault().loadImage("asteroids/resources/asteroid1.png").thenAccept(visualization::setImage);
+		return visualization;
 	}
 	
 	protected void drawPlanetoids(DrawContext<IFacade> ctx) {
+		WorldSnapshot snapshot = ctx.getSnapshot();
+		if (snapshot != null) {
+			for (int i : ctx.getVisibleIndices()) {
+				if (snapshot.getType(i) == WorldSnapshot.PLANETOID)
+					getOrCreateVisualization((Planetoid) snapshot.getEntity(i), this::createPlanetoidVisualization).draw(ctx);
+			}
+			return;
+		}
 		try {
 			for (Planetoid planetoid : getFacade().getWorldPlanetoids(getWorld())) {
 				Visualization<IFacade, Planetoid> vis = getOrCreateVisualization(planetoid,
@@ -97,15 +109,9 @@ public class WorldView3 extends WorldView2<IFacade> {
 	}
 	
 	protected PlanetoidVisualization createPlanetoidVisualization(Planetoid planetoid) {
-		int size = 1;
-		try {
-			size = (int) (2 * getFacade().getPlanetoidRadius(planetoid));
-		} catch (ModelException e) {
-			handleError(e);
-		}
-		Image image = ResourceUtils.loadImage("asteroids/resources/deathstar.png").getScaledInstance(size, size,
-				Image.SCALE_DEFAULT);
-		return new PlanetoidVisualization(planetoid, image);
+		PlanetoidVisualization visualization = new PlanetoidVisualization(planetoid, null);
+		AssetManager.getDefault().loadImage("asteroids/resources/deathstar.png").thenAccept(visualization::setImage);
+		return visualization;
 	}
 
 }
@@ -0,0 +1,159 @@
+package asteroids.part3.programs.internal;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.Supplier;
+
+import asteroids.model.Program;
+import asteroids.programs.CompiledProgram;
+
+/**
+ * A cache of parsed programs, keyed by the SHA-256 hash of their source text and
+ * the class of the factory that created them.
+ *
+ * The cache holds compiled programs, which are immutable: each lookup returns a
+ * new program that executes the cached compiled program, with an execution state
+ * of its own. A program that is loaded on many ships is therefore lexed, parsed
+ * and compiled only once.
+ * Once the cache holds more than a maximal number of programs, the least
+ * recently used ones are evicted. Programs that fail to parse are not cached.
+ */
+public class ProgramCache {
+
+	private static final ProgramCache DEFAULT = new ProgramCache(256);
+
+	public static ProgramCache getDefault() {
+		return DEFAULT;
+	}
+
+	private final int maxEntries;
+	private long hits = 0;
+	private long misses = 0;
+	private long evictions = 0;
+	private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+	/**
+	 * Creates a new program cache that holds at most the given number of programs.
+	 */
+	public ProgramCache(int maxEntries) {
+		if (maxEntries <= 0)
+			throw new IllegalArgumentException("Invalid cache size: " + maxEntries);
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * Returns a new program that executes the cached compiled program with the
+	 * given source text, created by a factory of the given class, or the compiled
+	 * program of the program returned by the given parser if it is not cached.
+	 * Returns null if the parser returns null.
+	 */
+	public Program get(String text, Class<?> factory, Supplier<Program> parser) {
+		Key key = new Key(factory, hash(text));
+		synchronized (this) {
+			Entry entry = entries.get(key);
+			if (entry != null && entry.text.equals(text)) {
+				hits++;
+				return new Program(entry.program);
+			}
+			misses++;
+		}
+		// Parsed outside the lock, so that other programs can be looked up meanwhile.
+		Program program = parser.get();
+		if (program == null)
+			return null;
+		synchronized (this) {
+			entries.put(key, new Entry(text, program.getCompiledProgram()));
+			evict();
+		}
+		return program.copy();
+	}
+
+	public synchronized long getNbHits() {
+		return hits;
+	}
+
+	public synchronized long getNbMisses() {
+		return misses;
+	}
+
+	public synchronized long getNbEvictions() {
+		return evictions;
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	/**
+	 * Removes all programs from this cache, and resets its statistics.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		hits = 0;
+		misses = 0;
+		evictions = 0;
+	}
+
+	private void evict() {
+		Iterator<Entry> iterator = entries.values().iterator();
+		while (entries.size() > maxEntries && iterator.hasNext()) {
+			iterator.next();
+			iterator.remove();
+			evictions++;
+		}
+	}
+
+	private static String hash(String text) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+			StringBuilder result = new StringBuilder(2 * digest.length);
+			for (byte b : digest)
+				result.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			return result.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	private static final class Key {
+		private final Class<?> factory;
+		private final String hash;
+
+		private Key(Class<?> factory, String hash) {
+			this.factory = factory;
+			this.hash = hash;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof Key))
+				return false;
+			return factory == ((Key) other).factory && hash.equals(((Key) other).hash);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * factory.hashCode() + hash.hashCode();
+		}
+	}
+
+	/**
+	 * A cached compiled program, with its source text to rule out hash collisions.
+	 */
+	private static final class Entry {
+		private final String text;
+		private final CompiledProgram program;
+
+		private Entry(String text, CompiledProgram program) {
+			this.text = text;
+			this.program = program;
+		}
+	}
+}
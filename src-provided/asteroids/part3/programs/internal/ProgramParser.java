@@ -178,7 +178,9 @@ public class ProgramParser<E, S, F, P> {
 	}
 
 	/**
-	 * Parse program text using the given factory.
+	 * Parse program text using the given factory. Programs are cached by their
+	 * text: parsing the same text again returns a new program that shares the
+	 * compiled code of the first one.
 	 * 
 	 * @param text
 	 *            The text to parse
@@ -188,13 +190,7 @@ public class ProgramParser<E, S, F, P> {
 	 *         parsing.
 	 */
 	public static Program parseProgramFromString(String text, IProgramFactory<?, ?, ?, Program> factory) {
-		ProgramParser<?, ?, ?, Program> parser = create(factory);
-		ParseOutcome<Program> outcome = parser.parseString(text);
-		if (outcome.isFail()) {
-			System.out.println("Parsing failed: " + outcome.getFailValue());
-			return null;
-		}
-		return outcome.getSuccessValue();
+		return parseCached(CharStreams.fromString(text), factory);
 	}
 
 	/**
@@ -209,13 +205,7 @@ public class ProgramParser<E, S, F, P> {
 	 */
 	public static Program parseTasksFromFile(String filename, IProgramFactory<?, ?, ?, Program> factory)
 			throws IOException {
-		ProgramParser<?, ?, ?, Program> parser = create(factory);
-		ParseOutcome<Program> outcome = parser.parseFile(filename);
-		if (outcome.isFail()) {
-			System.out.println("Parsing failed: " + outcome.getFailValue());
-			return null;
-		}
-		return outcome.getSuccessValue();
+		return parseCached(CharStreams.fromStream(ResourceUtils.openResource(filename)), factory);
 	}
 	
 	/**
@@ -230,12 +220,22 @@ public class ProgramParser<E, S, F, P> {
 	 */
 	public static Program parseTasksFromURL(URL url, IProgramFactory<?, ?, ?, Program> factory)
 			throws IOException {
-		ProgramParser<?, ?, ?, Program> parser = create(factory);
-		ParseOutcome<Program> outcome = parser.parseFile(url);
-		if (outcome.isFail()) {
-			System.out.println("Parsing failed: " + outcome.getFailValue());
-			return null;
-		}
-		return outcome.getSuccessValue();
+		return parseCached(CharStreams.fromStream(ResourceUtils.openResource(url)), factory);
+	}
+
+	/**
+	 * Parse the given input using the given factory, unless a program with the
+	 * same text was parsed by a factory of the same class before.
+	 */
+	private static Program parseCached(CharStream input, IProgramFactory<?, ?, ?, Program> factory) {
+		return ProgramCache.getDefault().get(input.toString(), factory.getClass(), () -> {
+			ProgramParser<?, ?, ?, Program> parser = create(factory);
+			ParseOutcome<Program> outcome = parser.parse(input);
+			if (outcome.isFail()) {
+				System.out.println("Parsing failed: " + outcome.getFailValue());
+				return null;
+			}
+			return outcome.getSuccessValue();
+		});
 	}
 }
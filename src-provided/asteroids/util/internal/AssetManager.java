@@ -0,0 +1,188 @@
+package asteroids.util.internal;
+
+import java.awt.Image;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * Loads and decodes images and sounds in the background, on a pool of daemon
+ * threads, and keeps them in a shared cache.
+ *
+ * Each asset is loaded at most once while it is cached: requests for an asset
+ * that is still loading share the same future. Once the loaded assets exceed a
+ * memory budget, the least recently requested ones are dropped from the cache;
+ * they are loaded again when they are requested again.
+ */
+public class AssetManager {
+
+	private static final AssetManager DEFAULT = new AssetManager(
+			Math.max(2, Runtime.getRuntime().availableProcessors()), 256L * 1024 * 1024);
+
+	public static AssetManager getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * A sound decoded to PCM samples.
+	 */
+	public static final class AudioData {
+		private final AudioFormat format;
+		private final byte[] samples;
+
+		public AudioData(AudioFormat format, byte[] samples) {
+			this.format = format;
+			this.samples = samples;
+		}
+
+		public AudioFormat getFormat() {
+			return format;
+		}
+
+		public byte[] getSamples() {
+			return samples;
+		}
+	}
+
+	private final ExecutorService executor;
+	private final long maxBytes;
+	private long bytes = 0;
+	private final LinkedHashMap<String, Entry<?>> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+	public AssetManager(int threads, long maxBytes) {
+		if (threads <= 0)
+			throw new IllegalArgumentException("Invalid number of threads: " + threads);
+		if (maxBytes <= 0)
+			throw new IllegalArgumentException("Invalid cache size: " + maxBytes);
+		AtomicInteger count = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "asteroids-assets-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Returns a future for the image in the given file.
+	 */
+	public CompletableFuture<Image> loadImage(String filename) {
+		return load("image:" + filename, () -> ResourceUtils.loadImage(filename), AssetManager::sizeOf);
+	}
+
+	/**
+	 * Returns the image in the given file if it has been loaded, or null if it is
+	 * still loading or could not be loaded.
+	 */
+	public Image getImageIfLoaded(String filename) {
+		return getIfLoaded(loadImage(filename));
+	}
+
+	/**
+	 * Returns a future for the sound in the given file, decoded to PCM.
+	 */
+	public CompletableFuture<AudioData> loadAudio(String filename) {
+		return load("audio:" + filename, () -> decodeAudio(filename), data -> data.getSamples().length);
+	}
+
+	/**
+	 * Returns the result of the given future, or null if it has not completed or
+	 * has failed.
+	 */
+	public static <T> T getIfLoaded(CompletableFuture<T> future) {
+		if (!future.isDone() || future.isCompletedExceptionally())
+			return null;
+		return future.join();
+	}
+
+	/**
+	 * Returns a future for the asset with the given key, which is loaded with the
+	 * given loader if it is not cached.
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized <T> CompletableFuture<T> load(String key, Supplier<T> loader, ToLongFunction<T> size) {
+		Entry<T> entry = (Entry<T>) entries.get(key);
+		if (entry == null) {
+			Entry<T> result = new Entry<>(CompletableFuture.supplyAsync(loader, executor));
+			entries.put(key, result);
+			result.future.whenComplete((asset, exception) -> {
+				if (exception != null)
+					discard(key, result);
+				else
+					loaded(result, size.applyAsLong(asset));
+			});
+			entry = result;
+		}
+		return entry.future;
+	}
+
+	private synchronized void loaded(Entry<?> entry, long size) {
+		if (entries.containsValue(entry)) {
+			entry.size = size;
+			bytes += size;
+			evict();
+		}
+	}
+
+	private synchronized void discard(String key, Entry<?> entry) {
+		entries.remove(key, entry);
+	}
+
+	private void evict() {
+		Iterator<Map.Entry<String, Entry<?>>> iterator = entries.entrySet().iterator();
+		while (bytes > maxBytes && iterator.hasNext()) {
+			Entry<?> entry = iterator.next().getValue();
+			if (entry.future.isDone()) {
+				bytes -= entry.size;
+				iterator.remove();
+			}
+		}
+	}
+
+	private static long sizeOf(Image image) {
+		return 4L * Math.max(0, image.getWidth(null)) * Math.max(0, image.getHeight(null));
+	}
+
+	private static AudioData decodeAudio(String filename) {
+		try {
+			URL url = ResourceUtils.toURL(filename);
+			try (AudioInputStream stream = AudioSystem.getAudioInputStream(url)) {
+				return new AudioData(stream.getFormat(), readAll(stream));
+			}
+		} catch (IOException | UnsupportedAudioFileException e) {
+			throw new RuntimeException("Could not read file '" + filename + "'", e);
+		}
+	}
+
+	private static byte[] readAll(InputStream stream) throws IOException {
+		ByteArrayOutputStream result = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		for (int read = stream.read(buffer); read >= 0; read = stream.read(buffer))
+			result.write(buffer, 0, read);
+		return result.toByteArray();
+	}
+
+	private static final class Entry<T> {
+		private final CompletableFuture<T> future;
+		private long size = 0;
+
+		private Entry(CompletableFuture<T> future) {
+			this.future = future;
+		}
+	}
+}
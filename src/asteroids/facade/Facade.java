@@ -12,6 +12,7 @@ import asteroids.model.Bullet;
 import asteroids.model.Entity;
 import asteroids.model.Planetoid;
 import asteroids.model.Program;
+import asteroids.model.ProgramScheduler;
 import asteroids.model.Ship;
 import asteroids.model.World;
 import asteroids.model.exceptions.IllegalBulletException;
@@ -28,6 +29,12 @@ import asteroids.util.ModelException;
 
 public class Facade implements asteroids.part3.facade.IFacade {
 
+	/**
+	 * The scheduler that executes the programs of the ships in a world each time
+	 * the world evolves. Its threads are daemon threads, so it is never shut down.
+	 */
+	private static final ProgramScheduler scheduler = new ProgramScheduler();
+
 	@Override
 	public Ship createShip()throws ModelException{
 		
@@ -401,6 +408,13 @@ public class Facade implements asteroids.part3.facade.IFacade {
 
 	@Override
 	public void evolve(World world, double dt, CollisionListener collisionListener) throws ModelException {	
+		if (!world.isValidDuration(dt))
+			throw new ModelException("Illegal Duration");
+		try {
+			scheduler.run(world, dt);
+		} catch (IllegalArgumentException | RuntimeErrorException | IllegalAccessError error) {
+			throw new ModelException("exec");
+		}
 		try {
 			world.evolve(dt);
 		} catch (IllegalCollisionException e) {
@@ -571,12 +585,19 @@ public class Facade implements asteroids.part3.facade.IFacade {
 		return planetoid.getWorld(); 
 	}
 
+	/**
+	 * A function call is never suspended. A program of which a function call,
+	 * together with the calls it makes in turn, executes more instructions than
+	 * the call instruction budget of the program fails, and a ModelException is
+	 * thrown. The same holds for the programs executed when a world evolves.
+	 * 
+	 * @see Program#getCallInstructionBudget()
+	 */
 	@Override
 	public List<Object> executeProgram(Ship ship, double dt) throws ModelException {
 		try {
 			return ship.executeProgram(dt);	
 		} catch (IllegalArgumentException | RuntimeErrorException | IllegalAccessError error) {
-			System.out.println("FACADE > EXECUTEPROGRAM CATCH ILLEGALARGUMENTERROR");
 			throw new ModelException("exec");
 		}
 	}
@@ -1,5 +1,7 @@
 package asteroids.model;
 
+import java.util.Map;
+
 import asteroids.model.exceptions.IllegalPositionException;
 import asteroids.model.exceptions.IllegalRadiusException;
 import asteroids.model.exceptions.IllegalShipException;
@@ -301,6 +303,7 @@ public class Bullet extends Entity {
 	 * 		 |new.bounces_left = old.bounces_left - 1;
 	 */
 	public void decrementBouncesLeft(){
+		this.registerChange();
 		this.bounces_left = bounces_left-1;
 	}
 	
@@ -404,6 +407,24 @@ public class Bullet extends Entity {
 		return true;
 	}
 	
+	/**
+	 * Replace the ship and the source of this bullet by their copies.
+	 * 
+	 * @post  If the ship of this bullet is copied, the copy is the new ship of this bullet.
+	 * 		  | if (copies.containsKey(getShip()))
+	 * 		  |		then new.getShip() == copies.get(getShip())
+	 * @post  If the source of this bullet is copied, the copy is the new source of this bullet.
+	 * 		  | if (copies.containsKey(getSource()))
+	 * 		  |		then new.getSource() == copies.get(getSource())
+	 */
+	@Override
+	void replaceReferences(Map<Entity, Entity> copies){
+		if (copies.containsKey(this.ship))
+			this.ship = (Ship) copies.get(this.ship);
+		if (copies.containsKey(this.source))
+			this.source = (Ship) copies.get(this.source);
+	}
+	
 
 // ---------------------  Initialising Variables & Defaults -------------------------------
 	
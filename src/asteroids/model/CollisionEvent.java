@@ -0,0 +1,171 @@
+package asteroids.model;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Immutable;
+import be.kuleuven.cs.som.annotate.Value;
+
+/**
+ * A class of collision events, as they are predicted within a world.
+ * A collision event is either a collision between an entity and a boundary of its world,
+ * or a collision between two entities. Each event happens a certain time from now.
+ *
+ * Collision events are ordered by their time. Events that happen at the same time
+ * are ordered in a deterministic way: boundary collisions come first, then the
+ * entities involved are compared by their sequence numbers.
+ *
+ * @invar  The first entity of each collision event is effective.
+ * 		   | getFirstEntity() != null
+ *
+ * @version 3.0
+ * @author James Defauw & Michiel De Koninck
+ */
+@Value
+public class CollisionEvent implements Comparable<CollisionEvent> {
+
+	/**
+	 * Initialize this new collision event as a collision between the given entity
+	 * and a boundary of its world, at the given time.
+	 *
+	 * @param time
+	 * 		  The time until the collision happens.
+	 * @param entity
+	 * 		  The entity that collides with a boundary.
+	 * @post  | new.getTime() == time
+	 * @post  | new.getFirstEntity() == entity
+	 * @post  | new.isBoundaryCollision()
+	 */
+	public CollisionEvent(double time, Entity entity){
+		this(time, entity, null);
+	}
+
+	/**
+	 * Initialize this new collision event as a collision between the two given entities,
+	 * at the given time.
+	 *
+	 * @param time
+	 * 		  The time until the collision happens.
+	 * @param entity
+	 * 		  One of the entities in this collision.
+	 * @param other
+	 * 		  The other entity in this collision, null for a boundary collision.
+	 * @post  The entity with the lowest sequence number is registered as the first entity.
+	 * 		  | @see implementation
+	 */
+	public CollisionEvent(double time, Entity entity, Entity other){
+		this.time = time;
+		if (other != null && other.getSequenceNumber() < entity.getSequenceNumber()){
+			this.firstEntity = other;
+			this.secondEntity = entity;
+		}
+		else {
+			this.firstEntity = entity;
+			this.secondEntity = other;
+		}
+	}
+
+	/**
+	 * Return the time until this collision happens.
+	 */
+	@Basic @Immutable
+	public double getTime(){
+		return this.time;
+	}
+
+	/**
+	 * Return the first entity involved in this collision.
+	 */
+	@Basic @Immutable
+	public Entity getFirstEntity(){
+		return this.firstEntity;
+	}
+
+	/**
+	 * Return the second entity involved in this collision.
+	 * Null is returned if this collision is a boundary collision.
+	 */
+	@Basic @Immutable
+	public Entity getSecondEntity(){
+		return this.secondEntity;
+	}
+
+	/**
+	 * Return whether this collision is a collision with a boundary.
+	 *
+	 * @return | result == (getSecondEntity() == null)
+	 */
+	public boolean isBoundaryCollision(){
+		return this.getSecondEntity() == null;
+	}
+
+	/**
+	 * Compare this collision event with the given one.
+	 *
+	 * @return The events are first compared by their time. Then boundary collisions
+	 * 		   come before collisions between entities. Finally the sequence numbers of
+	 * 		   the entities involved are compared.
+	 * 		   | @see implementation
+	 */
+	@Override
+	public int compareTo(CollisionEvent other){
+		int result = Double.compare(this.getTime(), other.getTime());
+		if (result != 0)
+			return result;
+		result = Boolean.compare(!this.isBoundaryCollision(), !other.isBoundaryCollision());
+		if (result != 0)
+			return result;
+		result = Long.compare(this.getFirstEntity().getSequenceNumber(), other.getFirstEntity().getSequenceNumber());
+		if (result != 0 || this.isBoundaryCollision())
+			return result;
+		return Long.compare(this.getSecondEntity().getSequenceNumber(), other.getSecondEntity().getSequenceNumber());
+	}
+
+	/**
+	 * Check whether this collision event is equal to the given object.
+	 *
+	 * @return True if and only if the given object is a collision event
+	 * 		   at the same time and between the same entities.
+	 * 		   | @see implementation
+	 */
+	@Override
+	public boolean equals(Object other){
+		if (other == null || this.getClass() != other.getClass())
+			return false;
+		CollisionEvent otherEvent = (CollisionEvent) other;
+		return (this.getTime() == otherEvent.getTime()) && (this.getFirstEntity() == otherEvent.getFirstEntity())
+				&& (this.getSecondEntity() == otherEvent.getSecondEntity());
+	}
+
+	/**
+	 * Return the hash code for this collision event.
+	 */
+	@Override
+	public int hashCode(){
+		return Double.hashCode(this.getTime()) + 31 * this.getFirstEntity().hashCode()
+				+ ((this.getSecondEntity() == null) ? 0 : this.getSecondEntity().hashCode());
+	}
+
+	/**
+	 * Return a textual representation of this collision event.
+	 */
+	@Override
+	public String toString(){
+		if (this.isBoundaryCollision())
+			return "[" + this.getTime() + ": " + this.getFirstEntity() + " - boundary]";
+		return "[" + this.getTime() + ": " + this.getFirstEntity() + " - " + this.getSecondEntity() + "]";
+	}
+
+	/**
+	 * Variable registering the time until this collision happens.
+	 */
+	private final double time;
+
+	/**
+	 * Variable registering the first entity involved in this collision.
+	 */
+	private final Entity firstEntity;
+
+	/**
+	 * Variable registering the second entity involved in this collision.
+	 */
+	private final Entity secondEntity;
+}
@@ -0,0 +1,357 @@
+package asteroids.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Immutable;
+
+/**
+ * A class of sparse uniform grids, used as a broad phase to find the entities
+ * that can possibly collide with each other within a given time horizon.
+ *
+ * Each entity is registered in all cells covered by the region it sweeps through
+ * during the time horizon, assuming it keeps its current velocity.
+ * Two entities can only collide within the horizon if they share a cell.
+ *
+ * Slow entities are registered by the bounding box of their swept region.
+ * Small, fast entities (such as bullets) are registered by the cells their
+ * center traverses along its path, found by a digital differential analyzer,
+ * dilated by one cell. This covers the capsule they sweep through, because the
+ * cells are at least twice as large as the radius of any fast entity.
+ * Entities that cover too many cells are not registered in cells at all;
+ * they are candidates for every other entity.
+ *
+ * @invar  The cell size of each grid is strictly positive.
+ * 		   | getCellSize() > 0
+ *
+ * @version 3.0
+ * @author James Defauw & Michiel De Koninck
+ */
+public class CollisionGrid {
+
+	/**
+	 * Initialize this new grid with the given entities and time horizon.
+	 *
+	 * @param entities
+	 * 		  The entities to register in this grid.
+	 * @param horizon
+	 * 		  The duration during which the entities are swept.
+	 * @post  The horizon of this grid is the given horizon.
+	 * 		  | new.getHorizon() == horizon
+	 * @post  The cell size of this grid is at least twice the radius of each fast entity.
+	 * 		  | for each entity in entities:
+	 * 		  |		if (isFastEntity(entity, horizon))
+	 * 		  |			then new.getCellSize() >= 2 * entity.getRadius()
+	 * @effect Each of the given entities is registered in this grid.
+	 * 		   | @see implementation
+	 */
+	public CollisionGrid(Collection<? extends Entity> entities, double horizon){
+		this.horizon = horizon;
+		this.cellSize = computeCellSize(entities, horizon);
+		for (Entity entity : entities)
+			this.register(entity);
+	}
+
+// ------------------ GETTERS ------------------
+
+	/**
+	 * Return the duration during which the entities of this grid are swept.
+	 */
+	@Basic @Immutable
+	public double getHorizon(){
+		return this.horizon;
+	}
+
+	/**
+	 * Return the length of the sides of the cells of this grid.
+	 */
+	@Basic @Immutable
+	public double getCellSize(){
+		return this.cellSize;
+	}
+
+	/**
+	 * Return the entities that can possibly collide with the given entity within the horizon of this grid.
+	 *
+	 * @param entity
+	 * 		  The entity to find candidates for.
+	 * @return A set of entities registered in this grid, not containing the given entity.
+	 * 		   Each registered entity that collides with the given entity within the horizon
+	 * 		   of this grid, assuming constant velocities, is in this set.
+	 * 		   | @see implementation
+	 */
+	public Set<Entity> getCandidates(Entity entity){
+		if (this.oversizedEntities.contains(entity)){
+			Set<Entity> result = new HashSet<>(this.cellsOfEntities.keySet());
+			result.remove(entity);
+			return result;
+		}
+		Set<Entity> result = new HashSet<>(this.oversizedEntities);
+		List<Long> cells = this.cellsOfEntities.get(entity);
+		if (cells != null){
+			for (Long cell : cells)
+				result.addAll(this.entitiesInCells.get(cell));
+		}
+		result.remove(entity);
+		return result;
+	}
+
+// ------------------ CLASSIFICATION ------------------
+
+	/**
+	 * Check whether the given entity is a fast entity for the given horizon.
+	 *
+	 * @param entity
+	 * 		  The entity to check.
+	 * @param horizon
+	 * 		  The duration during which the entity is swept.
+	 * @return True if and only if the distance covered by the given entity during the
+	 * 		   given horizon exceeds a number of times the diameter of that entity.
+	 * 		   Such entities sweep through a long, narrow capsule, which is badly
+	 * 		   approximated by its bounding box.
+	 * 		   | result == (entity.getVelocityNorm() * horizon > FAST_FACTOR * 2 * entity.getRadius())
+	 */
+	public static boolean isFastEntity(Entity entity, double horizon){
+		return (entity.getVelocityNorm() * horizon > FAST_FACTOR * 2 * entity.getRadius());
+	}
+
+	/**
+	 * Compute the cell size for a grid with the given entities and horizon.
+	 *
+	 * @param entities
+	 * 		  The entities to register in the grid.
+	 * @param horizon
+	 * 		  The duration during which the entities are swept.
+	 * @return The largest of twice the largest radius of all fast entities,
+	 * 		   and the average extent of the swept bounding boxes of all slow entities.
+	 * 		   | @see implementation
+	 */
+	private static double computeCellSize(Collection<? extends Entity> entities, double horizon){
+		double largestFastRadius = 0;
+		double totalSlowExtent = 0;
+		int nbSlowEntities = 0;
+		for (Entity entity : entities){
+			if (isFastEntity(entity, horizon))
+				largestFastRadius = Math.max(largestFastRadius, entity.getRadius());
+			else {
+				double sweepX = Math.abs(entity.getXVelocity()) * horizon;
+				double sweepY = Math.abs(entity.getYVelocity()) * horizon;
+				totalSlowExtent += 2 * entity.getRadius() + Math.max(sweepX, sweepY);
+				nbSlowEntities++;
+			}
+		}
+		double result = 2 * largestFastRadius;
+		if (nbSlowEntities > 0)
+			result = Math.max(result, totalSlowExtent / nbSlowEntities);
+		if (!(result > 0))
+			return 1;
+		return result;
+	}
+
+// ------------------ REGISTRATION ------------------
+
+	/**
+	 * Register the given entity in this grid.
+	 *
+	 * @param entity
+	 * 		  The entity to register.
+	 * @effect If the given entity is a fast entity, it is registered along its path.
+	 * 		   Otherwise it is registered by the bounding box of its swept region.
+	 * 		   | @see implementation
+	 */
+	private void register(Entity entity){
+		List<Long> cells;
+		if (isFastEntity(entity, this.getHorizon()))
+			cells = this.getPathCells(entity);
+		else
+			cells = this.getBoxCells(entity);
+
+		if (cells == null){
+			this.oversizedEntities.add(entity);
+			this.cellsOfEntities.put(entity, null);
+			return;
+		}
+		this.cellsOfEntities.put(entity, cells);
+		for (Long cell : cells){
+			List<Entity> entitiesInCell = this.entitiesInCells.get(cell);
+			if (entitiesInCell == null){
+				entitiesInCell = new ArrayList<>();
+				this.entitiesInCells.put(cell, entitiesInCell);
+			}
+			entitiesInCell.add(entity);
+		}
+	}
+
+	/**
+	 * Return the cells covered by the bounding box of the region the given entity sweeps through.
+	 *
+	 * @param entity
+	 * 		  The entity to compute the cells for.
+	 * @return The keys of all cells overlapping that bounding box,
+	 * 		   or null if there are more than MAX_CELLS of them.
+	 * 		   | @see implementation
+	 */
+	private List<Long> getBoxCells(Entity entity){
+		double endX = entity.getXPosition() + entity.getXVelocity() * this.getHorizon();
+		double endY = entity.getYPosition() + entity.getYVelocity() * this.getHorizon();
+		int minX = this.getCellIndex(Math.min(entity.getXPosition(), endX) - entity.getRadius());
+		int maxX = this.getCellIndex(Math.max(entity.getXPosition(), endX) + entity.getRadius());
+		int minY = this.getCellIndex(Math.min(entity.getYPosition(), endY) - entity.getRadius());
+		int maxY = this.getCellIndex(Math.max(entity.getYPosition(), endY) + entity.getRadius());
+
+		if (((long) maxX - minX + 1) * ((long) maxY - minY + 1) > MAX_CELLS)
+			return null;
+		List<Long> result = new ArrayList<>();
+		for (int i = minX; i <= maxX; i++){
+			for (int j = minY; j <= maxY; j++)
+				result.add(getCellKey(i, j));
+		}
+		return result;
+	}
+
+	/**
+	 * Return the cells traversed by the center of the given entity during the horizon,
+	 * dilated by one cell in each direction.
+	 *
+	 * @param entity
+	 * 		  The entity to compute the cells for.
+	 * @return The keys of all cells traversed by the path of the center of the given entity,
+	 * 		   and of all their neighbours, or null if the path traverses more than MAX_CELLS cells.
+	 * 		   The cells along the path are visited one by one, each time stepping into the
+	 * 		   neighbouring cell whose border is crossed first.
+	 * 		   | @see implementation
+	 */
+	private List<Long> getPathCells(Entity entity){
+		double startX = entity.getXPosition();
+		double startY = entity.getYPosition();
+		double dx = entity.getXVelocity() * this.getHorizon();
+		double dy = entity.getYVelocity() * this.getHorizon();
+		int i = this.getCellIndex(startX);
+		int j = this.getCellIndex(startY);
+		int endI = this.getCellIndex(startX + dx);
+		int endJ = this.getCellIndex(startY + dy);
+
+		long nbSteps = Math.abs((long) endI - i) + Math.abs((long) endJ - j);
+		if (nbSteps + 1 > MAX_CELLS)
+			return null;
+
+		int stepI = (endI > i) ? 1 : -1;
+		int stepJ = (endJ > j) ? 1 : -1;
+		// The fraction of the path after which the next vertical or horizontal cell border is crossed,
+		// and the fraction of the path it takes to cross a whole cell.
+		double nextI = (dx == 0) ? Double.POSITIVE_INFINITY
+				: ((stepI > 0 ? (i + 1) * this.getCellSize() : i * this.getCellSize()) - startX) / dx;
+		double nextJ = (dy == 0) ? Double.POSITIVE_INFINITY
+				: ((stepJ > 0 ? (j + 1) * this.getCellSize() : j * this.getCellSize()) - startY) / dy;
+		double deltaI = (dx == 0) ? Double.POSITIVE_INFINITY : this.getCellSize() / Math.abs(dx);
+		double deltaJ = (dy == 0) ? Double.POSITIVE_INFINITY : this.getCellSize() / Math.abs(dy);
+
+		Set<Long> result = new HashSet<>();
+		addNeighbourhood(result, i, j);
+		for (long step = 0; step < nbSteps; step++){
+			// Once one index reached its end, only the other one can still change.
+			// This keeps the path from overshooting because of rounding errors.
+			if (j == endJ || (i != endI && nextI < nextJ)){
+				i += stepI;
+				nextI += deltaI;
+			}
+			else {
+				j += stepJ;
+				nextJ += deltaJ;
+			}
+			addNeighbourhood(result, i, j);
+		}
+		return new ArrayList<>(result);
+	}
+
+	/**
+	 * Add the key of the given cell and the keys of its eight neighbours to the given set.
+	 *
+	 * @param cells
+	 * 		  The set to add the keys to.
+	 * @param i
+	 * 		  The horizontal index of the cell.
+	 * @param j
+	 * 		  The vertical index of the cell.
+	 */
+	private static void addNeighbourhood(Set<Long> cells, int i, int j){
+		for (int di = -1; di <= 1; di++){
+			for (int dj = -1; dj <= 1; dj++)
+				cells.add(getCellKey(i + di, j + dj));
+		}
+	}
+
+	/**
+	 * Return the index of the cell containing the given coordinate.
+	 *
+	 * @param coordinate
+	 * 		  The coordinate to get the cell index for.
+	 * @return The index of the cell along one axis, clamped so that neighbouring
+	 * 		   indices are still representable.
+	 * 		   | @see implementation
+	 */
+	private int getCellIndex(double coordinate){
+		double index = Math.floor(coordinate / this.getCellSize());
+		if (Double.isNaN(index))
+			return 0;
+		return (int) Math.max(Integer.MIN_VALUE + 1, Math.min(Integer.MAX_VALUE - 1, index));
+	}
+
+	/**
+	 * Return the key of the cell with the given indices.
+	 *
+	 * @param i
+	 * 		  The horizontal index of the cell.
+	 * @param j
+	 * 		  The vertical index of the cell.
+	 * @return | result == (((long) i) << 32) | (j & 0xFFFFFFFFL)
+	 */
+	private static long getCellKey(int i, int j){
+		return (((long) i) << 32) | (j & 0xFFFFFFFFL);
+	}
+
+// ------------------ VARIABLES ------------------
+
+	/**
+	 * Variable registering the number of diameters an entity must cover during
+	 * the horizon to be a fast entity.
+	 */
+	private static final double FAST_FACTOR = 2;
+
+	/**
+	 * Variable registering the maximum number of cells covered by the bounding box of a slow entity,
+	 * or traversed by the path of a fast entity.
+	 */
+	private static final long MAX_CELLS = 1024;
+
+	/**
+	 * Variable registering the duration during which the entities of this grid are swept.
+	 */
+	private final double horizon;
+
+	/**
+	 * Variable registering the length of the sides of the cells of this grid.
+	 */
+	private final double cellSize;
+
+	/**
+	 * A map containing the entities registered in each non-empty cell, with the key of that cell as key.
+	 */
+	private final HashMap<Long, List<Entity>> entitiesInCells = new HashMap<>();
+
+	/**
+	 * A map containing the keys of the cells of each registered entity.
+	 * Oversized entities are mapped to null.
+	 */
+	private final HashMap<Entity, List<Long>> cellsOfEntities = new HashMap<>();
+
+	/**
+	 * A set containing the entities that cover too many cells to be registered in cells.
+	 */
+	private final Set<Entity> oversizedEntities = new HashSet<>();
+}
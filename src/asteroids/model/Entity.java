@@ -1,5 +1,8 @@
 package asteroids.model;
 
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
 import asteroids.model.exceptions.IllegalBulletException;
 import asteroids.model.exceptions.IllegalCollisionException;
 import asteroids.model.exceptions.IllegalDurationException;
@@ -38,7 +41,7 @@ import be.kuleuven.cs.som.annotate.Raw;
  * @author Michiel De Koninck & James Defauw
  *
  */
-public abstract class Entity {
+public abstract class Entity implements Cloneable {
 
 	//-------------------------------- CONSTRUCTOR -------------------------------- 
 
@@ -224,6 +227,16 @@ public abstract class Entity {
 		return this.mass;
 	}
 
+	/**
+	 * Return the sequence number of this entity.
+	 * Entities are numbered in the order in which they were created,
+	 * so this number can be used to order entities in a deterministic way.
+	 */
+	@Basic @Immutable
+	public long getSequenceNumber(){
+		return this.sequenceNumber;
+	}
+
 
 	//---------------WORLD; associations--------------
 
@@ -283,6 +296,20 @@ public abstract class Entity {
 		return (this.canHaveAsWorld(getWorld()) || getWorld().hasEntity(this));
 	}
 
+	/**
+	 * Register with the world this entity belongs to, that the state of this entity is about to change.
+	 * This method must be invoked before the state of this entity is changed, so that
+	 * forks of that world can still copy the old state.
+	 * 
+	 * @effect If this entity belongs to a world, the version of that world is increased.
+	 * 		   | if (this.getWorld() != null)
+	 * 		   |	then this.getWorld().increaseVersion()
+	 */
+	protected void registerChange(){
+		if (this.getWorld() != null)
+			this.getWorld().increaseVersion();
+	}
+
 	//--------------POSITION-----------------------
 
 	/** 
@@ -308,8 +335,11 @@ public abstract class Entity {
 			throw new IllegalPositionException(xPosition,yPosition);
 		}
 
+		this.registerChange();
 		this.xPosition = xPosition;
 		this.yPosition = yPosition;
+		if (this.getWorld() != null)
+			this.getWorld().updateSpatialIndex(this);
 	}
 
 	/**
@@ -380,6 +410,7 @@ public abstract class Entity {
 				return;
 			}		
 			else {
+				this.registerChange();
 				this.xVelocity = xVelocity;
 				this.yVelocity = yVelocity;
 			}
@@ -456,6 +487,7 @@ public abstract class Entity {
 	 * 		 of the given parameters exceed the maximum velocity.
 	 */
 	public void scaleVelocity(double xVelocity, double yVelocity ){
+		this.registerChange();
 		// The velocities are first changed to their illegal values.
 		// So that getTotalVelocity can be computed
 		this.xVelocity = xVelocity;
@@ -489,7 +521,10 @@ public abstract class Entity {
 		if (!isValidRadius(radius)){
 			throw new IllegalRadiusException(radius);
 		}
+		this.registerChange();
 		this.radius = radius;
+		if (this.getWorld() != null)
+			this.getWorld().updateSpatialIndex(this);
 	}
 
 	/** 
@@ -521,6 +556,7 @@ public abstract class Entity {
 	 */		
 	@Raw
 	public void setMass(double mass){
+		this.registerChange();
 		this.mass = mass;
 	}
 
@@ -700,12 +736,38 @@ public abstract class Entity {
 			return Double.POSITIVE_INFINITY;
 		}
 
-		double xTime = getTimeToBoundaryAxisCollsion(this.getXVelocity(), this.getXPosition(),
-				this.getWorld().getWidth());
-		double yTime = getTimeToBoundaryAxisCollsion(this.getYVelocity(), this.getYPosition(),
-				this.getWorld().getHeight());
+		return getTimeToBoundaryCollision(this.getXPosition(), this.getYPosition(), this.getXVelocity(),
+				this.getYVelocity(), this.getRadius(), this.getWorld().getWidth(), this.getWorld().getHeight());
+	}
 
-		return Math.min(xTime, yTime);		
+	/**
+	 * Return the time until a circle with the given properties collides with a boundary
+	 * of a world with the given dimensions.
+	 * 
+	 * @param x
+	 * 		  The x-coordinate of the center of the circle.
+	 * @param y
+	 * 		  The y-coordinate of the center of the circle.
+	 * @param xVelocity
+	 * 		  The velocity of the circle in the x-direction.
+	 * @param yVelocity
+	 * 		  The velocity of the circle in the y-direction.
+	 * @param radius
+	 * 		  The radius of the circle.
+	 * @param width
+	 * 		  The width of the world.
+	 * @param height
+	 * 		  The height of the world.
+	 * @return The smallest of the times until the circle collides with a vertical
+	 * 		   or a horizontal boundary.
+	 * 		   | @see implementation
+	 */
+	public static double getTimeToBoundaryCollision(double x, double y, double xVelocity, double yVelocity,
+			double radius, double width, double height){
+		double xTime = getTimeToBoundaryAxisCollision(xVelocity, x, radius, width);
+		double yTime = getTimeToBoundaryAxisCollision(yVelocity, y, radius, height);
+
+		return Math.min(xTime, yTime);
 	}
 
 
@@ -783,11 +845,31 @@ public abstract class Entity {
 	 * 		  @see implementation
 	 */
 	public double getTimeToBoundaryAxisCollsion(double axisVelocity, double axisPosition, double worldAxisLength){
+		return getTimeToBoundaryAxisCollision(axisVelocity, axisPosition, this.getRadius(), worldAxisLength);
+	}
+
+	/**
+	 * Return the time until a circle with the given radius collides with a boundary along one axis.
+	 * 
+	 * @param axisVelocity
+	 * 		  The velocity of the circle along the axis.
+	 * @param axisPosition
+	 * 		  The position of the center of the circle along the axis.
+	 * @param radius
+	 * 		  The radius of the circle.
+	 * @param worldAxisLength
+	 * 		  The length of the world along the axis.
+	 * @return The time to the far boundary or to the zero boundary, depending on the direction of the velocity.
+	 * 		   Positive infinity if the velocity along the axis is zero.
+	 * 		   | @see implementation
+	 */
+	public static double getTimeToBoundaryAxisCollision(double axisVelocity, double axisPosition, double radius,
+			double worldAxisLength){
 
 		double time = Double.POSITIVE_INFINITY;
 		if(axisVelocity != 0){
-			double timeToLongBorder = (worldAxisLength-axisPosition-this.getRadius())/axisVelocity;
-			double timeToZeroBorder = -(axisPosition -this.getRadius())/axisVelocity;
+			double timeToLongBorder = (worldAxisLength-axisPosition-radius)/axisVelocity;
+			double timeToZeroBorder = -(axisPosition -radius)/axisVelocity;
 
 			time = Math.max(timeToZeroBorder,timeToLongBorder);
 		}	
@@ -827,10 +909,44 @@ public abstract class Entity {
 			}
 		}
 
+		return getTimeToCollision(this.getXPosition(), this.getYPosition(), this.getXVelocity(), this.getYVelocity(),
+				this.getRadius(), other.getXPosition(), other.getYPosition(), other.getXVelocity(),
+				other.getYVelocity(), other.getRadius());
+	}
+
+	/**
+	 * Return the time until two circles with the given properties collide.
+	 * 
+	 * @param x
+	 * 		  The x-coordinate of the center of the first circle.
+	 * @param y
+	 * 		  The y-coordinate of the center of the first circle.
+	 * @param xVelocity
+	 * 		  The velocity of the first circle in the x-direction.
+	 * @param yVelocity
+	 * 		  The velocity of the first circle in the y-direction.
+	 * @param radius
+	 * 		  The radius of the first circle.
+	 * @param otherX
+	 * 		  The x-coordinate of the center of the second circle.
+	 * @param otherY
+	 * 		  The y-coordinate of the center of the second circle.
+	 * @param otherXVelocity
+	 * 		  The velocity of the second circle in the x-direction.
+	 * @param otherYVelocity
+	 * 		  The velocity of the second circle in the y-direction.
+	 * @param otherRadius
+	 * 		  The radius of the second circle.
+	 * @return The time until the circles touch, assuming they both keep their velocity.
+	 * 		   Positive infinity if they never collide.
+	 * 		   | @see implementation
+	 */
+	public static double getTimeToCollision(double x, double y, double xVelocity, double yVelocity, double radius,
+			double otherX, double otherY, double otherXVelocity, double otherYVelocity, double otherRadius){
 		//Sigma is centerdistance at the moment of collision : sum of two radii.
-		double sigma = other.getRadius() + this.getRadius();
-		double[] Dv= {other.getXVelocity() - this.getXVelocity(), other.getYVelocity() - this.getYVelocity()};
-		double[] Dr= {other.getXPosition() - this.getXPosition(), other.getYPosition() - this.getYPosition()};
+		double sigma = otherRadius + radius;
+		double[] Dv= {otherXVelocity - xVelocity, otherYVelocity - yVelocity};
+		double[] Dr= {otherX - x, otherY - y};
 
 		// Avoided scalair product by implementing this 'fake multiplication' to guarantee easy computing.
 		double DrDr = Math.pow(Dr[0], 2.0)+Math.pow(Dr[1], 2.0);
@@ -1022,6 +1138,39 @@ public abstract class Entity {
 		return false;
 	}
 
+	// -----------------------  COPYING --------
+
+	/**
+	 * Return a copy of this entity, that does not belong to any world.
+	 * The copy has the same sequence number as this entity.
+	 * 
+	 * @return | result.getSequenceNumber() == this.getSequenceNumber()
+	 * @return | result.getWorld() == null
+	 * @note   References to other entities are shared with this entity,
+	 * 		   until they are replaced by replaceReferences.
+	 */
+	@Override
+	protected Entity clone(){
+		try {
+			Entity result = (Entity) super.clone();
+			result.world = null;
+			return result;
+		} catch (CloneNotSupportedException e) {
+			// Entities implement Cloneable, so this can not happen.
+			throw new AssertionError(e);
+		}
+	}
+
+	/**
+	 * Replace the references of this entity to other entities by references to their copies.
+	 * 
+	 * @param copies
+	 * 		  A map containing the copy of each copied entity, with the original entity as key.
+	 * @note  Entities do not reference other entities by default, so nothing happens here.
+	 */
+	void replaceReferences(Map<Entity, Entity> copies){
+	}
+
 
 
 	// -----------------------  VARIABLES (& DEFAULTS) --------
@@ -1092,4 +1241,15 @@ public abstract class Entity {
 	 */
 	private double density;
 
+	/**
+	 * Variable registering the sequence number of this entity.
+	 */
+	private final long sequenceNumber = nextSequenceNumber.getAndIncrement();
+
+	/**
+	 * Variable registering the sequence number that will be given to the next entity that is created.
+	 * Entities can be created on several threads, so the counter is atomic.
+	 */
+	private static final AtomicLong nextSequenceNumber = new AtomicLong();
+
 }
\ No newline at end of file
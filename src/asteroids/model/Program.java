@@ -1,24 +1,77 @@
 package asteroids.model;
-import java.awt.geom.IllegalPathStateException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import asteroids.programs.ActionStatement;
-import asteroids.programs.Bookmark;
-import asteroids.programs.Expression;
+import asteroids.part3.programs.SourceLocation;
+import asteroids.programs.BreakSignal;
+import asteroids.programs.CallStack;
+import asteroids.programs.Code;
+import asteroids.programs.CompiledProgram;
+import asteroids.programs.Frame;
 import asteroids.programs.Function;
-import asteroids.programs.InsufficientRuntimeException;
+import asteroids.programs.Instruction;
+import asteroids.programs.QueryCache;
+import asteroids.programs.ShipAction;
 import asteroids.programs.Statement;
+import asteroids.programs.Tracer;
+import asteroids.programs.VariableSlots;
 
 
 
+/**
+ * The execution of a compiled program by a ship: its variables, call stack,
+ * prints, program counter and time left, and the actions it defers.
+ * 
+ * A program only holds this execution state, and shares its code with all other
+ * programs with the same compiled program, so that the memory taken by a script
+ * that drives many ships grows with their state, not with their code.
+ */
 public class Program {
-	public Program(List<Function> functionsList, Statement mainStatement){
-		System.out.println("PROGRAM CONSTRUCTOR");
-		this.setFunctions(functionsList);
-		this.setMainStatement(mainStatement);
+	
+	/**
+	 * Initialize this new program with the given functions and main statement,
+	 * optimized and compiled into a compiled program of its own.
+	 * 
+	 * @throws IllegalArgumentException
+	 *         The given functions and main statement do not compile.
+	 */
+	public Program(List<Function> functionsList, Statement mainStatement) throws IllegalArgumentException {
+		this(new CompiledProgram(functionsList, mainStatement));
+	}
+	
+	/**
+	 * Initialize this new program with the given compiled program, and an
+	 * execution state of its own.
+	 */
+	public Program(CompiledProgram compiledProgram){
+		this.compiledProgram = compiledProgram;
+		this.globals = new VariableSlots(compiledProgram.getNbGlobals());
+		this.checkpointGlobals = new VariableSlots(compiledProgram.getNbGlobals());
+		this.queryCache = new QueryCache(compiledProgram.getNbQuerySlots());
+		this.mainFrame = new Frame(compiledProgram.getMainCode());
+	}
+	
+	/**
+	 * Return a new program with the same compiled program as this program, as if
+	 * it was just created. The variables, prints, call stack, ship and tracer are
+	 * not shared.
+	 */
+	public Program copy(){
+		return new Program(this.getCompiledProgram());
+	}
+	
+	
+	//CODE
+	
+	private final CompiledProgram compiledProgram;
+	
+	public CompiledProgram getCompiledProgram(){
+		return this.compiledProgram;
+	}
+	
+	public Map<String, Function> getFunctions() {
+		return this.getCompiledProgram().getFunctions();
 	}
 
 	
@@ -34,83 +87,467 @@ public class Program {
 	}
 	
 	
+	/**
+	 * Execute this program for the given duration, in a new slice. The program is
+	 * suspended before an action for which it has not enough time left, or once
+	 * the slice is over.
+	 * 
+	 * @return The values printed by this program if it finished, or null if it was
+	 *         suspended and resumes in the next slice.
+	 */
 	public List<Object> run(double dt){
-		System.out.println("RUN PROGRAM with dt =  " + dt + "prev gtl is: "+getTimeLeft()+" ---------------------");
 		addTime(dt);
-		try {
-			System.out.println("RUN WITH BOOKMARK: " + this.getBookmark());		
-			this.getMainStatement().setProgram(this);
-			this.getMainStatement().runAt(this.getBookmark());
-			
-			System.out.println("RETURNING GETPRINTS: " + getPrints());
-			return getPrints();
-			
-		} catch (IllegalPathStateException e) {
-			System.out.println("RUN PROGRAM > GOT ILLEGALPATHSTATEEXCEPTION, returning null");
+		beginSlice();
+		if (!this.execute())
 			return null;
-		}	
+		return getPrints();
 	}
 	
+	/**
+	 * Resume this program after it was blocked before an action that changes its
+	 * world, in the slice in which it was blocked. The actions of this program are
+	 * no longer deferred, so it performs that action right away.
+	 * 
+	 * @return The values printed by this program if it finished, or null if it was
+	 *         suspended and resumes in the next slice.
+	 */
+	public List<Object> resume(){
+		this.blocked = false;
+		// The action this program was blocked before was already counted.
+		this.instructionsLeft++;
+		if (!this.execute())
+			return null;
+		return getPrints();
+	}
 	
+	/**
+	 * Execute the main statement from its program counter, until it finishes or
+	 * suspends, and return whether it finished.
+	 */
+	private boolean execute() {
+		return (tracer == Tracer.NONE) ? execute(mainFrame) : executeTraced(mainFrame);
+	}
 	
-	//BOOKMARK
+	/**
+	 * Execute the given frame from its program counter, until it finishes or
+	 * suspends, and return whether it finished.
+	 */
+	private boolean execute(Frame frame) {
+		Code code = frame.getCode();
+		Instruction[] instructions = code.getInstructions();
+		int pc = frame.getPc();
+		while (pc < instructions.length) {
+			if (isSliceOver()) {
+				frame.setPc(pc);
+				return false;
+			}
+			int next;
+			try {
+				next = instructions[pc].execute(this, pc);
+			} catch (BreakSignal signal) {
+				next = getBreakTarget(code, pc);
+			}
+			if (next == Instruction.SUSPEND) {
+				frame.setPc(pc);
+				return false;
+			}
+			pc = next;
+		}
+		frame.setPc(pc);
+		return true;
+	}
 	
-	private Bookmark bookmark = new Bookmark();
+	/**
+	 * Execute the given frame like execute(Frame), and report the statements it
+	 * executes and the actions it performs to the tracer of this program.
+	 */
+	private boolean executeTraced(Frame frame) {
+		Code code = frame.getCode();
+		Instruction[] instructions = code.getInstructions();
+		int pc = frame.getPc();
+		SourceLocation previous = null;
+		while (pc < instructions.length) {
+			SourceLocation location = code.getLocation(pc);
+			if (isSliceOver()) {
+				tracer.suspend(this, location);
+				frame.setPc(pc);
+				return false;
+			}
+			if (location != previous && location != null)
+				tracer.statement(this, location);
+			previous = location;
+			int next;
+			try {
+				next = instructions[pc].execute(this, pc);
+			} catch (BreakSignal signal) {
+				next = getBreakTarget(code, pc);
+			}
+			if (next == Instruction.SUSPEND) {
+				tracer.suspend(this, location);
+				frame.setPc(pc);
+				return false;
+			}
+			if (code.isAction(pc))
+				tracer.action(this, location);
+			pc = next;
+		}
+		frame.setPc(pc);
+		return true;
+	}
 	
-	public Bookmark getBookmark(){
-		return this.bookmark;
+	/**
+	 * Return the end of the loop of the main statement that is broken by a break in
+	 * a function called by the instruction at the given program counter.
+	 * 
+	 * @throws IllegalAccessError
+	 *         The instruction is not in a loop.
+	 */
+	private static int getBreakTarget(Code code, int pc) throws IllegalAccessError {
+		int target = code.getBreakTarget(pc);
+		if (target == -1)
+			throw new IllegalAccessError("Break outside a loop");
+		return target;
 	}
 	
-	public void updateBookmark(ActionStatement actionStatement){
-		this.bookmark.setFailedAction(actionStatement);
+	
+	//CALLS
+	
+	/**
+	 * The frames of the function calls that are being executed.
+	 */
+	private final CallStack callStack = new CallStack();
+	
+	public CallStack getCallStack(){
+		return this.callStack;
+	}
+	
+	/**
+	 * The number of instructions left in the outermost function call that is being
+	 * executed.
+	 */
+	private long callInstructionsLeft;
+	
+	/**
+	 * Execute the given code of a function body, in the frame on top of the call
+	 * stack, until it returns or ends, and return whether it returned.
+	 * 
+	 * Function bodies perform no actions, so a call never suspends, and it is not
+	 * bounded by the slice in which it is made. Instead, an outermost call and all
+	 * calls it makes in turn may execute at most as many instructions as the call
+	 * instruction budget of this program, which is far larger than its instruction
+	 * budget, so that only a call that does not end fails.
+	 * 
+	 * @throws IllegalArgumentException
+	 *         The call executes more instructions than the call instruction budget
+	 *         of this program.
+	 * @throws BreakSignal
+	 *         The function body breaks outside its loops.
+	 */
+	public boolean call(Code code) throws IllegalArgumentException, BreakSignal {
+		if (callStack.getDepth() == 1)
+			callInstructionsLeft = this.getCallInstructionBudget();
+		boolean traced = (tracer != Tracer.NONE);
+		Instruction[] instructions = code.getInstructions();
+		SourceLocation previous = null;
+		int pc = 0;
+		while (pc < instructions.length) {
+			if (--callInstructionsLeft < 0)
+				throw new IllegalArgumentException("Function call exceeds the call instruction budget");
+			if (traced) {
+				SourceLocation location = code.getLocation(pc);
+				if (location != previous && location != null)
+					tracer.statement(this, location);
+				previous = location;
+			}
+			try {
+				pc = instructions[pc].execute(this, pc);
+			} catch (BreakSignal signal) {
+				pc = code.getBreakTarget(pc);
+				if (pc == -1)
+					throw signal;
+			}
+		}
+		return pc == Instruction.RETURN;
 	}
 	
 	
-	//MAIN STATEMENT
+	//SLICES
+	
+	/**
+	 * The number of instructions between two checks of the wall time of a slice,
+	 * minus one.
+	 */
+	private static final long TIME_CHECK_MASK = 1023;
+	
+	public static final long DEFAULT_INSTRUCTION_BUDGET = 1000000;
+	
+	public static final long DEFAULT_TIME_QUOTA = 20000000;
+	
+	public static final long DEFAULT_CALL_INSTRUCTION_BUDGET = 100000000;
 	
-	Statement mainStatement;
+	private long instructionBudget = DEFAULT_INSTRUCTION_BUDGET;
 	
-	public void setMainStatement(Statement mainStatement){
-		this.mainStatement = mainStatement;
-		this.mainStatement.setProgram(this);
+	private long timeQuota = DEFAULT_TIME_QUOTA;
+	
+	private long callInstructionBudget = DEFAULT_CALL_INSTRUCTION_BUDGET;
+	
+	/**
+	 * Return the maximal number of instructions this program executes in one slice.
+	 */
+	public long getInstructionBudget(){
+		return this.instructionBudget;
 	}
 	
+	/**
+	 * @throws IllegalArgumentException
+	 *         The given budget is not positive.
+	 */
+	public void setInstructionBudget(long instructionBudget) throws IllegalArgumentException {
+		if (instructionBudget <= 0)
+			throw new IllegalArgumentException("Invalid instruction budget: " + instructionBudget);
+		this.instructionBudget = instructionBudget;
+	}
 	
-	public Statement getMainStatement(){
-		return this.mainStatement;
+	/**
+	 * Return the maximal number of instructions an outermost function call of this
+	 * program executes, together with all calls it makes in turn.
+	 */
+	public long getCallInstructionBudget(){
+		return this.callInstructionBudget;
 	}
 	
-	//FUNCTIONS
+	/**
+	 * @throws IllegalArgumentException
+	 *         The given budget is not positive.
+	 */
+	public void setCallInstructionBudget(long callInstructionBudget) throws IllegalArgumentException {
+		if (callInstructionBudget <= 0)
+			throw new IllegalArgumentException("Invalid call instruction budget: " + callInstructionBudget);
+		this.callInstructionBudget = callInstructionBudget;
+	}
 	
-	private Map<String, Function> functions = new HashMap<String, Function>();
+	/**
+	 * Return the maximal wall time, in nanoseconds, of one slice of this program.
+	 * The wall time is checked once every 1024 instructions.
+	 */
+	public long getTimeQuota(){
+		return this.timeQuota;
+	}
 	
-	protected void setFunctions(List<Function> functions) {
-		for (Function function : functions) {
-			this.functions.put(function.getName(), function);
-			function.setProgram(this);
-		}
+	/**
+	 * @throws IllegalArgumentException
+	 *         The given quota is not positive.
+	 */
+	public void setTimeQuota(long timeQuota) throws IllegalArgumentException {
+		if (timeQuota <= 0)
+			throw new IllegalArgumentException("Invalid time quota: " + timeQuota);
+		this.timeQuota = timeQuota;
 	}
 	
-	public Map<String, Function> getFunctions() {
-		return functions;
+	/**
+	 * The number of instructions left in the current slice.
+	 */
+	private long instructionsLeft;
+	
+	/**
+	 * The value of System.nanoTime() at which the current slice is over.
+	 */
+	private long deadline;
+	
+	private void beginSlice() {
+		this.instructionsLeft = this.getInstructionBudget();
+		this.deadline = System.nanoTime() + this.getTimeQuota();
 	}
 	
+	/**
+	 * Count the next instruction in the current slice, and check whether the slice
+	 * is over before it is executed.
+	 */
+	private boolean isSliceOver() {
+		if (--instructionsLeft < 0)
+			return true;
+		return (instructionsLeft & TIME_CHECK_MASK) == 0 && System.nanoTime() - deadline > 0;
+	}
+	
+	
+	//TRACER
+	
+	private Tracer tracer = Tracer.NONE;
+	
+	public Tracer getTracer(){
+		return this.tracer;
+	}
+	
+	/**
+	 * Set the tracer to which the execution of this program is reported.
+	 * 
+	 * @throws IllegalArgumentException
+	 *         The given tracer is null; use Tracer.NONE to stop tracing.
+	 */
+	public void setTracer(Tracer tracer) throws IllegalArgumentException {
+		if (tracer == null)
+			throw new IllegalArgumentException("Invalid tracer");
+		this.tracer = tracer;
+	}
+	
+	
+	
+	//FRAMES
+	
+	/**
+	 * The frame of the main statement. A suspended program resumes at its
+	 * program counter.
+	 */
+	private final Frame mainFrame;
 	
 	
 	//VARIABLES
 	
-	private Map<String, Object> variables = new HashMap<String, Object>();
+	/**
+	 * The values of the global variables of this program, by slot.
+	 */
+	private final VariableSlots globals;
 
 	
-	public Map<String, Object> getVariables() {
-		return variables;
+	public VariableSlots getGlobals() {
+		return globals;
 	}
 	
-	public void addVariable(String name, Object object) {
-		// TODO Auto-generated method stub
-		this.variables.put(name, object);
-
-		
+	
+	//QUERIES
+	
+	/**
+	 * The results of the entity queries of this program, by slot.
+	 */
+	private final QueryCache queryCache;
+	
+	public QueryCache getQueryCache() {
+		return queryCache;
+	}
+	
+	
+	//ACTIONS
+	
+	/**
+	 * The actions of this program that are deferred until the end of the tick,
+	 * or null if this program performs its actions right away.
+	 */
+	private List<ShipAction> deferredActions = null;
+	
+	/**
+	 * The orientation of the ship of this program once its deferred actions are
+	 * performed.
+	 */
+	private double deferredOrientation;
+	
+	/**
+	 * Whether this program was blocked before an action that changes its world,
+	 * while its actions were deferred.
+	 */
+	private boolean blocked = false;
+	
+	/**
+	 * Perform the given action on the ship of this program, or defer it if this
+	 * program defers its actions. A deferred action is checked right away, so that
+	 * the program fails at the same action as when it is performed right away.
+	 * An action that changes the world cannot be deferred: this program is blocked
+	 * before it instead, until it is resumed.
+	 * 
+	 * @return Whether the given action was performed or deferred.
+	 * @throws IllegalArgumentException
+	 *         The given action cannot be performed on the ship of this program.
+	 */
+	public boolean perform(ShipAction action) throws IllegalArgumentException {
+		if (deferredActions == null)
+			action.perform(this.getShip());
+		else if (action.changesWorld()) {
+			blocked = true;
+			return false;
+		}
+		else {
+			deferredOrientation = action.getOrientationAfter(deferredOrientation);
+			deferredActions.add(action);
+		}
+		return true;
+	}
+	
+	public boolean isBlocked() {
+		return blocked;
+	}
+	
+	/**
+	 * Defer the actions of this program until they are committed, so that it does
+	 * not change its world while it is executed. The program still sees its own
+	 * turns in the orientation of its ship.
+	 */
+	public void deferActions() {
+		if (deferredActions == null) {
+			deferredActions = new ArrayList<>();
+			deferredOrientation = this.getShip().getOrientation();
+		}
+	}
+	
+	/**
+	 * Return the orientation of the ship of this program, as seen by this program.
+	 */
+	public double getShipOrientation() {
+		if (deferredActions == null)
+			return this.getShip().getOrientation();
+		return deferredOrientation;
+	}
+	
+	public boolean isDeferringActions() {
+		return deferredActions != null;
+	}
+	
+	/**
+	 * Perform the deferred actions of this program on its ship, in the order in
+	 * which they were executed. Afterwards, actions are performed right away again.
+	 */
+	public void commitActions() {
+		List<ShipAction> actions = deferredActions;
+		deferredActions = null;
+		if (actions != null)
+			for (ShipAction action : actions)
+				action.perform(this.getShip());
+	}
+	
+	
+	//CHECKPOINT
+	
+	/**
+	 * The state of this program at its last checkpoint.
+	 */
+	private final VariableSlots checkpointGlobals;
+	private int checkpointPc;
+	private double checkpointTimeLeft;
+	private int checkpointNbPrints;
+	
+	/**
+	 * Remember the state of this program, so that it can be rolled back to it.
+	 * A program is only checkpointed between two slices.
+	 */
+	void checkpoint() {
+		checkpointGlobals.setAll(globals);
+		checkpointPc = mainFrame.getPc();
+		checkpointTimeLeft = timeLeft;
+		checkpointNbPrints = prints.size();
+	}
+	
+	/**
+	 * Roll this program back to its last checkpoint, as if the slices it executed
+	 * since were never executed, and discard its deferred actions. What was
+	 * reported to its tracer is not rolled back.
+	 */
+	void rollback() {
+		globals.setAll(checkpointGlobals);
+		mainFrame.setPc(checkpointPc);
+		timeLeft = checkpointTimeLeft;
+		prints.subList(checkpointNbPrints, prints.size()).clear();
+		callStack.clear();
+		queryCache.clear();
+		deferredActions = null;
+		blocked = false;
 	}
 	
 	
@@ -138,7 +575,6 @@ public class Program {
 	}
 
 	public void setShip(Ship ship) {
-		System.out.println("SHIP SET");
 		this.ship = ship;
 	}
 
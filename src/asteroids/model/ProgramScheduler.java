@@ -0,0 +1,204 @@
+package asteroids.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Immutable;
+
+/**
+ * A class of schedulers that execute the programs of all ships in a world for one tick,
+ * concurrently on a pool of daemon threads, with the same outcome as executing them one
+ * by one, in the order of the sequence numbers of their ships.
+ *
+ * While the programs are executed, the world is not changed: each program defers its
+ * actions, and reads the world as it was at the start of the tick, apart from the
+ * orientation of its own ship, which follows its own turns. Turns and thrusts only
+ * change the ship itself, in ways that other programs cannot read, so they are checked
+ * when they are deferred and performed, ship by ship, once all programs are suspended
+ * or finished. Positions only change when the world evolves.
+ *
+ * Firing a bullet does change what other programs read, so it is never deferred. A
+ * program that fires is blocked before firing instead. Once the actions of the programs
+ * of ships before it are performed, it fires and continues by itself, after which the
+ * programs of the ships after it are rolled back and executed concurrently again. A tick
+ * in which many ships fire is therefore executed mostly one by one.
+ *
+ * The outcome of a tick does not depend on the number of threads, nor on the order in
+ * which the programs happen to be executed.
+ *
+ * @version 3.0
+ * @author James Defauw & Michiel De Koninck
+ */
+public class ProgramScheduler {
+
+	/**
+	 * Initialize this new scheduler with a thread for each available processor.
+	 *
+	 * @effect | this(Runtime.getRuntime().availableProcessors())
+	 */
+	public ProgramScheduler(){
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Initialize this new scheduler with the given number of threads.
+	 *
+	 * @param nbThreads
+	 * 		  The number of threads on which programs are executed.
+	 * @post  | new.getNbThreads() == nbThreads
+	 * @throws IllegalArgumentException
+	 * 		   The given number of threads is not positive.
+	 * 		   | nbThreads <= 0
+	 */
+	public ProgramScheduler(int nbThreads) throws IllegalArgumentException{
+		if (nbThreads <= 0)
+			throw new IllegalArgumentException("Invalid number of threads: " + nbThreads);
+		AtomicInteger count = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(nbThreads, runnable -> {
+			Thread thread = new Thread(runnable, "asteroids-programs-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.nbThreads = nbThreads;
+	}
+
+	/**
+	 * Return the number of threads on which this scheduler executes programs.
+	 */
+	@Basic @Immutable
+	public int getNbThreads(){
+		return this.nbThreads;
+	}
+
+	/**
+	 * Stop the threads of this scheduler. Ticks that are being executed are completed.
+	 */
+	public void shutdown(){
+		this.executor.shutdown();
+	}
+
+// ------------------ TICKS ------------------
+
+	/**
+	 * Execute the programs of all ships in the given world for the given duration.
+	 * Ships that belong to a world of which the given world is a fork, and ships that
+	 * are destroyed by a bullet fired during this tick before their turn, do not execute
+	 * their program.
+	 *
+	 * @param world
+	 * 		  The world of which the programs are executed.
+	 * @param dt
+	 * 		  The duration for which each program is executed.
+	 * @return A map with, for each ship in the given world that executed its program, in
+	 * 		   the order of their sequence numbers, the result of executing its program: the
+	 * 		   values it printed if it finished, or null if it was suspended.
+	 * 		   | @see implementation
+	 * @note   If the program of a ship fails, the actions its program and the programs of
+	 * 		   the ships before it executed in this tick are still performed, and the failure
+	 * 		   is rethrown. The programs of the ships after it are not executed.
+	 */
+	public Map<Ship, List<Object>> run(World world, double dt){
+		List<Ship> ships = new ArrayList<>();
+		for (Ship ship : world.getSpecificEntities(Ship.class))
+			if (ship.getProgram() != null && ship.getWorld() == world)
+				ships.add(ship);
+		ships.sort(Comparator.comparingLong(Ship::getSequenceNumber));
+
+		Map<Ship, List<Object>> result = new LinkedHashMap<>();
+		int next = 0;
+		while (next < ships.size()){
+			List<Ship> round = new ArrayList<>();
+			for (Ship ship : ships.subList(next, ships.size()))
+				if (ship.getWorld() == world)
+					round.add(ship);
+			next = ships.size();
+			Ship blocked = this.runRound(world, round, dt, result);
+			if (blocked != null){
+				result.put(blocked, blocked.getProgram().resume());
+				next = ships.indexOf(blocked) + 1;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Execute the programs of the given ships concurrently for the given duration, and
+	 * perform their actions ship by ship, up to the first ship of which the program is
+	 * blocked before firing, if any. The programs of the ships after it are rolled back.
+	 *
+	 * @return The first ship of which the program is blocked, or null if there is none.
+	 * 		   | @see implementation
+	 */
+	private Ship runRound(World world, List<Ship> ships, double dt, Map<Ship, List<Object>> result){
+		// Programs only read the world from here on, so the spatial indices behind
+		// its queries are built before any of them starts.
+		world.getSpatialIndices();
+		List<Callable<List<Object>>> tasks = new ArrayList<>();
+		for (Ship ship : ships){
+			Program program = ship.getProgram();
+			program.checkpoint();
+			program.deferActions();
+			tasks.add(() -> program.run(dt));
+		}
+		List<Future<List<Object>>> futures;
+		try {
+			futures = this.executor.invokeAll(tasks);
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			for (Ship ship : ships)
+				ship.getProgram().rollback();
+			throw new IllegalStateException("Interrupted while executing programs", exception);
+		}
+
+		for (int i = 0; i < ships.size(); i++){
+			Ship ship = ships.get(i);
+			Program program = ship.getProgram();
+			List<Object> prints = null;
+			Throwable failure = null;
+			try {
+				prints = futures.get(i).get();
+			} catch (ExecutionException exception) {
+				failure = exception.getCause();
+			} catch (InterruptedException exception) {
+				Thread.currentThread().interrupt();
+				failure = exception;
+			}
+			program.commitActions();
+			if (failure != null || program.isBlocked())
+				for (Ship later : ships.subList(i + 1, ships.size()))
+					later.getProgram().rollback();
+			if (failure instanceof RuntimeException)
+				throw (RuntimeException) failure;
+			if (failure instanceof Error)
+				throw (Error) failure;
+			if (failure != null)
+				throw new IllegalStateException("Interrupted while executing programs", failure);
+			if (program.isBlocked())
+				return ship;
+			result.put(ship, prints);
+		}
+		return null;
+	}
+
+// ------------------ VARIABLES ------------------
+
+	/**
+	 * Variable registering the pool of threads on which programs are executed.
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * Variable registering the number of threads of this scheduler.
+	 */
+	private final int nbThreads;
+}
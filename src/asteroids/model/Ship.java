@@ -1,7 +1,9 @@
 package asteroids.model;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import asteroids.model.exceptions.IllegalBulletException;
@@ -201,6 +203,7 @@ public class Ship extends Entity {
 		if (!isValidDensity(density)){
 			density = getMinDensity();
 		}
+		this.registerChange();
 		this.density = density;
 	}
 	
@@ -306,6 +309,7 @@ public class Ship extends Entity {
 	@Raw
 	public void setOrientation(double orientation){
 		assert isValidOrientation(orientation);
+		this.registerChange();
 		this.orientation = orientation;	
 	}
 
@@ -372,6 +376,7 @@ public class Ship extends Entity {
 	 * This method can enable the thrust for this ship.
 	 */
 	public void thrustOn(){
+		this.registerChange();
 		this.thrusterActivity = true;
 	}
 	
@@ -379,6 +384,7 @@ public class Ship extends Entity {
 	 * This method can disable the thrust for this ship.
 	 */
 	public void thrustOff(){
+		this.registerChange();
 		this.thrusterActivity = false;
 	}
 	
@@ -454,6 +460,7 @@ public class Ship extends Entity {
 	 */
 	public void setThrustForce(double thrustforce){
 		if (thrustforce > 0){
+			this.registerChange();
 			this.thrustforce = thrustforce;
 		}
 	}
@@ -617,6 +624,8 @@ public class Ship extends Entity {
 	public void loadBullet() throws IllegalPositionException, IllegalRadiusException{
 		Bullet bullet = new Bullet(this.getXPosition(), this.getYPosition(), this.getXVelocity(), this.getYVelocity(),
 												Bullet.getMinRadius());
+		// The total mass of this ship changes.
+		this.registerChange();
 		bullet.setShip(this);
 		this.bullets.add(bullet);
 	}
@@ -651,6 +660,8 @@ public class Ship extends Entity {
 		if (bullet.getWorld()!=null){
 			bullet.getWorld().removeEntity(bullet);	
 		}
+		// The total mass of this ship changes.
+		this.registerChange();
 		this.bullets.add(bullet);
 		bullet.setShip(this);
 		bullet.setPosition(this.getXPosition(), this.getYPosition());
@@ -707,6 +718,8 @@ public class Ship extends Entity {
 	 */
 	public void removeBullet(Bullet bullet) throws IllegalEntityException{
 		if (this.hasBullet(bullet)){
+			// The total mass of this ship changes.
+			this.registerChange();
 			bullets.remove(bullet);
 			bullet.setShip(null);
 		}
@@ -908,6 +921,34 @@ public class Ship extends Entity {
 		return this.getProgram().run(dt);
 	}
 
+//-----------------------------------
+// COPYING
+//------------------------------------
+
+	/**
+	 * Return a copy of this ship, that does not belong to any world.
+	 * 
+	 * @return The copy has a copy of each of the bullets loaded on this ship.
+	 * 		   | for each bullet in this.bullets:
+	 * 		   |	result.bullets contains a copy of bullet, with result as its ship
+	 * @return The copy does not have a program.
+	 * 		   | result.getProgram() == null
+	 */
+	@Override
+	protected Ship clone(){
+		Ship result = (Ship) super.clone();
+		result.program = null;
+		result.bullets = new HashSet<Bullet>();
+		Map<Entity, Entity> copies = new HashMap<>();
+		copies.put(this, result);
+		for (Bullet bullet : this.bullets){
+			Bullet copy = (Bullet) bullet.clone();
+			copy.replaceReferences(copies);
+			result.bullets.add(copy);
+		}
+		return result;
+	}
+
 	
     
 // -----------------------  VARIABLES (DEFAULTS & FINAL) --------
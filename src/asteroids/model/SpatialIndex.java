@@ -0,0 +1,427 @@
+package asteroids.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Immutable;
+
+/**
+ * A class of uniform grids over a world, that index entities by the cell of their centre,
+ * so that the entities near a point or within a rectangle can be found without scanning them all.
+ *
+ * Unlike the grid of a snapshot, a spatial index is updated incrementally: entities are
+ * added, removed and moved between cells one at a time, as the world changes.
+ * The grid has about one cell per entity. It is only rebuilt when the number of entities
+ * has grown or shrunk by a factor of GROWTH_FACTOR since it was last built.
+ *
+ * @invar  Each entity of each spatial index is registered in the cell of its centre.
+ * 		   | @see implementation
+ *
+ * @version 3.0
+ * @author James Defauw & Michiel De Koninck
+ */
+public class SpatialIndex {
+
+	/**
+	 * Initialize this new spatial index over a world with the given dimensions,
+	 * with the given entities.
+	 *
+	 * @param width
+	 * 		  The width of the world of this index.
+	 * @param height
+	 * 		  The height of the world of this index.
+	 * @param entities
+	 * 		  The entities to index.
+	 * @post  | new.getWidth() == width && new.getHeight() == height
+	 * @post  | new.getNbEntities() == entities.size()
+	 */
+	public SpatialIndex(double width, double height, Collection<? extends Entity> entities){
+		this.width = width;
+		this.height = height;
+		this.build(entities);
+	}
+
+// ------------------ GETTERS ------------------
+
+	/**
+	 * Return the width of the world of this index.
+	 */
+	@Basic @Immutable
+	public double getWidth(){
+		return this.width;
+	}
+
+	/**
+	 * Return the height of the world of this index.
+	 */
+	@Basic @Immutable
+	public double getHeight(){
+		return this.height;
+	}
+
+	/**
+	 * Return the number of entities in this index.
+	 */
+	public int getNbEntities(){
+		return this.cellsOfEntities.size();
+	}
+
+	/**
+	 * Return whether the given entity is in this index.
+	 *
+	 * @param entity
+	 * 		  The entity to check.
+	 */
+	public boolean hasEntity(Entity entity){
+		return this.cellsOfEntities.containsKey(entity);
+	}
+
+// ------------------ UPDATES ------------------
+
+	/**
+	 * Add the given entity to this index.
+	 *
+	 * @param entity
+	 * 		  The entity to add.
+	 * @post  | new.hasEntity(entity)
+	 */
+	public void add(Entity entity){
+		if (this.hasEntity(entity))
+			return;
+		this.register(entity);
+		if (this.getNbEntities() > GROWTH_FACTOR * this.builtSize && this.size < MAX_GRID_SIZE)
+			this.build(new ArrayList<>(this.cellsOfEntities.keySet()));
+	}
+
+	/**
+	 * Remove the given entity from this index.
+	 *
+	 * @param entity
+	 * 		  The entity to remove.
+	 * @post  | !new.hasEntity(entity)
+	 */
+	public void remove(Entity entity){
+		Integer cell = this.cellsOfEntities.remove(entity);
+		if (cell == null)
+			return;
+		removeFrom(this.cells.get(cell), entity);
+		if (GROWTH_FACTOR * this.getNbEntities() < this.builtSize)
+			this.build(new ArrayList<>(this.cellsOfEntities.keySet()));
+	}
+
+	/**
+	 * Register that the position or radius of the given entity has changed.
+	 *
+	 * @param entity
+	 * 		  The entity that has changed.
+	 * @effect If the given entity is in this index, it is moved to the cell of its new centre.
+	 * 		   | @see implementation
+	 */
+	public void update(Entity entity){
+		Integer cell = this.cellsOfEntities.get(entity);
+		if (cell == null)
+			return;
+		this.maxRadius = Math.max(this.maxRadius, entity.getRadius());
+		int newCell = this.getCell(entity);
+		if (newCell != cell){
+			removeFrom(this.cells.get(cell), entity);
+			this.cells.get(newCell).add(entity);
+			this.cellsOfEntities.put(entity, newCell);
+		}
+	}
+
+	/**
+	 * Replace the given entity in this index by the given copy.
+	 *
+	 * @param entity
+	 * 		  The entity to replace.
+	 * @param copy
+	 * 		  The entity to replace it by, with the same position and radius.
+	 * @post  | !new.hasEntity(entity) && new.hasEntity(copy) == this.hasEntity(entity)
+	 */
+	public void replace(Entity entity, Entity copy){
+		Integer cell = this.cellsOfEntities.remove(entity);
+		if (cell == null)
+			return;
+		List<Entity> entitiesInCell = this.cells.get(cell);
+		for (int i = 0; i < entitiesInCell.size(); i++){
+			if (entitiesInCell.get(i) == entity)
+				entitiesInCell.set(i, copy);
+		}
+		this.cellsOfEntities.put(copy, cell);
+	}
+
+// ------------------ QUERIES ------------------
+
+	/**
+	 * Return all entities of this index that intersect the given rectangle.
+	 *
+	 * @param minX
+	 * 		  The smallest x-coordinate of the rectangle.
+	 * @param minY
+	 * 		  The smallest y-coordinate of the rectangle.
+	 * @param maxX
+	 * 		  The largest x-coordinate of the rectangle.
+	 * @param maxY
+	 * 		  The largest y-coordinate of the rectangle.
+	 * @return The entities of this index whose circle intersects the rectangle.
+	 * 		   | @see implementation
+	 */
+	public Set<Entity> getEntitiesWithin(double minX, double minY, double maxX, double maxY){
+		Set<Entity> result = new HashSet<>();
+		if (!(minX <= maxX) || !(minY <= maxY) || this.getNbEntities() == 0)
+			return result;
+		// Entities are registered in the cell of their centre, so the query
+		// is widened by the largest radius before cells are visited.
+		int firstColumn = this.getColumn(minX - this.maxRadius), lastColumn = this.getColumn(maxX + this.maxRadius);
+		int firstRow = this.getRow(minY - this.maxRadius), lastRow = this.getRow(maxY + this.maxRadius);
+		for (int row = firstRow; row <= lastRow; row++){
+			for (int column = firstColumn; column <= lastColumn; column++){
+				for (Entity entity : this.cells.get(row * this.size + column)){
+					if (intersects(entity, minX, minY, maxX, maxY))
+						result.add(entity);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Return the entities of this index accepted by the given filter, that are nearest
+	 * to the given point.
+	 *
+	 * @param x
+	 * 		  The x-coordinate of the point.
+	 * @param y
+	 * 		  The y-coordinate of the point.
+	 * @param k
+	 * 		  The maximal number of entities to return.
+	 * @param filter
+	 * 		  The filter on the entities to consider.
+	 * @return At most k accepted entities, by increasing distance to the point.
+	 * 		   Entities at the same distance are ordered by sequence number.
+	 * 		   | @see implementation
+	 * @throws IllegalArgumentException
+	 * 		   The given number of entities is negative.
+	 * 		   | k < 0
+	 */
+	public List<Entity> getNearestEntities(double x, double y, int k, Predicate<? super Entity> filter)
+			throws IllegalArgumentException{
+		if (k < 0)
+			throw new IllegalArgumentException("Invalid number of entities: " + k);
+		Entity[] result = new Entity[Math.min(k, this.getNbEntities())];
+		double[] distances = new double[result.length];
+		int count = 0;
+		if (result.length == 0)
+			return new ArrayList<>();
+		// The grid is searched in square rings of cells around the cell of the point,
+		// until no entity outside the rings searched so far can be nearer than the
+		// k nearest entities found.
+		int column = this.getColumn(x), row = this.getRow(y);
+		for (int ring = 0; ring <= this.size; ring++){
+			int firstColumn = column - ring, lastColumn = column + ring;
+			int firstRow = row - ring, lastRow = row + ring;
+			for (int r = Math.max(0, firstRow); r <= Math.min(this.size - 1, lastRow); r++){
+				boolean edgeRow = (r == firstRow || r == lastRow);
+				for (int c = Math.max(0, firstColumn); c <= Math.min(this.size - 1, lastColumn); c++){
+					if (!edgeRow && c != firstColumn && c != lastColumn)
+						continue;
+					for (Entity entity : this.cells.get(r * this.size + c)){
+						if (!filter.test(entity))
+							continue;
+						double distance = getDistance(x, y, entity);
+						if (count == result.length && !isNearer(distance, entity, distances[count - 1], result[count - 1]))
+							continue;
+						// Insert the entity in the nearest entities found so far.
+						int position = (count < result.length) ? count++ : count - 1;
+						while (position > 0 && isNearer(distance, entity, distances[position - 1], result[position - 1])){
+							result[position] = result[position - 1];
+							distances[position] = distances[position - 1];
+							position--;
+						}
+						result[position] = entity;
+						distances[position] = distance;
+					}
+				}
+			}
+			if (count == result.length && distances[count - 1] < this.getDistanceOutside(x, y, column, row, ring) - this.maxRadius)
+				break;
+		}
+		return new ArrayList<>(Arrays.asList(result).subList(0, count));
+	}
+
+	/**
+	 * Return the distance between the given point and the edge of the given entity.
+	 * The distance is negative if the entity contains the point.
+	 *
+	 * @return | result == Math.hypot(entity.getXPosition() - x, entity.getYPosition() - y) - entity.getRadius()
+	 */
+	public static double getDistance(double x, double y, Entity entity){
+		return Math.hypot(entity.getXPosition() - x, entity.getYPosition() - y) - entity.getRadius();
+	}
+
+	/**
+	 * Check whether the given entity at the given distance is nearer than the other
+	 * entity at the other distance.
+	 *
+	 * @return | result == (distance < otherDistance || (distance == otherDistance
+	 * 		   |	&& entity.getSequenceNumber() < other.getSequenceNumber()))
+	 */
+	private static boolean isNearer(double distance, Entity entity, double otherDistance, Entity other){
+		return distance < otherDistance
+				|| (distance == otherDistance && entity.getSequenceNumber() < other.getSequenceNumber());
+	}
+
+// ------------------ GRID ------------------
+
+	/**
+	 * Rebuild the grid of this index for the given entities.
+	 * The grid has about one cell per entity, and at most MAX_GRID_SIZE cells along each axis.
+	 */
+	private void build(Collection<? extends Entity> entities){
+		this.size = (int) Math.max(1, Math.min(MAX_GRID_SIZE, Math.ceil(Math.sqrt(entities.size()))));
+		this.cellWidth = (this.width > 0) ? this.width / this.size : 1;
+		this.cellHeight = (this.height > 0) ? this.height / this.size : 1;
+		this.cells = new ArrayList<>(this.size * this.size);
+		for (int cell = 0; cell < this.size * this.size; cell++)
+			this.cells.add(new ArrayList<>(2));
+		this.cellsOfEntities.clear();
+		this.maxRadius = 0;
+		this.builtSize = entities.size();
+		for (Entity entity : entities)
+			this.register(entity);
+	}
+
+	/**
+	 * Register the given entity in the cell of its centre.
+	 */
+	private void register(Entity entity){
+		int cell = this.getCell(entity);
+		this.cells.get(cell).add(entity);
+		this.cellsOfEntities.put(entity, cell);
+		this.maxRadius = Math.max(this.maxRadius, entity.getRadius());
+	}
+
+	/**
+	 * Remove the given entity from the given list, comparing by identity.
+	 */
+	private static void removeFrom(List<Entity> entities, Entity entity){
+		for (int i = 0; i < entities.size(); i++){
+			if (entities.get(i) == entity){
+				entities.remove(i);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Return the cell containing the centre of the given entity.
+	 */
+	private int getCell(Entity entity){
+		return this.getRow(entity.getYPosition()) * this.size + this.getColumn(entity.getXPosition());
+	}
+
+	/**
+	 * Return the column of the grid containing the given x-coordinate.
+	 * Coordinates outside the world are clamped to the first or last column.
+	 */
+	private int getColumn(double x){
+		double column = Math.floor(x / this.cellWidth);
+		return (int) Math.max(0, Math.min(this.size - 1, column));
+	}
+
+	/**
+	 * Return the row of the grid containing the given y-coordinate.
+	 * Coordinates outside the world are clamped to the first or last row.
+	 */
+	private int getRow(double y){
+		double row = Math.floor(y / this.cellHeight);
+		return (int) Math.max(0, Math.min(this.size - 1, row));
+	}
+
+	/**
+	 * Return a lower bound on the distance between the given point and the centre of
+	 * any entity outside the given ring of cells around the given cell.
+	 */
+	private double getDistanceOutside(double x, double y, int column, int row, int ring){
+		double result = Double.POSITIVE_INFINITY;
+		if (column - ring > 0)
+			result = Math.min(result, x - (column - ring) * this.cellWidth);
+		if (column + ring < this.size - 1)
+			result = Math.min(result, (column + ring + 1) * this.cellWidth - x);
+		if (row - ring > 0)
+			result = Math.min(result, y - (row - ring) * this.cellHeight);
+		if (row + ring < this.size - 1)
+			result = Math.min(result, (row + ring + 1) * this.cellHeight - y);
+		return Math.max(0, result);
+	}
+
+	/**
+	 * Check whether the circle of the given entity intersects the given rectangle.
+	 *
+	 * @return | @see implementation
+	 */
+	private static boolean intersects(Entity entity, double minX, double minY, double maxX, double maxY){
+		double x = entity.getXPosition(), y = entity.getYPosition(), radius = entity.getRadius();
+		double dx = x - Math.max(minX, Math.min(x, maxX));
+		double dy = y - Math.max(minY, Math.min(y, maxY));
+		return dx * dx + dy * dy <= radius * radius;
+	}
+
+// ------------------ VARIABLES ------------------
+
+	/**
+	 * Constant registering the maximal number of grid cells along each axis.
+	 */
+	private static final int MAX_GRID_SIZE = 256;
+
+	/**
+	 * Constant registering the factor by which the number of entities must grow or
+	 * shrink before the grid is rebuilt.
+	 */
+	private static final int GROWTH_FACTOR = 4;
+
+	/**
+	 * Variables registering the dimensions of the world.
+	 */
+	private final double width, height;
+
+	/**
+	 * Variable registering the number of columns and rows of the grid.
+	 */
+	private int size;
+
+	/**
+	 * Variables registering the dimensions of each cell of the grid.
+	 */
+	private double cellWidth, cellHeight;
+
+	/**
+	 * Variable registering the number of entities the grid was last built for.
+	 */
+	private int builtSize;
+
+	/**
+	 * Variable registering an upper bound on the radius of all entities in this index.
+	 * It is not lowered when entities are removed or shrink, until the grid is rebuilt.
+	 */
+	private double maxRadius = 0;
+
+	/**
+	 * A list containing, for each cell, the entities registered in it.
+	 */
+	private List<List<Entity>> cells;
+
+	/**
+	 * A map containing the cell of each entity in this index.
+	 */
+	private final Map<Entity, Integer> cellsOfEntities = new IdentityHashMap<>();
+}
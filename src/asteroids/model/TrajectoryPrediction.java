@@ -0,0 +1,146 @@
+package asteroids.model;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Immutable;
+import be.kuleuven.cs.som.annotate.Value;
+
+/**
+ * A class of predictions of the state of an entity at a future time.
+ * A prediction holds the predicted position and velocity of an entity.
+ * If the trajectory of the entity is interrupted before the predicted time,
+ * by a collision whose outcome is not predicted, the prediction holds the state
+ * of the entity at the moment of that collision.
+ *
+ * @version 3.0
+ * @author James Defauw & Michiel De Koninck
+ */
+@Value
+public class TrajectoryPrediction {
+
+	/**
+	 * Initialize this new prediction with the given properties.
+	 *
+	 * @param time
+	 * 		  The time from now at which the state is predicted.
+	 * @param xPosition
+	 * 		  The predicted x-coordinate.
+	 * @param yPosition
+	 * 		  The predicted y-coordinate.
+	 * @param xVelocity
+	 * 		  The predicted velocity in the x-direction.
+	 * @param yVelocity
+	 * 		  The predicted velocity in the y-direction.
+	 * @param interrupted
+	 * 		  Whether the trajectory is interrupted before the given time.
+	 * @post  | new.getTime() == time
+	 * @post  | new.getPosition()[0] == xPosition && new.getPosition()[1] == yPosition
+	 * @post  | new.getVelocity()[0] == xVelocity && new.getVelocity()[1] == yVelocity
+	 * @post  | new.isInterrupted() == interrupted
+	 */
+	public TrajectoryPrediction(double time, double xPosition, double yPosition, double xVelocity, double yVelocity,
+			boolean interrupted){
+		this.time = time;
+		this.xPosition = xPosition;
+		this.yPosition = yPosition;
+		this.xVelocity = xVelocity;
+		this.yVelocity = yVelocity;
+		this.interrupted = interrupted;
+	}
+
+	/**
+	 * Return the time from now at which the state of the entity is predicted.
+	 * If the trajectory is interrupted, this is the time of the interruption.
+	 */
+	@Basic @Immutable
+	public double getTime(){
+		return this.time;
+	}
+
+	/**
+	 * Return the predicted position.
+	 */
+	@Basic @Immutable
+	public double[] getPosition(){
+		return new double[]{this.xPosition, this.yPosition};
+	}
+
+	/**
+	 * Return the predicted velocity.
+	 */
+	@Basic @Immutable
+	public double[] getVelocity(){
+		return new double[]{this.xVelocity, this.yVelocity};
+	}
+
+	/**
+	 * Return whether the trajectory is interrupted before the requested time.
+	 */
+	@Basic @Immutable
+	public boolean isInterrupted(){
+		return this.interrupted;
+	}
+
+	/**
+	 * Check whether this prediction is equal to the given object.
+	 *
+	 * @return True if and only if the given object is a prediction with the same properties.
+	 * 		   | @see implementation
+	 */
+	@Override
+	public boolean equals(Object other){
+		if (other == null || this.getClass() != other.getClass())
+			return false;
+		TrajectoryPrediction otherPrediction = (TrajectoryPrediction) other;
+		return (this.getTime() == otherPrediction.getTime()) && (this.xPosition == otherPrediction.xPosition)
+				&& (this.yPosition == otherPrediction.yPosition) && (this.xVelocity == otherPrediction.xVelocity)
+				&& (this.yVelocity == otherPrediction.yVelocity) && (this.isInterrupted() == otherPrediction.isInterrupted());
+	}
+
+	/**
+	 * Return the hash code for this prediction.
+	 */
+	@Override
+	public int hashCode(){
+		return Double.hashCode(this.getTime()) + 31 * Double.hashCode(this.xPosition)
+				+ 961 * Double.hashCode(this.yPosition);
+	}
+
+	/**
+	 * Return a textual representation of this prediction.
+	 */
+	@Override
+	public String toString(){
+		return "[" + this.getTime() + ": (" + this.xPosition + "," + this.yPosition + ") ("
+				+ this.xVelocity + "," + this.yVelocity + ")" + (this.isInterrupted() ? " interrupted]" : "]");
+	}
+
+	/**
+	 * Variable registering the time at which the state is predicted.
+	 */
+	private final double time;
+
+	/**
+	 * Variable registering the predicted x-coordinate.
+	 */
+	private final double xPosition;
+
+	/**
+	 * Variable registering the predicted y-coordinate.
+	 */
+	private final double yPosition;
+
+	/**
+	 * Variable registering the predicted velocity in the x-direction.
+	 */
+	private final double xVelocity;
+
+	/**
+	 * Variable registering the predicted velocity in the y-direction.
+	 */
+	private final double yVelocity;
+
+	/**
+	 * Variable registering whether the trajectory is interrupted.
+	 */
+	private final boolean interrupted;
+}
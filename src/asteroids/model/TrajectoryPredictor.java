@@ -0,0 +1,365 @@
+package asteroids.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import asteroids.model.exceptions.IllegalDurationException;
+import asteroids.model.exceptions.IllegalEntityException;
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Immutable;
+
+/**
+ * A class of predictors for the trajectories of the entities in a world.
+ *
+ * A predictor takes a snapshot of the state of all entities in a world upon creation,
+ * and never changes the world or its entities afterwards. The trajectories are predicted
+ * in the same way as the world evolves: entities move with constant velocity between
+ * collisions, ships with an active thruster are accelerated after each such segment,
+ * entities bounce off the boundaries of the world, and ships or minor planets
+ * bounce off each other.
+ * The outcome of all other collisions (bullets hitting entities, ships hitting
+ * minor planets) is not predicted. Those collisions interrupt the trajectories of
+ * both entities involved. The shrinking of planetoids is not taken into account.
+ *
+ * Predictions are cached by the time at which they are requested. Only the predictions
+ * for the MAX_PREDICTIONS most recently requested times are kept.
+ *
+ * @version 3.0
+ * @author James Defauw & Michiel De Koninck
+ */
+public class TrajectoryPredictor {
+
+	/**
+	 * Initialize this new predictor with a snapshot of the given world.
+	 *
+	 * @param world
+	 * 		  The world whose entities are predicted.
+	 * @post  The version of this predictor is the current version of the given world.
+	 * 		  | new.getVersion() == world.getVersion()
+	 */
+	public TrajectoryPredictor(World world){
+		this.version = world.getVersion();
+		this.width = world.getWidth();
+		this.height = world.getHeight();
+
+		List<Entity> entities = new ArrayList<>(world.getAllEntities());
+		entities.sort(Comparator.comparingLong(Entity::getSequenceNumber));
+		int nbEntities = entities.size();
+		this.x = new double[nbEntities];
+		this.y = new double[nbEntities];
+		this.xVelocity = new double[nbEntities];
+		this.yVelocity = new double[nbEntities];
+		this.radius = new double[nbEntities];
+		this.mass = new double[nbEntities];
+		this.maxVelocity = new double[nbEntities];
+		this.xAcceleration = new double[nbEntities];
+		this.yAcceleration = new double[nbEntities];
+		this.bouncesLeft = new int[nbEntities];
+		this.casualGroup = new int[nbEntities];
+
+		for (int i = 0; i < nbEntities; i++){
+			Entity entity = entities.get(i);
+			this.indices.put(entity, i);
+			this.x[i] = entity.getXPosition();
+			this.y[i] = entity.getYPosition();
+			this.xVelocity[i] = entity.getXVelocity();
+			this.yVelocity[i] = entity.getYVelocity();
+			this.radius[i] = entity.getRadius();
+			this.mass[i] = entity.getMass();
+			this.maxVelocity[i] = entity.getMaxVelocity();
+			this.bouncesLeft[i] = (entity instanceof Bullet) ? ((Bullet) entity).getBouncesLeft() : -1;
+			if (entity instanceof Ship){
+				Ship ship = (Ship) entity;
+				this.casualGroup[i] = SHIPS;
+				if (ship.getThrustState()){
+					// Negative accelerations leave the velocity untouched, as in Ship.accelerate.
+					double a = Math.max(0, ship.getPossibleAcceleration());
+					this.xAcceleration[i] = a * Math.cos(ship.getOrientation());
+					this.yAcceleration[i] = a * Math.sin(ship.getOrientation());
+				}
+			}
+			else if (entity instanceof MinorPlanet)
+				this.casualGroup[i] = MINOR_PLANETS;
+			else
+				this.casualGroup[i] = NONE;
+		}
+	}
+
+// ------------------ GETTERS ------------------
+
+	/**
+	 * Return the version of the world of which this predictor holds a snapshot.
+	 */
+	@Basic @Immutable
+	public long getVersion(){
+		return this.version;
+	}
+
+	/**
+	 * Return whether the given entity is predicted by this predictor.
+	 *
+	 * @param entity
+	 * 		  The entity to check.
+	 * @return True if and only if the given entity was in the world of this predictor
+	 * 		   when this predictor was created.
+	 */
+	public boolean canPredict(Entity entity){
+		return this.indices.containsKey(entity);
+	}
+
+// ------------------ PREDICTING ------------------
+
+	/**
+	 * Return the predicted state of the given entity, the given time from now.
+	 *
+	 * @param entity
+	 * 		  The entity to predict.
+	 * @param time
+	 * 		  The time from now at which the state is predicted.
+	 * @return The predicted state of the given entity.
+	 * 		   | @see implementation
+	 * @throws IllegalEntityException
+	 * 		   The given entity can not be predicted by this predictor.
+	 * 		   | !canPredict(entity)
+	 * @throws IllegalDurationException
+	 * 		   The given time is not a valid duration.
+	 * 		   | time < 0 || Double.isNaN(time) || time == Double.POSITIVE_INFINITY
+	 */
+	public TrajectoryPrediction predict(Entity entity, double time) throws IllegalEntityException, IllegalDurationException{
+		if (!this.canPredict(entity))
+			throw new IllegalEntityException(entity);
+		if ((time < 0) || Double.isNaN(time) || (time == Double.POSITIVE_INFINITY))
+			throw new IllegalDurationException(time);
+		TrajectoryPrediction[] result;
+		synchronized (this.predictions){
+			result = this.predictions.get(time);
+			if (result == null){
+				result = this.simulate(time);
+				this.predictions.put(time, result);
+			}
+		}
+		return result[this.indices.get(entity)];
+	}
+
+	/**
+	 * Simulate the snapshot of this predictor for the given time.
+	 *
+	 * @param time
+	 * 		  The time during which the snapshot is simulated.
+	 * @return The predicted states of all entities in the snapshot, indexed in the same way.
+	 * 		   | @see implementation
+	 */
+	private TrajectoryPrediction[] simulate(double time){
+		int nbEntities = this.x.length;
+		double[] x = this.x.clone();
+		double[] y = this.y.clone();
+		double[] xVelocity = this.xVelocity.clone();
+		double[] yVelocity = this.yVelocity.clone();
+		int[] bouncesLeft = this.bouncesLeft.clone();
+		TrajectoryPrediction[] result = new TrajectoryPrediction[nbEntities];
+
+		double elapsed = 0;
+		for (int nbEvents = 0; nbEvents <= MAX_EVENTS; nbEvents++){
+			// Find the first event among the entities whose trajectory is not interrupted.
+			double first = Double.POSITIVE_INFINITY;
+			int firstEntity = -1;
+			int secondEntity = -1;
+			for (int i = 0; i < nbEntities; i++){
+				if (result[i] != null)
+					continue;
+				double t = Entity.getTimeToBoundaryCollision(x[i], y[i], xVelocity[i], yVelocity[i], this.radius[i],
+						this.width, this.height);
+				if (t >= 0 && t < first){
+					first = t;
+					firstEntity = i;
+					secondEntity = -1;
+				}
+			}
+			for (int i = 0; i < nbEntities; i++){
+				if (result[i] != null)
+					continue;
+				for (int j = i + 1; j < nbEntities; j++){
+					if (result[j] != null)
+						continue;
+					double t = Entity.getTimeToCollision(x[i], y[i], xVelocity[i], yVelocity[i], this.radius[i],
+							x[j], y[j], xVelocity[j], yVelocity[j], this.radius[j]);
+					// Boundary collisions come first at equal times, as in World.evolve.
+					if (t >= 0 && t < first){
+						first = t;
+						firstEntity = i;
+						secondEntity = j;
+					}
+				}
+			}
+
+			double remaining = time - elapsed;
+			double step = (nbEvents == MAX_EVENTS) ? 0 : Math.min(first, remaining);
+			for (int i = 0; i < nbEntities; i++){
+				if (result[i] != null)
+					continue;
+				x[i] += xVelocity[i] * step;
+				y[i] += yVelocity[i] * step;
+				this.setVelocity(xVelocity, yVelocity, i, xVelocity[i] + this.xAcceleration[i] * step,
+						yVelocity[i] + this.yAcceleration[i] * step);
+			}
+			elapsed += step;
+
+			if (first > remaining || nbEvents == MAX_EVENTS)
+				break;
+
+			if (secondEntity < 0){
+				if (bouncesLeft[firstEntity] == 1)
+					result[firstEntity] = new TrajectoryPrediction(elapsed, x[firstEntity], y[firstEntity],
+							xVelocity[firstEntity], yVelocity[firstEntity], true);
+				else {
+					if (bouncesLeft[firstEntity] > 1)
+						bouncesLeft[firstEntity]--;
+					this.bounce(x, y, xVelocity, yVelocity, firstEntity);
+				}
+			}
+			else if (this.casualGroup[firstEntity] != NONE
+					&& this.casualGroup[firstEntity] == this.casualGroup[secondEntity])
+				this.collide(x, y, xVelocity, yVelocity, firstEntity, secondEntity);
+			else {
+				result[firstEntity] = new TrajectoryPrediction(elapsed, x[firstEntity], y[firstEntity],
+						xVelocity[firstEntity], yVelocity[firstEntity], true);
+				result[secondEntity] = new TrajectoryPrediction(elapsed, x[secondEntity], y[secondEntity],
+						xVelocity[secondEntity], yVelocity[secondEntity], true);
+			}
+		}
+
+		for (int i = 0; i < nbEntities; i++){
+			if (result[i] == null)
+				result[i] = new TrajectoryPrediction(elapsed, x[i], y[i], xVelocity[i], yVelocity[i], elapsed < time);
+		}
+		return result;
+	}
+
+	/**
+	 * Let the entity at the given index bounce off the boundaries it touches.
+	 *
+	 * @effect The velocity along each axis whose boundary is touched is reversed,
+	 * 		   in the same way as Entity.handleBoundaryCollision.
+	 * 		   | @see implementation
+	 */
+	private void bounce(double[] x, double[] y, double[] xVelocity, double[] yVelocity, int i){
+		double r = this.radius[i];
+		if ((x[i] < 1.01 * r) || (x[i] > this.width - 1.01 * r))
+			xVelocity[i] = -xVelocity[i];
+		if ((y[i] < 1.01 * r) || (y[i] > this.height - 1.01 * r))
+			yVelocity[i] = -yVelocity[i];
+	}
+
+	/**
+	 * Let the entities at the given indices bounce off each other.
+	 *
+	 * @effect The velocities of both entities are changed in the same way as Entity.handleCasualCollision.
+	 * 		   | @see implementation
+	 */
+	private void collide(double[] x, double[] y, double[] xVelocity, double[] yVelocity, int i, int j){
+		double deltaPosX = x[j] - x[i];
+		double deltaPosY = y[j] - y[i];
+		double deltaVelX = xVelocity[j] - xVelocity[i];
+		double deltaVelY = yVelocity[j] - yVelocity[i];
+
+		double delta = deltaPosX * deltaVelX + deltaPosY * deltaVelY;
+		double sumRadius = this.radius[i] + this.radius[j];
+
+		double jValue = (2 * this.mass[i] * this.mass[j] * delta) / (sumRadius * (this.mass[i] + this.mass[j]));
+		double Jx = (jValue * deltaPosX) / sumRadius;
+		double Jy = (jValue * deltaPosY) / sumRadius;
+
+		double iXVelocity = xVelocity[i] + Jx / this.mass[i];
+		double iYVelocity = yVelocity[i] + Jy / this.mass[i];
+		double jXVelocity = xVelocity[j] - Jx / this.mass[j];
+		double jYVelocity = yVelocity[j] - Jy / this.mass[j];
+		this.setVelocity(xVelocity, yVelocity, i, iXVelocity, iYVelocity);
+		this.setVelocity(xVelocity, yVelocity, j, jXVelocity, jYVelocity);
+	}
+
+	/**
+	 * Set the velocity of the entity at the given index, scaled to its maximum velocity.
+	 *
+	 * @effect The velocity is set in the same way as Entity.setVelocity.
+	 * 		   | @see implementation
+	 */
+	private void setVelocity(double[] xVelocity, double[] yVelocity, int i, double newXVelocity, double newYVelocity){
+		if (Double.isNaN(newXVelocity) || Double.isNaN(newYVelocity))
+			return;
+		double norm = Math.sqrt(newXVelocity * newXVelocity + newYVelocity * newYVelocity);
+		if (norm > this.maxVelocity[i]){
+			newXVelocity = newXVelocity * this.maxVelocity[i] / norm;
+			newYVelocity = newYVelocity * this.maxVelocity[i] / norm;
+		}
+		xVelocity[i] = newXVelocity;
+		yVelocity[i] = newYVelocity;
+	}
+
+// ------------------ VARIABLES ------------------
+
+	/**
+	 * Variable registering the maximum number of events simulated in a single prediction.
+	 * Entities whose trajectory is not yet complete after this number of events are
+	 * predicted as interrupted.
+	 */
+	private static final int MAX_EVENTS = 10000;
+
+	/**
+	 * Constants registering the groups of entities that bounce off each other.
+	 */
+	private static final int NONE = 0, SHIPS = 1, MINOR_PLANETS = 2;
+
+	/**
+	 * Variable registering the version of the world of which this predictor holds a snapshot.
+	 */
+	private final long version;
+
+	/**
+	 * Variables registering the dimensions of the world.
+	 */
+	private final double width, height;
+
+	/**
+	 * A map containing the index of each entity in the snapshot.
+	 */
+	private final HashMap<Entity, Integer> indices = new HashMap<>();
+
+	/**
+	 * Arrays registering the state of the entities in the snapshot.
+	 */
+	private final double[] x, y, xVelocity, yVelocity, radius, mass, maxVelocity, xAcceleration, yAcceleration;
+
+	/**
+	 * Array registering the number of bounces left for each bullet in the snapshot, -1 for other entities.
+	 */
+	private final int[] bouncesLeft;
+
+	/**
+	 * Array registering the group of entities that each entity in the snapshot bounces off.
+	 */
+	private final int[] casualGroup;
+
+	/**
+	 * Variable registering the maximum number of times for which predictions are cached.
+	 */
+	private static final int MAX_PREDICTIONS = 16;
+
+	/**
+	 * A map containing the predicted states of all entities, with the time of the prediction as key,
+	 * in the order in which they were last requested. The least recently requested prediction is
+	 * dropped once there are more than MAX_PREDICTIONS of them.
+	 */
+	private final LinkedHashMap<Double, TrajectoryPrediction[]> predictions =
+			new LinkedHashMap<Double, TrajectoryPrediction[]>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Double, TrajectoryPrediction[]> eldest) {
+			return this.size() > MAX_PREDICTIONS;
+		}
+	};
+}
@@ -1,9 +1,15 @@
 package asteroids.model;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 import asteroids.model.exceptions.IllegalBulletException;
@@ -72,8 +78,14 @@ public class World {
 	 * 		 |new.isTerminated()
 	 */
 	public void terminate(){
+		// Entities that are still shared belong to the world this world was forked from.
+		synchronized (this){
+			this.entities.values().removeAll(this.sharedEntities);
+			this.sharedEntities.clear();
+		}
 		for (Entity entity : this.getAllEntities())
 			this.removeEntity(entity);
+		this.spatialIndices = null;
 		this.isTerminated = true;
 	}
 
@@ -178,6 +190,8 @@ public class World {
 	 *
 	 */
 	public void setWidth(double width){
+		this.increaseVersion();
+		this.spatialIndices = null;
 		double widthpositive = Math.abs(width);
 		if (widthpositive  > World.getUpperBound()) {
 			this.width = World.getUpperBound();
@@ -206,6 +220,8 @@ public class World {
 	 *       | new.getHeight() == height
 	 */
 	public void setHeight(double height){
+		this.increaseVersion();
+		this.spatialIndices = null;
 		double heightpositive = Math.abs(height);
 		if (heightpositive > World.getUpperBound()) {
 			this.height = World.getUpperBound();
@@ -253,7 +269,7 @@ public class World {
 		for (Entity entity : this.getAllEntities()) {
 			if (!canHaveAsEntity(entity))
 				return false;
-			if (entity.getWorld() != this)
+			if (entity.getWorld() != this && !this.isSharedEntity(entity))
 				return false;
 		}
 		return true;
@@ -281,11 +297,13 @@ public class World {
 				throw new IllegalEntityException(entity);
 		}
 
+		this.increaseVersion();
 		this.entities.put((StringMaker(entity.getPosition())), entity);
 		//This entity has the world as its world.
 	
 		entity.setWorld(this);
-		
+		if (this.spatialIndices != null)
+			this.getSpatialIndex(entity.getClass()).add(entity);
 	}
 	
 	/** HELPER FUNCTION 
@@ -321,8 +339,13 @@ public class World {
 		if (entity == null || !hasEntity(entity)){
 			throw new IllegalEntityException(entity);
 		}
+		if (this.isSharedEntity(entity))
+			entity = this.getOwnEntity(entity);
 
+		this.increaseVersion();
 		this.entities.values().remove(entity);
+		if (this.spatialIndices != null)
+			this.getSpatialIndex(entity.getClass()).remove(entity);
 
 		entity.setWorld(null);
 	}
@@ -450,6 +473,14 @@ public class World {
 	public void moveAllEntities( double Dt) throws IllegalPositionException, IllegalDurationException{
 		
 		for(Entity entity: this.getAllEntities()){
+			// An entity that was copied together with an entity moved before, is replaced by its copy.
+			entity = this.copies.getOrDefault(entity, entity);
+			if (this.isSharedEntity(entity)){
+				// Shared entities that stay where they are, are not copied.
+				if (isAtRest(entity))
+					continue;
+				entity = this.ownEntity(entity);
+			}
 			// The objects with value 'entity' 
 			// are first removed from the map of entities, 
 			// before the entities are moved.
@@ -462,6 +493,20 @@ public class World {
 				((Ship) entity).accelerate(Dt);
 			}			
 		}
+		this.time += Dt;
+	}
+	
+	/**
+	 * Check whether the given entity does not change when it is moved.
+	 * 
+	 * @param entity
+	 * 		  The entity to check.
+	 * @return | result == (entity.getXVelocity() == 0 && entity.getYVelocity() == 0 
+	 * 		   |	&& !(entity instanceof Ship && ((Ship) entity).getThrustState()))
+	 */
+	private static boolean isAtRest(Entity entity){
+		return (entity.getXVelocity() == 0 && entity.getYVelocity() == 0 
+				&& !(entity instanceof Ship && ((Ship) entity).getThrustState()));
 	}
 	
 	
@@ -487,21 +532,15 @@ public class World {
 		if (! isValidDuration(Dt)){
 			throw new IllegalDurationException(Dt);
 		}
+		this.checkForkedFrom();
 
-//		ENTITY-BOUNDARY INFO
-		// The time until the first boundary collision is calculated.
-		double tNextEntityBoundaryCollision = this.getTimeToNextEntityBoundaryCollision();
-		Entity nextEntityBoundaryCollisionEntity = this.getNextEntityBoundaryCollisionEntity();
-
-//      ENTITY - ENTITY INFO
-		// The time until the first collision between two entities is calculated.
-		double tNextEntityEntityCollision = this.getTimeToNextEntityEntityCollision();
-		HashSet<Entity> nextEntityEntityCollisionEntities = this.getNextEntityEntityCollisionEntities();
-		
-		double tC = Math.min(tNextEntityBoundaryCollision, tNextEntityEntityCollision);
+		// All collisions that happen at (nearly) the same first instant
+		// are collected in one scan, sorted in a deterministic order.
+		List<CollisionEvent> events = this.getFirstCollisionEvents(Dt);
 
-		if (tC <= Dt){
+		if (! events.isEmpty()){
 //			 Time to first collision is smaller than given evolve time Dt.
+			double tC = events.get(0).getTime();
 			if (! isValidDuration(tC)){
 				throw new IllegalDurationException(tC);
 			}
@@ -511,43 +550,33 @@ public class World {
 
 			//-------------- COLLISIONS ARE HANDLED, entities are at point of collision.
 
-			if (tNextEntityBoundaryCollision<=tNextEntityEntityCollision) {
-				//handle entity boundary collision
-				nextEntityBoundaryCollisionEntity.handleBoundaryCollision();
-			}
-
-
-			else {
-				//handle entity entity collision
-				List<Entity> ArrayofEntities = new ArrayList<>(nextEntityEntityCollisionEntities);
-				Entity entityA = ArrayofEntities.get(0);
-				Entity entityB = ArrayofEntities.get(1);
-
-				// TWO-SIDED solving of collision.
-				entityA.handleOtherEntityCollision(entityB);
-				//Flag for collision handled is raised in case
-				// this is a casual collision.
-				setCasualCollisionHandled(true);
-				entityB.handleOtherEntityCollision(entityA);
-				// Flag is now put to false again:
-				setCasualCollisionHandled(false);
+			// The first event is always handled. The others may have been
+			// invalidated by handling an earlier event, so they are checked again.
+			// Entities that are still shared are copied before their collision is handled.
+			this.handleCollisionEvent(this.getOwnEvent(events.get(0)));
+			for (CollisionEvent event : events.subList(1, events.size())){
+				event = this.getOwnEvent(event);
+				if (this.isPendingCollisionEvent(event))
+					this.handleCollisionEvent(event);
 			}
 
-			// If tC was valid, it is now substracted from Dt.
+			// tC is now substracted from Dt.
 			// This to calculate the remaining time until evolve is complete.		
-			if (isValidDuration(tC))
-				Dt = Dt - tC;
+			Dt = Dt - tC;
 			// Recursive: a new Dt has been computed and we now 
 			// call upon evolve with the smaller value for Dt.
 			this.evolve(Dt);
 		}
 		
 		else{ 
-			// ! tC < Dt
 			// Dt is smaller than the time until the first collision.
 			this.moveAllEntities(Dt);
+			// The world is in a consistent state at the end of each evolve,
+			// so this is where a new snapshot is published for readers on other threads.
+			this.publishSnapshot();
 		}
 	}
+	
 	/**
 	 *  Check whether the given duration is legal.
 	 * 
@@ -581,6 +610,142 @@ public class World {
 	}
 	
 	
+	/**
+	 * Return the epsilon used to coalesce collisions.
+	 * All collisions that happen within this epsilon after the first collision
+	 * are handled in the same step of evolving this world.
+	 */
+	@Basic
+	public double getCoalescingEpsilon(){
+		return this.coalescingEpsilon;
+	}
+	
+	/**
+	 * Check whether the given epsilon is a valid coalescing epsilon.
+	 * 
+	 * @param epsilon
+	 * 		  The epsilon to check.
+	 * @return | result == (epsilon >= 0 && epsilon < Double.POSITIVE_INFINITY)
+	 */
+	public static boolean isValidCoalescingEpsilon(double epsilon){
+		return ((epsilon >= 0) && (epsilon < Double.POSITIVE_INFINITY));
+	}
+	
+	/**
+	 * Set the coalescing epsilon of this world to the given epsilon.
+	 * 
+	 * @param epsilon
+	 * 		  The new coalescing epsilon.
+	 * @post  If the given epsilon is valid, it is the new coalescing epsilon of this world.
+	 * 		  Otherwise the coalescing epsilon is left untouched.
+	 * 		  | if (isValidCoalescingEpsilon(epsilon))
+	 * 		  |		then new.getCoalescingEpsilon() == epsilon
+	 */
+	public void setCoalescingEpsilon(double epsilon){
+		if (isValidCoalescingEpsilon(epsilon))
+			this.coalescingEpsilon = epsilon;
+	}
+	
+	/**
+	 * Return all collisions that happen first within the given duration.
+	 * These are the collisions that happen within the coalescing epsilon
+	 * after the very first collision in this world.
+	 * Collisions between entities are only looked for among the candidates
+	 * found by a collision grid over the given duration.
+	 * 
+	 * @param Dt
+	 * 		  The duration within which collisions are looked for.
+	 * @return A sorted list of the first collisions in this world that happen no later than the given duration.
+	 * 		   The list is empty if no collision happens within the given duration.
+	 * 		   | @see implementation
+	 * @throws IllegalCollisionException
+	 * 		   Two entities in this world overlap significantly.
+	 */
+	public List<CollisionEvent> getFirstCollisionEvents(double Dt) throws IllegalCollisionException{
+		List<Entity> ArrayofEntities = new ArrayList<>(this.getEntities().values());
+		List<CollisionEvent> events = new ArrayList<>();
+		double firstTime = Double.POSITIVE_INFINITY;
+		
+		// Only pairs of entities that sweep through a common cell within Dt can collide.
+		CollisionGrid grid = new CollisionGrid(ArrayofEntities, Dt);
+		
+		for (Entity entity : ArrayofEntities){
+			double time = entity.getTimeToBoundaryCollision();
+			if (time <= Dt && time <= firstTime + this.getCoalescingEpsilon()){
+				events.add(new CollisionEvent(time, entity));
+				firstTime = Math.min(firstTime, time);
+			}
+			for (Entity other : grid.getCandidates(entity)){
+				// Each pair of entities is only checked once.
+				if (other.getSequenceNumber() < entity.getSequenceNumber())
+					continue;
+				time = entity.getTimeToEntityCollision(other);
+				if (time <= Dt && time <= firstTime + this.getCoalescingEpsilon()){
+					events.add(new CollisionEvent(time, entity, other));
+					firstTime = Math.min(firstTime, time);
+				}
+			}
+		}
+		
+		// Events that were collected before the first time was known, are removed.
+		final double limit = firstTime + this.getCoalescingEpsilon();
+		events.removeIf(event -> event.getTime() > limit);
+		Collections.sort(events);
+		return events;
+	}
+	
+	/**
+	 * Check whether the given collision event still has to be handled,
+	 * after all entities have been moved to the first collision in this world.
+	 * 
+	 * @param event
+	 * 		  The collision event to check.
+	 * @return False if one of the entities in the given event is terminated or no longer in this world.
+	 * 		   Otherwise true if and only if the collision still happens within the coalescing epsilon.
+	 * 		   | @see implementation
+	 * @throws IllegalCollisionException
+	 * 		   The entities in the given event overlap significantly.
+	 */
+	public boolean isPendingCollisionEvent(CollisionEvent event) throws IllegalCollisionException{
+		Entity entityA = event.getFirstEntity();
+		Entity entityB = event.getSecondEntity();
+		if (entityA.isTerminated() || entityA.getWorld() != this)
+			return false;
+		if (event.isBoundaryCollision())
+			return (entityA.getTimeToBoundaryCollision() <= this.getCoalescingEpsilon());
+		if (entityB.isTerminated() || entityB.getWorld() != this)
+			return false;
+		return (entityA.getTimeToEntityCollision(entityB) <= this.getCoalescingEpsilon());
+	}
+	
+	/**
+	 * Handle the given collision event.
+	 * 
+	 * @param event
+	 * 		  The collision event to handle.
+	 * @effect If the given event is a boundary collision, it is handled by its entity.
+	 * 		   Otherwise the collision is handled by both entities.
+	 * 		   | @see implementation
+	 */
+	public void handleCollisionEvent(CollisionEvent event) throws IllegalPositionException, IllegalBulletException{
+		Entity entityA = event.getFirstEntity();
+		Entity entityB = event.getSecondEntity();
+		if (event.isBoundaryCollision()){
+			//handle entity boundary collision
+			entityA.handleBoundaryCollision();
+		}
+		else {
+			// TWO-SIDED solving of collision.
+			entityA.handleOtherEntityCollision(entityB);
+			//Flag for collision handled is raised in case
+			// this is a casual collision.
+			setCasualCollisionHandled(true);
+			entityB.handleOtherEntityCollision(entityA);
+			// Flag is now put to false again:
+			setCasualCollisionHandled(false);
+		}
+	}
+	
 	/**
 	 * This method returns the time to the next collision between an entity and a boundary.
 	 * 
@@ -718,6 +883,450 @@ public class World {
 	}
 	
 	
+// ------------------- VERSIONS AND PREDICTIONS ----------------------
+
+	/**
+	 * Return the version of this world.
+	 * The version of a world is increased each time the world or one of its entities changes.
+	 */
+	@Basic
+	public long getVersion(){
+		return this.version;
+	}
+	
+	/**
+	 * Increase the version of this world.
+	 * 
+	 * @post  | new.getVersion() == this.getVersion() + 1
+	 */
+	void increaseVersion(){
+		this.version++;
+	}
+	
+	/**
+	 * Return a trajectory predictor for the current state of this world.
+	 * 
+	 * @return A predictor holding a snapshot of the current version of this world.
+	 * 		   The same predictor is returned as long as this world does not change.
+	 * 		   | result.getVersion() == this.getVersion()
+	 */
+	public TrajectoryPredictor getTrajectoryPredictor(){
+		TrajectoryPredictor predictor = this.trajectoryPredictor;
+		if (predictor == null || predictor.getVersion() != this.getVersion()){
+			predictor = new TrajectoryPredictor(this);
+			this.trajectoryPredictor = predictor;
+		}
+		return predictor;
+	}
+	
+	/**
+	 * Return the predicted state of the given entity, the given time from now.
+	 * This world and its entities are not changed.
+	 * 
+	 * @param entity
+	 * 		  The entity to predict.
+	 * @param time
+	 * 		  The time from now at which the state is predicted.
+	 * @return | result == getTrajectoryPredictor().predict(entity, time)
+	 * @throws IllegalEntityException
+	 * 		   The given entity does not belong to this world.
+	 * 		   | !hasEntity(entity)
+	 * @throws IllegalDurationException
+	 * 		   The given time is not a valid duration.
+	 * 		   | !isValidDuration(time)
+	 */
+	public TrajectoryPrediction predict(Entity entity, double time) throws IllegalEntityException, IllegalDurationException{
+		return this.getTrajectoryPredictor().predict(entity, time);
+	}
+	
+	/**
+	 * Return the predicted states of the given entities, the given time from now.
+	 * This world and its entities are not changed.
+	 * 
+	 * @param entities
+	 * 		  The entities to predict.
+	 * @param time
+	 * 		  The time from now at which the states are predicted.
+	 * @return A map containing the prediction for each of the given entities.
+	 * 		   | for each entity in entities:
+	 * 		   |	result.get(entity).equals(predict(entity, time))
+	 * @throws IllegalEntityException
+	 * 		   One of the given entities does not belong to this world.
+	 * @throws IllegalDurationException
+	 * 		   The given time is not a valid duration.
+	 * 		   | !isValidDuration(time)
+	 */
+	public Map<Entity, TrajectoryPrediction> predict(Collection<? extends Entity> entities, double time) 
+			throws IllegalEntityException, IllegalDurationException{
+		TrajectoryPredictor predictor = this.getTrajectoryPredictor();
+		Map<Entity, TrajectoryPrediction> result = new HashMap<>();
+		for (Entity entity : entities)
+			result.put(entity, predictor.predict(entity, time));
+		return result;
+	}
+	
+// ------------------- TIME AND SNAPSHOTS ----------------------
+
+	/**
+	 * Return the simulated time of this world.
+	 * The simulated time is the total duration over which this world has been evolved.
+	 */
+	@Basic
+	public double getTime(){
+		return this.time;
+	}
+	
+	/**
+	 * Return the last snapshot published by this world.
+	 * If this world has not published a snapshot yet, a first snapshot is published.
+	 * 
+	 * The returned snapshot is immutable, and can be read on any thread while this world
+	 * is evolved on another one. Snapshots are only published at the end of each evolve,
+	 * so a snapshot never shows this world in the middle of handling collisions.
+	 * 
+	 * @return The last published snapshot.
+	 * 		   | @see implementation
+	 */
+	public WorldSnapshot getSnapshot(){
+		WorldSnapshot snapshot = this.snapshot.get();
+		if (snapshot == null){
+			synchronized (this){
+				snapshot = this.snapshot.get();
+				if (snapshot == null)
+					snapshot = this.publishSnapshot();
+			}
+		}
+		return snapshot;
+	}
+	
+	/**
+	 * Publish a snapshot of the current state of this world.
+	 * 
+	 * @return The published snapshot.
+	 * 		   | result.getVersion() == this.getVersion()
+	 * @post   | new.getSnapshot() == result
+	 */
+	public WorldSnapshot publishSnapshot(){
+		WorldSnapshot snapshot = new WorldSnapshot(this);
+		this.snapshot.set(snapshot);
+		return snapshot;
+	}
+	
+	/**
+	 * Return all entities of this world that intersect the given rectangle.
+	 * 
+	 * @param minX
+	 * 		  The smallest x-coordinate of the rectangle.
+	 * @param minY
+	 * 		  The smallest y-coordinate of the rectangle.
+	 * @param maxX
+	 * 		  The largest x-coordinate of the rectangle.
+	 * @param maxY
+	 * 		  The largest y-coordinate of the rectangle.
+	 * @return The entities of this world whose circle intersects the rectangle,
+	 * 		   found through the spatial indices of this world.
+	 * 		   | @see implementation
+	 */
+	public Set<Entity> getEntitiesWithin(double minX, double minY, double maxX, double maxY){
+		Set<Entity> result = new HashSet<>();
+		for (SpatialIndex index : this.getSpatialIndices().values())
+			result.addAll(index.getEntitiesWithin(minX, minY, maxX, maxY));
+		return result;
+	}
+	
+	/**
+	 * Return the entity of the given type in this world that is nearest to the given entity.
+	 * 
+	 * @param entity
+	 * 		  The entity to search from.
+	 * @param type
+	 * 		  The type of the entity to search for.
+	 * @return The entity of the given type, other than the given entity, with the smallest
+	 * 		   distance to the given entity, or null if there is no such entity.
+	 * 		   | result == (getNearestEntities(entity, type, 1).isEmpty() ? null 
+	 * 		   |	: getNearestEntities(entity, type, 1).get(0))
+	 * @throws IllegalEntityException
+	 * 		   The given entity does not belong to this world.
+	 * 		   | !hasEntity(entity)
+	 */
+	public <T extends Entity> T getNearestEntity(Entity entity, Class<T> type) throws IllegalEntityException{
+		List<T> result = this.getNearestEntities(entity, type, 1);
+		return result.isEmpty() ? null : result.get(0);
+	}
+	
+	/**
+	 * Return the entities of the given type in this world that are nearest to the given entity.
+	 * 
+	 * @param entity
+	 * 		  The entity to search from.
+	 * @param type
+	 * 		  The type of the entities to search for.
+	 * @param k
+	 * 		  The maximal number of entities to return.
+	 * @return At most k entities of the given type, other than the given entity, by increasing 
+	 * 		   distance to the given entity, found through the spatial indices of this world.
+	 * 		   Entities at the same distance are ordered by sequence number.
+	 * 		   | @see implementation
+	 * @throws IllegalEntityException
+	 * 		   The given entity does not belong to this world.
+	 * 		   | !hasEntity(entity)
+	 * @throws IllegalArgumentException
+	 * 		   The given number of entities is negative.
+	 * 		   | k < 0
+	 */
+	public <T extends Entity> List<T> getNearestEntities(Entity entity, Class<T> type, int k) 
+			throws IllegalEntityException, IllegalArgumentException{
+		if (k < 0)
+			throw new IllegalArgumentException("Invalid number of entities: " + k);
+		Map<Class<? extends Entity>, SpatialIndex> indices = this.getSpatialIndices();
+		SpatialIndex own = indices.get(entity.getClass());
+		if (own == null || !own.hasEntity(entity))
+			throw new IllegalEntityException(entity);
+		double x = entity.getXPosition(), y = entity.getYPosition();
+		// Each index only holds entities of one class, so the nearest entities of the
+		// given type are among the nearest entities in the indices of its subclasses.
+		List<Entity> candidates = new ArrayList<>();
+		for (Map.Entry<Class<? extends Entity>, SpatialIndex> entry : indices.entrySet()){
+			if (type.isAssignableFrom(entry.getKey()))
+				candidates.addAll(entry.getValue().getNearestEntities(x, y, k, other -> other != entity));
+		}
+		candidates.sort(Comparator.comparingDouble((Entity candidate) -> SpatialIndex.getDistance(x, y, candidate))
+				.thenComparingLong(Entity::getSequenceNumber));
+		List<T> result = new ArrayList<>(Math.min(k, candidates.size()));
+		for (Entity candidate : candidates.subList(0, Math.min(k, candidates.size())))
+			result.add(type.cast(candidate));
+		return result;
+	}
+	
+	/**
+	 * Return the spatial indices of this world, by the class of the entities they hold.
+	 * The indices are built the first time they are needed, and are updated incrementally
+	 * from then on, each time an entity is added, removed, moved or resized.
+	 * 
+	 * @return | for each entity in getAllEntities(): result.get(entity.getClass()).hasEntity(entity)
+	 */
+	Map<Class<? extends Entity>, SpatialIndex> getSpatialIndices(){
+		Map<Class<? extends Entity>, SpatialIndex> result = this.spatialIndices;
+		if (result == null){
+			synchronized (this){
+				result = this.spatialIndices;
+				if (result == null){
+					result = new HashMap<>();
+					Map<Class<? extends Entity>, List<Entity>> entitiesByClass = new HashMap<>();
+					for (Entity entity : this.entities.values())
+						entitiesByClass.computeIfAbsent(entity.getClass(), type -> new ArrayList<>()).add(entity);
+					for (Map.Entry<Class<? extends Entity>, List<Entity>> entry : entitiesByClass.entrySet())
+						result.put(entry.getKey(), new SpatialIndex(this.getWidth(), this.getHeight(), entry.getValue()));
+					this.spatialIndices = result;
+				}
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Return the spatial index of this world holding the entities of the given class.
+	 */
+	private SpatialIndex getSpatialIndex(Class<? extends Entity> type){
+		return this.getSpatialIndices().computeIfAbsent(type, 
+				key -> new SpatialIndex(this.getWidth(), this.getHeight(), Collections.<Entity>emptyList()));
+	}
+	
+	/**
+	 * Register that the position or radius of the given entity of this world has changed.
+	 * 
+	 * @param entity
+	 * 		  The entity that has changed.
+	 * @effect | if (the spatial indices of this world are built)
+	 * 		   |	then getSpatialIndices().get(entity.getClass()).update(entity)
+	 */
+	void updateSpatialIndex(Entity entity){
+		Map<Class<? extends Entity>, SpatialIndex> indices = this.spatialIndices;
+		if (indices != null){
+			SpatialIndex index = indices.get(entity.getClass());
+			if (index != null)
+				index.update(entity);
+		}
+	}
+	
+// ------------------- FORKS ----------------------
+
+	/**
+	 * Return a fork of this world.
+	 * A fork is a new world with the same dimensions, containing the same entities as this world.
+	 * The entities are shared between both worlds until the fork changes them: only then
+	 * the fork copies those entities. Evolving a fork only copies the entities that move
+	 * or collide. Copies have the same sequence numbers as the entities they are copied
+	 * from, and copies of ships do not have a program.
+	 * 
+	 * A fork can only be evolved or changed as long as the world it was forked from does
+	 * not change. Any number of forks can be evolved on separate threads, as long as the
+	 * world they were forked from is not changed at the same time.
+	 * 
+	 * @return A new world with the same dimensions and coalescing epsilon as this world.
+	 * 		   | result.getWidth() == this.getWidth() && result.getHeight() == this.getHeight()
+	 * 		   | result.getCoalescingEpsilon() == this.getCoalescingEpsilon()
+	 * @return The new world shares all entities of this world.
+	 * 		   | for each entity in this.getAllEntities():
+	 * 		   |	result.hasEntity(entity) && result.isSharedEntity(entity)
+	 * @throws IllegalStateException
+	 * 		   This world is a fork of a world that has changed since.
+	 */
+	public synchronized World fork() throws IllegalStateException{
+		this.checkForkedFrom();
+		World result = new World(this.getWidth(), this.getHeight());
+		result.setCoalescingEpsilon(this.getCoalescingEpsilon());
+		result.time = this.getTime();
+		result.entities.putAll(this.entities);
+		result.sharedEntities.addAll(this.entities.values());
+		result.forkedFrom = this;
+		result.forkedVersion = this.getVersion();
+		return result;
+	}
+	
+	/**
+	 * Return whether the given entity is still shared with the world this world was forked from.
+	 * 
+	 * @param entity
+	 * 		  The entity to check.
+	 */
+	public synchronized boolean isSharedEntity(Entity entity){
+		return this.sharedEntities.contains(entity);
+	}
+	
+	/**
+	 * Return the entity of this world with the same sequence number as the given entity.
+	 * If that entity is still shared with the world this world was forked from, it is copied
+	 * first, so that the result can be changed without changing the other world.
+	 * 
+	 * @param entity
+	 * 		  The entity to look up.
+	 * @return An entity of this world, that is not shared, with the same sequence number as the given entity.
+	 * 		   | result.getWorld() == this && result.getSequenceNumber() == entity.getSequenceNumber()
+	 * @throws IllegalEntityException
+	 * 		   This world has no entity with the same sequence number as the given entity.
+	 * @throws IllegalStateException
+	 * 		   This world is a fork of a world that has changed since.
+	 */
+	public synchronized Entity getOwnEntity(Entity entity) throws IllegalEntityException, IllegalStateException{
+		this.checkForkedFrom();
+		Entity result = this.copies.getOrDefault(entity, entity);
+		if (!this.isSharedEntity(result) && result.getWorld() != this){
+			result = null;
+			for (Entity candidate : this.entities.values()){
+				if (candidate.getSequenceNumber() == entity.getSequenceNumber())
+					result = candidate;
+			}
+			if (result == null)
+				throw new IllegalEntityException(entity);
+		}
+		if (!this.isSharedEntity(result))
+			return result;
+		return this.ownEntity(result);
+	}
+	
+	/**
+	 * Copy all entities this world still shares with the world it was forked from.
+	 * 
+	 * @post  | for each entity in new.getAllEntities(): !new.isSharedEntity(entity)
+	 */
+	public synchronized void ownAllEntities(){
+		if (!this.sharedEntities.isEmpty())
+			this.ownEntities(new ArrayList<>(this.sharedEntities));
+	}
+	
+	/**
+	 * Replace the given shared entity of this world by a copy.
+	 * A ship is copied together with the bullets it fired, so that they keep referencing each other.
+	 * 
+	 * @param entity
+	 * 		  The shared entity to copy.
+	 * @return The copy of the given entity.
+	 * 		   | @see implementation
+	 */
+	private synchronized Entity ownEntity(Entity entity){
+		Set<Entity> group = Collections.newSetFromMap(new IdentityHashMap<Entity, Boolean>());
+		group.add(entity);
+		Entity source = entity;
+		if (entity instanceof Bullet && ((Bullet) entity).getSource() != null)
+			source = ((Bullet) entity).getSource();
+		if (this.isSharedEntity(source)){
+			group.add(source);
+			for (Entity other : this.sharedEntities){
+				if (other instanceof Bullet && ((Bullet) other).getSource() == source)
+					group.add(other);
+			}
+		}
+		return this.ownEntities(group).get(entity);
+	}
+	
+	/**
+	 * Replace the given shared entities of this world by copies.
+	 * 
+	 * @param entities
+	 * 		  The shared entities to copy.
+	 * @return A map containing the copy of each of the given entities, with the entity as key.
+	 * 		   References between the given entities are replaced by references between their copies.
+	 * 		   | @see implementation
+	 */
+	private Map<Entity, Entity> ownEntities(Collection<Entity> entities){
+		Map<Entity, Entity> copies = new IdentityHashMap<>();
+		for (Entity entity : entities)
+			copies.put(entity, entity.clone());
+		for (Entity copy : copies.values())
+			copy.replaceReferences(copies);
+		for (Map.Entry<String, Entity> entry : this.entities.entrySet()){
+			Entity copy = copies.get(entry.getValue());
+			if (copy != null)
+				entry.setValue(copy);
+		}
+		for (Map.Entry<Entity, Entity> entry : copies.entrySet()){
+			entry.getValue().setWorld(this);
+			if (this.spatialIndices != null)
+				this.getSpatialIndex(entry.getKey().getClass()).replace(entry.getKey(), entry.getValue());
+		}
+		this.sharedEntities.removeAll(entities);
+		this.copies.putAll(copies);
+		return copies;
+	}
+	
+	/**
+	 * Return the given collision event, with the entities involved replaced by the
+	 * entities of this world that are not shared.
+	 * 
+	 * @param event
+	 * 		  The collision event to look up.
+	 * @return | @see implementation
+	 */
+	private CollisionEvent getOwnEvent(CollisionEvent event){
+		if (this.copies.isEmpty() && this.sharedEntities.isEmpty())
+			return event;
+		Entity first = this.copies.getOrDefault(event.getFirstEntity(), event.getFirstEntity());
+		if (this.isSharedEntity(first))
+			first = this.ownEntity(first);
+		if (event.isBoundaryCollision())
+			return new CollisionEvent(event.getTime(), first);
+		Entity second = this.copies.getOrDefault(event.getSecondEntity(), event.getSecondEntity());
+		if (this.isSharedEntity(second))
+			second = this.ownEntity(second);
+		return new CollisionEvent(event.getTime(), first, second);
+	}
+	
+	/**
+	 * Check whether the worlds this world shares entities with, have not changed since
+	 * this world was forked from them.
+	 * 
+	 * @throws IllegalStateException
+	 * 		   This world still shares entities with a world that has changed since this
+	 * 		   world was forked from it.
+	 */
+	private void checkForkedFrom() throws IllegalStateException{
+		for (World world = this; !world.sharedEntities.isEmpty(); world = world.forkedFrom){
+			if (world.forkedFrom.getVersion() != world.forkedVersion)
+				throw new IllegalStateException("The world this world was forked from has changed");
+		}
+	}
+	
 // ----------------------------------  VARIABLES --------
 	
 	/**
@@ -754,4 +1363,55 @@ public class World {
 	 * Initialized as false.
 	 */
 	private boolean casualCollisionHandled = false;
+	
+	/**
+	 * Variable registering the epsilon within which collisions are coalesced.
+	 */
+	private double coalescingEpsilon = 1E-9;
+	
+	/**
+	 * Variable registering the version of this world.
+	 */
+	private long version = 0;
+	
+	/**
+	 * Variable registering the last trajectory predictor of this world.
+	 */
+	private TrajectoryPredictor trajectoryPredictor = null;
+	
+	/**
+	 * Variable registering the simulated time of this world.
+	 */
+	private double time = 0;
+	
+	/**
+	 * A map containing the spatial index of each class of entities in this world,
+	 * or null if the indices have not been built yet.
+	 */
+	private volatile Map<Class<? extends Entity>, SpatialIndex> spatialIndices = null;
+	
+	/**
+	 * Variable referencing the last snapshot published by this world.
+	 */
+	private final AtomicReference<WorldSnapshot> snapshot = new AtomicReference<>();
+	
+	/**
+	 * A set containing the entities this world still shares with the world it was forked from.
+	 */
+	private final Set<Entity> sharedEntities = Collections.newSetFromMap(new IdentityHashMap<Entity, Boolean>());
+	
+	/**
+	 * A map containing the copy of each entity this world no longer shares, with the shared entity as key.
+	 */
+	private final Map<Entity, Entity> copies = new IdentityHashMap<>();
+	
+	/**
+	 * Variable referencing the world this world was forked from, null if it is not a fork.
+	 */
+	private World forkedFrom = null;
+	
+	/**
+	 * Variable registering the version of the world this world was forked from, at the time it was forked.
+	 */
+	private long forkedVersion = 0;
 }
\ No newline at end of file
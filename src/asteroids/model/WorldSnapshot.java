@@ -0,0 +1,397 @@
+package asteroids.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Immutable;
+import be.kuleuven.cs.som.annotate.Value;
+
+/**
+ * A class of immutable snapshots of the state of a world.
+ * A snapshot holds the type, position, radius and orientation of each entity
+ * in flat arrays, so that it can be read from any thread without locking
+ * while the world itself keeps on evolving.
+ * The entities in a snapshot are ordered by their sequence number.
+ * Each snapshot also indexes its entities in a uniform grid over its world,
+ * so that the entities within a rectangle can be found without scanning them all.
+ *
+ * @invar  All arrays of each snapshot have the same length.
+ * 		   | @see implementation
+ *
+ * @version 3.0
+ * @author James Defauw & Michiel De Koninck
+ */
+@Value
+public final class WorldSnapshot {
+
+	/**
+	 * Initialize this new snapshot with the current state of the given world.
+	 *
+	 * @param world
+	 * 		  The world to take a snapshot of.
+	 * @post  | new.getWidth() == world.getWidth() && new.getHeight() == world.getHeight()
+	 * @post  | new.getTime() == world.getTime()
+	 * @post  | new.getVersion() == world.getVersion()
+	 * @post  | new.getNbEntities() == world.getNumberofEntities()
+	 */
+	public WorldSnapshot(World world){
+		this.width = world.getWidth();
+		this.height = world.getHeight();
+		this.time = world.getTime();
+		this.version = world.getVersion();
+
+		List<Entity> entities = new ArrayList<>(world.getAllEntities());
+		entities.sort(Comparator.comparingLong(Entity::getSequenceNumber));
+		int nbEntities = entities.size();
+		this.entities = entities.toArray(new Entity[nbEntities]);
+		this.types = new int[nbEntities];
+		this.sequenceNumbers = new long[nbEntities];
+		this.x = new double[nbEntities];
+		this.y = new double[nbEntities];
+		this.radius = new double[nbEntities];
+		this.orientation = new double[nbEntities];
+		this.thrusterActive = new boolean[nbEntities];
+
+		for (int i = 0; i < nbEntities; i++){
+			Entity entity = this.entities[i];
+			this.indices.put(entity, i);
+			this.types[i] = getType(entity);
+			this.sequenceNumbers[i] = entity.getSequenceNumber();
+			this.x[i] = entity.getXPosition();
+			this.y[i] = entity.getYPosition();
+			this.radius[i] = entity.getRadius();
+			if (entity instanceof Ship){
+				this.orientation[i] = ((Ship) entity).getOrientation();
+				this.thrusterActive[i] = ((Ship) entity).getThrustState();
+			}
+		}
+		this.buildIndex();
+	}
+
+	/**
+	 * Return the type of the given entity, as registered in snapshots.
+	 *
+	 * @param entity
+	 * 		  The entity to get the type of.
+	 * @return One of SHIP, BULLET, ASTEROID, PLANETOID, or OTHER.
+	 * 		   | @see implementation
+	 */
+	public static int getType(Entity entity){
+		if (entity instanceof Ship)
+			return SHIP;
+		if (entity instanceof Bullet)
+			return BULLET;
+		if (entity instanceof Asteroid)
+			return ASTEROID;
+		if (entity instanceof Planetoid)
+			return PLANETOID;
+		return OTHER;
+	}
+
+// ------------------ WORLD ------------------
+
+	/**
+	 * Return the width of the world of this snapshot.
+	 */
+	@Basic @Immutable
+	public double getWidth(){
+		return this.width;
+	}
+
+	/**
+	 * Return the height of the world of this snapshot.
+	 */
+	@Basic @Immutable
+	public double getHeight(){
+		return this.height;
+	}
+
+	/**
+	 * Return the simulated time of the world at the moment this snapshot was taken.
+	 */
+	@Basic @Immutable
+	public double getTime(){
+		return this.time;
+	}
+
+	/**
+	 * Return the version of the world at the moment this snapshot was taken.
+	 */
+	@Basic @Immutable
+	public long getVersion(){
+		return this.version;
+	}
+
+	/**
+	 * Return the number of entities in this snapshot.
+	 */
+	@Basic @Immutable
+	public int getNbEntities(){
+		return this.entities.length;
+	}
+
+// ------------------ ENTITIES ------------------
+
+	/**
+	 * Return the index of the given entity in this snapshot.
+	 *
+	 * @param entity
+	 * 		  The entity to look up.
+	 * @return The index of the given entity, or -1 if it is not in this snapshot.
+	 */
+	public int indexOf(Entity entity){
+		Integer result = this.indices.get(entity);
+		return (result == null) ? -1 : result;
+	}
+
+	/**
+	 * Return the entity at the given index.
+	 * The entity itself is live: its current state may differ from the state in this snapshot.
+	 */
+	@Basic @Immutable
+	public Entity getEntity(int index){
+		return this.entities[index];
+	}
+
+	/**
+	 * Return the type of the entity at the given index.
+	 */
+	@Basic @Immutable
+	public int getType(int index){
+		return this.types[index];
+	}
+
+	/**
+	 * Return the sequence number of the entity at the given index.
+	 */
+	@Basic @Immutable
+	public long getSequenceNumber(int index){
+		return this.sequenceNumbers[index];
+	}
+
+	/**
+	 * Return the x-coordinate of the entity at the given index.
+	 */
+	@Basic @Immutable
+	public double getX(int index){
+		return this.x[index];
+	}
+
+	/**
+	 * Return the y-coordinate of the entity at the given index.
+	 */
+	@Basic @Immutable
+	public double getY(int index){
+		return this.y[index];
+	}
+
+	/**
+	 * Return the radius of the entity at the given index.
+	 */
+	@Basic @Immutable
+	public double getRadius(int index){
+		return this.radius[index];
+	}
+
+	/**
+	 * Return the orientation of the entity at the given index.
+	 * Entities other than ships have orientation zero.
+	 */
+	@Basic @Immutable
+	public double getOrientation(int index){
+		return this.orientation[index];
+	}
+
+	/**
+	 * Return whether the entity at the given index is a ship with an active thruster.
+	 */
+	@Basic @Immutable
+	public boolean isThrusterActive(int index){
+		return this.thrusterActive[index];
+	}
+
+// ------------------ SPATIAL INDEX ------------------
+
+	/**
+	 * Return the indices of all entities in this snapshot that intersect the given rectangle.
+	 *
+	 * @param minX
+	 * 		  The smallest x-coordinate of the rectangle.
+	 * @param minY
+	 * 		  The smallest y-coordinate of the rectangle.
+	 * @param maxX
+	 * 		  The largest x-coordinate of the rectangle.
+	 * @param maxY
+	 * 		  The largest y-coordinate of the rectangle.
+	 * @return The indices, in ascending order, of the entities whose circle intersects the rectangle.
+	 * 		   | @see implementation
+	 */
+	public int[] getIndicesWithin(double minX, double minY, double maxX, double maxY){
+		if (!(minX <= maxX) || !(minY <= maxY) || this.getNbEntities() == 0)
+			return new int[0];
+		// Entities are registered in the cell of their centre, so the query
+		// is widened by the largest radius before cells are visited.
+		int firstColumn = this.getColumn(minX - this.maxRadius), lastColumn = this.getColumn(maxX + this.maxRadius);
+		int firstRow = this.getRow(minY - this.maxRadius), lastRow = this.getRow(maxY + this.maxRadius);
+		int[] result = new int[this.getNbEntities()];
+		int count = 0;
+		for (int row = firstRow; row <= lastRow; row++){
+			for (int column = firstColumn; column <= lastColumn; column++){
+				int cell = row * this.columns + column;
+				for (int k = this.cellStarts[cell]; k < this.cellStarts[cell + 1]; k++){
+					int i = this.cellEntries[k];
+					if (intersects(this.x[i], this.y[i], this.radius[i], minX, minY, maxX, maxY))
+						result[count++] = i;
+				}
+			}
+		}
+		result = Arrays.copyOf(result, count);
+		Arrays.sort(result);
+		return result;
+	}
+
+	/**
+	 * Check whether the given circle intersects the given rectangle.
+	 *
+	 * @return | @see implementation
+	 */
+	private static boolean intersects(double x, double y, double radius, double minX, double minY, double maxX, double maxY){
+		double dx = x - Math.max(minX, Math.min(x, maxX));
+		double dy = y - Math.max(minY, Math.min(y, maxY));
+		return dx * dx + dy * dy <= radius * radius;
+	}
+
+	/**
+	 * Return the column of the grid containing the given x-coordinate.
+	 * Coordinates outside the world are clamped to the first or last column.
+	 */
+	private int getColumn(double x){
+		double column = Math.floor(x / this.cellWidth);
+		return (int) Math.max(0, Math.min(this.columns - 1, column));
+	}
+
+	/**
+	 * Return the row of the grid containing the given y-coordinate.
+	 * Coordinates outside the world are clamped to the first or last row.
+	 */
+	private int getRow(double y){
+		double row = Math.floor(y / this.cellHeight);
+		return (int) Math.max(0, Math.min(this.rows - 1, row));
+	}
+
+	/**
+	 * Register all entities of this snapshot in the grid, by the cell of their centre.
+	 * The grid has about one cell per entity, and at most MAX_GRID_SIZE cells along each axis.
+	 * Entities of one cell are stored contiguously, in ascending order of their index.
+	 */
+	private void buildIndex(){
+		int nbEntities = this.getNbEntities();
+		int size = (int) Math.max(1, Math.min(MAX_GRID_SIZE, Math.ceil(Math.sqrt(nbEntities))));
+		this.columns = size;
+		this.rows = size;
+		this.cellWidth = (this.width > 0) ? this.width / size : 1;
+		this.cellHeight = (this.height > 0) ? this.height / size : 1;
+		this.cellStarts = new int[this.columns * this.rows + 1];
+		this.cellEntries = new int[nbEntities];
+
+		int[] cells = new int[nbEntities];
+		for (int i = 0; i < nbEntities; i++){
+			cells[i] = this.getRow(this.y[i]) * this.columns + this.getColumn(this.x[i]);
+			this.cellStarts[cells[i] + 1]++;
+			this.maxRadius = Math.max(this.maxRadius, this.radius[i]);
+		}
+		for (int cell = 0; cell < this.columns * this.rows; cell++)
+			this.cellStarts[cell + 1] += this.cellStarts[cell];
+		int[] next = Arrays.copyOf(this.cellStarts, this.cellStarts.length - 1);
+		for (int i = 0; i < nbEntities; i++)
+			this.cellEntries[next[cells[i]]++] = i;
+	}
+
+// ------------------ VARIABLES ------------------
+
+	/**
+	 * Constants registering the types of entities in snapshots.
+	 */
+	public static final int SHIP = 0, BULLET = 1, ASTEROID = 2, PLANETOID = 3, OTHER = 4;
+
+	/**
+	 * Variables registering the dimensions of the world.
+	 */
+	private final double width, height;
+
+	/**
+	 * Variable registering the simulated time of the world.
+	 */
+	private final double time;
+
+	/**
+	 * Variable registering the version of the world.
+	 */
+	private final long version;
+
+	/**
+	 * Array registering the entities in this snapshot.
+	 */
+	private final Entity[] entities;
+
+	/**
+	 * A map containing the index of each entity in this snapshot.
+	 */
+	private final Map<Entity, Integer> indices = new IdentityHashMap<>();
+
+	/**
+	 * Array registering the types of the entities.
+	 */
+	private final int[] types;
+
+	/**
+	 * Array registering the sequence numbers of the entities.
+	 */
+	private final long[] sequenceNumbers;
+
+	/**
+	 * Arrays registering the positions, radii and orientations of the entities.
+	 */
+	private final double[] x, y, radius, orientation;
+
+	/**
+	 * Array registering whether the thrusters of the entities are active.
+	 */
+	private final boolean[] thrusterActive;
+
+	/**
+	 * Constant registering the maximal number of grid cells along each axis.
+	 */
+	private static final int MAX_GRID_SIZE = 256;
+
+	/**
+	 * Variables registering the number of columns and rows of the grid.
+	 */
+	private int columns, rows;
+
+	/**
+	 * Variables registering the dimensions of each cell of the grid.
+	 */
+	private double cellWidth, cellHeight;
+
+	/**
+	 * Variable registering the largest radius of all entities in this snapshot.
+	 */
+	private double maxRadius = 0;
+
+	/**
+	 * Array registering, for each cell, where its entities start in cellEntries.
+	 * The entities of the last cell end at the end of cellEntries.
+	 */
+	private int[] cellStarts;
+
+	/**
+	 * Array registering the indices of the entities, grouped by cell.
+	 */
+	private int[] cellEntries;
+}
@@ -1,49 +1,27 @@
 package asteroids.programs;
 
-import java.awt.geom.IllegalPathStateException;
-import java.util.List;
-import java.util.Scanner;
-
-import org.antlr.v4.parse.ANTLRParser.sync_return;
-
-import com.sun.xml.internal.bind.v2.model.core.MaybeElement;
-
 import asteroids.model.Program;
-import asteroids.model.exceptions.IllegalPositionException;
-import asteroids.model.exceptions.IllegalRadiusException;
-import asteroids.model.exceptions.IllegalShipException;
-import asteroids.part3.programs.SourceLocation;
 
 public abstract class ActionStatement extends Statement {	
 	
 	@Override
-	public void run(){
-		System.out.println("ACTIONSTATEMENT > RUNNING TRY " + this);
+	protected void compile(CodeBuilder code){
+		if (!code.getScope().isGlobal())
+			throw new IllegalArgumentException("Action in a function body");
+		CompiledAction action = this.compileAction(code.getScope());
 		
-		if(enoughTimeLeft()){
-			this.getProgram().subtractTimeLeft(getActionTime());
-			try {
-				this.executeAction(getProgram());
-			} catch (IllegalPositionException e) {
-				// TODO Auto-generated catch block
-				e.printStackTrace();
-			} catch (IllegalRadiusException e) {
-				// TODO Auto-generated catch block
-				e.printStackTrace();
-			} catch (IllegalShipException e) {
-				// TODO Auto-generated catch block
-				e.printStackTrace();
-			}
-		}
-		else {
-			System.out.println("AS > NOT ENOUGH TIME LEFT, SETTING THIS AS failedA " + this);
-			this.getProgram().updateBookmark(this);
-			throw new IllegalPathStateException();
-		}
+		code.emitAction((program, pc) -> {
+			if(!enoughTimeLeft(program))
+				return Instruction.SUSPEND;
+			if (!program.perform(action.evaluate(program)))
+				return Instruction.SUSPEND;
+			program.subtractTimeLeft(getActionTime());
+			return pc + 1;
+		});
 	}
 	
-	public boolean enoughTimeLeft(){
-		double timeLeft = this.getProgram().getTimeLeft();
+	public boolean enoughTimeLeft(Program program){
+		double timeLeft = program.getTimeLeft();
 		return !(timeLeft < getActionTime());
 	}
 	
@@ -52,7 +30,11 @@ public abstract class ActionStatement extends Statement {
 		return actionTime;
 	}
 	
-	public abstract void executeAction(Program program) throws IllegalPositionException, IllegalRadiusException, IllegalShipException;
+	/**
+	 * Compile the evaluation of the effect of this action on the ship of a program,
+	 * once the program has enough time left to perform it.
+	 */
+	protected abstract CompiledAction compileAction(Scope scope);
 
 	public final static double actionTime = 0.2;
 
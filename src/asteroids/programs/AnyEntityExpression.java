@@ -8,11 +8,12 @@ import asteroids.model.Entity;
 public class AnyEntityExpression extends EntityExpression {
 
 	@Override
-	protected Object getResult() {
-		
-		Set<Entity> entities = this.getWorld().getAllEntities();
+	protected CompiledExpression compile(Scope scope) {
+		return compileCached(scope, program -> {
+			Set<Entity> entities = getWorld(program).getAllEntities();
 
-		return entities.stream().findAny().orElse(null);
+			return entities.stream().findAny().orElse(null);
+		});
 	}
 
 }
@@ -1,14 +1,12 @@
 package asteroids.programs;
 
-import java.util.List;
+import java.util.Set;
 
 public class AssignmentStatement extends Statement {
 
 	public AssignmentStatement(String name, Expression expression) {
 		setName(name);
 		setExpression(expression);
-		
-		System.out.println("ASSIGNMENTSTATEMENT, name: " + name + " exp: " + expression);
 	}
 	
 	//NAME
@@ -36,27 +34,32 @@ public class AssignmentStatement extends Statement {
 	}
 	
 	
-	//RUN
-	public boolean isValidVariable(String name, Expression expression){
-		expression.setProgram(getProgram());
-		return 
-				((!this.getProgram().getFunctions().containsKey(name)) &&
-				(expression.getResult() instanceof Double));
-		//TODO
+	//COMPILE
+	@Override
+	protected void compile(CodeBuilder code) {
+		Scope scope = code.getScope();
+		switch (this.getExpression().getType()) {
+		case DOUBLE:
+			code.emit(scope.compileWrite(this.getName(), DoubleExpression.compileDouble(this.getExpression(), scope)));
+			break;
+		case BOOLEAN:
+			// Booleans are stored in the slots of doubles, as 1 or 0.
+			CompiledBoolean value = BooleanExpression.compileBoolean(this.getExpression(), scope);
+			code.emit(scope.compileWrite(this.getName(), program -> value.evaluate(program) ? 1 : 0));
+			break;
+		default:
+			code.emit(scope.compileWriteObject(this.getName(), this.getExpression().compile(scope)));
+		}
 	}
 	
 	@Override
-	public void run() {
-		if (isValidVariable(this.getName(), this.getExpression())){
-			this.getProgram().addVariable(this.getName(), 
-					this.getExpression().getResult());
-		}
-		else{
-			System.out.println("throwing illegal argument for "
-					+ "ASSIGNMENTSTATEMENT, name: " + name + " exp: " + expression);
-			throw new IllegalArgumentException();
-		}
-		
+	protected void check(TypeChecker checker) {
+		checker.assign(this.getName(), checker.check(this.getExpression()), this.getSourceLocation());
+	}
+	
+	@Override
+	protected void collectVariables(Set<String> names) {
+		names.add(this.getName());
 	}
 
 }
@@ -1,18 +1,12 @@
 package asteroids.programs;
 
-import java.util.List;
-import java.util.Set;
-
 import asteroids.model.Asteroid;
-import asteroids.model.Ship;
 
 public class AsteroidEntityExpression extends EntityExpression {
 
 	@Override
-	protected Object getResult() {
-		Set<Asteroid> asteroids = getWorld().getSpecificEntities(Asteroid.class);
-		
-		return (Asteroid) this.getClosest(asteroids);
+	protected CompiledExpression compile(Scope scope) {
+		return compileCached(scope, program -> getWorld(program).getNearestEntity(program.getShip(), Asteroid.class));
 	}
 
 }
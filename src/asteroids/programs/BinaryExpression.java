@@ -1,9 +1,9 @@
 package asteroids.programs;
 
-public abstract class BinaryExpression<B> extends Expression{
+public abstract class BinaryExpression extends Expression{
 
 
-	protected BinaryExpression(B leftExpression, B rightExpression)
+	protected BinaryExpression(Expression leftExpression, Expression rightExpression)
 			throws IllegalArgumentException {
 		setOperandLeft(leftExpression);
 		setOperandRight(rightExpression);
@@ -11,14 +11,14 @@ public abstract class BinaryExpression<B> extends Expression{
 	
 	
 	//LEFT AND RIGHT OPERANDS
-	private B leftOperand;
-	private B rightOperand;
+	private Expression leftOperand;
+	private Expression rightOperand;
 	
-	public void setOperandLeft(B operand){
+	public void setOperandLeft(Expression operand){
 		this.leftOperand = operand;
 	}
 	
-	public void setOperandRight(B operand){
+	public void setOperandRight(Expression operand){
 		this.rightOperand= operand;
 	}
 	
@@ -26,22 +26,20 @@ public abstract class BinaryExpression<B> extends Expression{
 		return true;
 	}
 	
-	public B getLeftOperand(){
+	public Expression getLeftOperand(){
 		return leftOperand;
 	}
 	
-	public B getRightOperand(){
+	public Expression getRightOperand(){
 		return rightOperand;
 	}
 	
-	protected Object getLeftOperandResult() {
-		((Expression) this.getLeftOperand()).setProgram(getProgram());
-		return ((Expression) this.getLeftOperand()).getResult();
+	protected CompiledExpression compileLeftOperand(Scope scope) {
+		return this.getLeftOperand().compile(scope);
 	}
 
-	protected Object getRightOperandResult() {
-		((Expression) this.getRightOperand()).setProgram(getProgram());
-		return ((Expression) this.getRightOperand()).getResult();
+	protected CompiledExpression compileRightOperand(Scope scope) {
+		return this.getRightOperand().compile(scope);
 	}
 	
 	
@@ -2,4 +2,18 @@ package asteroids.programs;
 
 public interface BooleanExpression {
 
+	/**
+	 * Compile this expression into a closure that evaluates it to an unboxed
+	 * boolean, with its variables resolved in the given scope.
+	 */
+	CompiledBoolean compileBoolean(Scope scope);
+	
+	/**
+	 * Compile the given expression, which is checked to be of type boolean, into
+	 * a closure that evaluates it to an unboxed boolean.
+	 */
+	static CompiledBoolean compileBoolean(Expression expression, Scope scope) {
+		return ((BooleanExpression) expression).compileBoolean(scope);
+	}
+	
 }
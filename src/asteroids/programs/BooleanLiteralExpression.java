@@ -0,0 +1,42 @@
+package asteroids.programs;
+
+/**
+ * A boolean constant. Programs cannot contain boolean literals themselves;
+ * they result from folding constant conditions.
+ */
+class BooleanLiteralExpression extends Expression implements BooleanExpression {
+
+	protected BooleanLiteralExpression(boolean value) {
+		setValue(value);
+		setType(Type.BOOLEAN);
+	}
+	
+	//VALUE
+	private boolean value;
+
+	private void setValue(boolean value) {
+		this.value = value;
+	}
+	
+	boolean getValue(){
+		return this.value;
+	}
+
+	@Override
+	public CompiledBoolean compileBoolean(Scope scope) {
+		boolean value = this.getValue();
+		return program -> value;
+	}
+
+	@Override
+	protected Type inferType(TypeChecker checker) {
+		return Type.BOOLEAN;
+	}
+
+	@Override
+	protected CompiledExpression compile(Scope scope) {
+		Boolean value = this.getValue();
+		return program -> value;
+	}
+
+}
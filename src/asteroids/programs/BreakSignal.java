@@ -0,0 +1,18 @@
+package asteroids.programs;
+
+/**
+ * Signals a break in a function body outside any loop of that body, which
+ * breaks the innermost loop around the call instead. The signal has no stack
+ * trace, so that it is as cheap to throw as a jump.
+ */
+public final class BreakSignal extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+	
+	public static final BreakSignal INSTANCE = new BreakSignal();
+	
+	private BreakSignal() {
+		super("Break outside a loop", null, false, false);
+	}
+	
+}
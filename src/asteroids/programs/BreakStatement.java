@@ -5,9 +5,8 @@ import java.util.List;
 public class BreakStatement extends Statement {
 
 	@Override
-	public void run() {
-		throw new IllegalAccessError();
-		
+	protected void compile(CodeBuilder code) {
+		code.emitBreak();
 	}
 
 }
@@ -4,22 +4,24 @@ import java.util.List;
 import java.util.Set;
 
 import asteroids.model.Bullet;
+import asteroids.model.Ship;
 
 public class BulletEntityExpression extends EntityExpression {
 
 	@Override
-	protected Object getResult() {
-
-		Set<? extends Bullet> bullets = getWorld().getSpecificEntities(Bullet.class);
-
-		bullets.removeIf(bullet -> !isFiredFromShip((Bullet) bullet));
-		
-		return bullets.stream().findAny().orElse(null);
+	protected CompiledExpression compile(Scope scope) {
+		return compileCached(scope, program -> {
+			Set<? extends Bullet> bullets = getWorld(program).getSpecificEntities(Bullet.class);
+
+			bullets.removeIf(bullet -> !isFiredFromShip(program.getShip(), (Bullet) bullet));
+			
+			return bullets.stream().findAny().orElse(null);
+		});
 	}
 
 
-	private boolean isFiredFromShip(Bullet bullet) {
-		return (this.getShip().equals(bullet.getSource()));
+	private static boolean isFiredFromShip(Ship ship, Bullet bullet) {
+		return (ship.equals(bullet.getSource()));
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,223 @@
+package asteroids.programs;
+
+import java.util.Arrays;
+
+/**
+ * The frames of the function calls of a program, in one array of slots that is
+ * reused by all calls.
+ * 
+ * The arguments of a call are pushed on top of the stack, last argument first,
+ * after which the call enters a new frame on top of them. Within the frame, the
+ * local variables are at slots from the base of the frame upwards, and each
+ * parameter $n is at the n-th slot below the base. Doubles and booleans are
+ * stored unboxed, entities in a parallel array of objects. The value a call
+ * returns is kept in a register of the stack of its type. A call therefore
+ * allocates nothing, unless the stack has to grow.
+ */
+public class CallStack {
+
+	/**
+	 * The maximal number of nested calls.
+	 */
+	public static final int MAX_DEPTH = 1000;
+	
+	private double[] values = new double[64];
+	private Object[] objects = new Object[64];
+	private boolean[] assigned = new boolean[64];
+	
+	/**
+	 * The first slot of the frame on top, and the first slot above it.
+	 */
+	private int base = 0, top = 0;
+	
+	/**
+	 * The number of arguments of the frame on top.
+	 */
+	private int nbArguments = 0;
+	
+	private int depth = 0;
+	private int[] bases = new int[16];
+	private int[] nbArgumentsOfFrames = new int[16];
+	
+	public int getDepth() {
+		return this.depth;
+	}
+	
+	
+	//CALLS
+	
+	/**
+	 * Push the argument of a call that is about to enter a new frame. Booleans are
+	 * pushed as 1 or 0.
+	 */
+	public void pushArgument(double value) {
+		ensureCapacity(top + 1);
+		values[top] = value;
+		assigned[top] = true;
+		top++;
+	}
+	
+	public void pushArgumentObject(Object value) {
+		ensureCapacity(top + 1);
+		objects[top] = value;
+		assigned[top] = true;
+		top++;
+	}
+	
+	/**
+	 * Pop the given number of pushed arguments of a call that does not enter a
+	 * frame, because evaluating its other arguments failed.
+	 */
+	public void popArguments(int nbArguments) {
+		top -= nbArguments;
+	}
+	
+	/**
+	 * Enter a new frame on top of the given number of pushed arguments, with the
+	 * given number of local variables, which have no value yet.
+	 * 
+	 * @throws IllegalArgumentException
+	 *         The maximal number of nested calls is exceeded.
+	 */
+	public void enter(int nbArguments, int nbLocals) throws IllegalArgumentException {
+		if (depth == MAX_DEPTH)
+			throw new IllegalArgumentException("Maximal call depth exceeded");
+		if (depth == bases.length) {
+			bases = Arrays.copyOf(bases, 2 * depth);
+			nbArgumentsOfFrames = Arrays.copyOf(nbArgumentsOfFrames, 2 * depth);
+		}
+		bases[depth] = base;
+		nbArgumentsOfFrames[depth] = this.nbArguments;
+		depth++;
+		base = top;
+		this.nbArguments = nbArguments;
+		ensureCapacity(top + nbLocals);
+		Arrays.fill(assigned, top, top + nbLocals, false);
+		top += nbLocals;
+	}
+	
+	/**
+	 * Leave the frame on top, and pop its arguments.
+	 */
+	public void exit() {
+		top = base - nbArguments;
+		depth--;
+		base = bases[depth];
+		nbArguments = nbArgumentsOfFrames[depth];
+	}
+	
+	/**
+	 * Leave all frames, as if no call was being executed.
+	 */
+	public void clear() {
+		base = top = nbArguments = depth = 0;
+	}
+	
+	private void ensureCapacity(int size) {
+		if (size > values.length) {
+			int length = Math.max(size, 2 * values.length);
+			values = Arrays.copyOf(values, length);
+			objects = Arrays.copyOf(objects, length);
+			assigned = Arrays.copyOf(assigned, length);
+		}
+	}
+	
+	
+	//SLOTS
+	
+	/**
+	 * Return the value of the local variable in the given slot of the frame on top.
+	 * 
+	 * @throws IllegalArgumentException
+	 *         The variable has no value yet.
+	 */
+	public double get(int slot) throws IllegalArgumentException {
+		if (!assigned[base + slot])
+			throw new IllegalArgumentException("Variable read before it is assigned");
+		return values[base + slot];
+	}
+	
+	public void set(int slot, double value) {
+		values[base + slot] = value;
+		assigned[base + slot] = true;
+	}
+	
+	/**
+	 * Return the entity in the given slot of the frame on top.
+	 * 
+	 * @throws IllegalArgumentException
+	 *         The variable has no value yet.
+	 */
+	public Object getObject(int slot) throws IllegalArgumentException {
+		if (!assigned[base + slot])
+			throw new IllegalArgumentException("Variable read before it is assigned");
+		return objects[base + slot];
+	}
+	
+	public void setObject(int slot, Object value) {
+		objects[base + slot] = value;
+		assigned[base + slot] = true;
+	}
+	
+	public boolean isAssigned(int slot) {
+		return assigned[base + slot];
+	}
+	
+	public void clear(int slot) {
+		assigned[base + slot] = false;
+	}
+	
+	/**
+	 * Return the value of the parameter with the given number in the frame on top.
+	 * 
+	 * @throws IllegalArgumentException
+	 *         The call of the frame on top has less arguments than the given number.
+	 */
+	public double getParameter(int number) throws IllegalArgumentException {
+		if (number < 1 || number > nbArguments)
+			throw new IllegalArgumentException("No argument for parameter $" + number);
+		return values[base - number];
+	}
+	
+	/**
+	 * Return the entity of the parameter with the given number in the frame on top.
+	 * 
+	 * @throws IllegalArgumentException
+	 *         The call of the frame on top has less arguments than the given number.
+	 */
+	public Object getParameterObject(int number) throws IllegalArgumentException {
+		if (number < 1 || number > nbArguments)
+			throw new IllegalArgumentException("No argument for parameter $" + number);
+		return objects[base - number];
+	}
+	
+	
+	//RETURN VALUE
+	
+	/**
+	 * The double or boolean, as 1 or 0, returned by the last call.
+	 */
+	private double returnValue;
+	
+	/**
+	 * The entity returned by the last call.
+	 */
+	private Object returnObject;
+	
+	public double getReturnValue() {
+		return returnValue;
+	}
+	
+	public void setReturnValue(double value) {
+		this.returnValue = value;
+	}
+	
+	public Object getReturnObject() {
+		return returnObject;
+	}
+	
+	public void setReturnObject(Object value) {
+		this.returnObject = value;
+	}
+	
+}
@@ -0,0 +1,68 @@
+package asteroids.programs;
+
+import asteroids.part3.programs.SourceLocation;
+
+/**
+ * Flat code compiled from a statement: its instructions, together with a table
+ * of the source location of the statement each instruction was compiled from,
+ * and of which instructions perform an action. The tables are only consulted
+ * while a program is traced. A last table holds the end of the innermost loop
+ * around each instruction, to which a break in a function called by that
+ * instruction jumps.
+ */
+public class Code {
+
+	Code(Instruction[] instructions, SourceLocation[] locations, boolean[] actions, int[] breakTargets) {
+		this.instructions = instructions;
+		this.locations = locations;
+		this.actions = actions;
+		this.breakTargets = breakTargets;
+	}
+	
+	
+	//INSTRUCTIONS
+	private final Instruction[] instructions;
+	
+	public Instruction[] getInstructions() {
+		return this.instructions;
+	}
+	
+	public int getLength() {
+		return this.instructions.length;
+	}
+	
+	
+	//DEBUG INFORMATION
+	private final SourceLocation[] locations;
+	
+	private final boolean[] actions;
+	
+	/**
+	 * Return the location of the statement from which the instruction at the
+	 * given program counter was compiled, or null if it is not known.
+	 */
+	public SourceLocation getLocation(int pc) {
+		return this.locations[pc];
+	}
+	
+	/**
+	 * Check whether the instruction at the given program counter performs an
+	 * action of a ship.
+	 */
+	public boolean isAction(int pc) {
+		return this.actions[pc];
+	}
+	
+	
+	//BREAKS
+	private final int[] breakTargets;
+	
+	/**
+	 * Return the program counter of the end of the innermost loop around the
+	 * instruction at the given program counter, or -1 if it is not in a loop.
+	 */
+	public int getBreakTarget(int pc) {
+		return this.breakTargets[pc];
+	}
+	
+}
@@ -0,0 +1,202 @@
+package asteroids.programs;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import asteroids.model.Program;
+import asteroids.part3.programs.SourceLocation;
+
+/**
+ * Compiles statements into flat code: an array of instructions, in which
+ * control flow is expressed by jumps between program counters. Suspending such
+ * code only means remembering a program counter, and resuming it continues at
+ * that counter without re-executing anything before it.
+ */
+public class CodeBuilder {
+
+	/**
+	 * Compile the given statement into flat code, with its variables resolved in
+	 * the given scope.
+	 */
+	public static Code compile(Statement statement, Scope scope) {
+		CodeBuilder code = new CodeBuilder(scope);
+		code.compile(statement);
+		return code.build();
+	}
+	
+	private CodeBuilder(Scope scope) {
+		this.scope = scope;
+	}
+	
+	private final Scope scope;
+	
+	public Scope getScope() {
+		return this.scope;
+	}
+	
+	private final List<Instruction> instructions = new ArrayList<>();
+	
+	private final List<SourceLocation> locations = new ArrayList<>();
+	
+	private final List<Integer> actions = new ArrayList<>();
+	
+	/**
+	 * The innermost loop around each instruction, or null outside loops.
+	 */
+	private final List<Loop> enclosingLoops = new ArrayList<>();
+	
+	/**
+	 * The location of the innermost statement that is being compiled.
+	 */
+	private SourceLocation location;
+	
+	/**
+	 * The enclosing loops, innermost first.
+	 */
+	private final Deque<Loop> loops = new ArrayDeque<>();
+	
+	
+	//COMPILE
+	
+	/**
+	 * Compile the given statement at the end of this code. The instructions it
+	 * emits are attributed to its source location, if it has one.
+	 */
+	public void compile(Statement statement) {
+		SourceLocation outer = this.location;
+		if (statement.getSourceLocation() != null)
+			this.location = statement.getSourceLocation();
+		statement.compile(this);
+		this.location = outer;
+	}
+	
+	
+	//EMIT
+	
+	/**
+	 * Return the program counter of the next instruction that is emitted.
+	 */
+	public int getPc() {
+		return instructions.size();
+	}
+	
+	public void emit(Instruction instruction) {
+		instructions.add(instruction);
+		locations.add(location);
+		enclosingLoops.add(loops.peek());
+	}
+	
+	/**
+	 * Emit an instruction that performs an action of a ship.
+	 */
+	public void emitAction(Instruction instruction) {
+		actions.add(getPc());
+		emit(instruction);
+	}
+	
+	/**
+	 * Emit an instruction that executes the given statement and continues with
+	 * the next instruction.
+	 */
+	public void emit(CompiledStatement statement) {
+		emit((program, pc) -> {
+			statement.execute(program);
+			return pc + 1;
+		});
+	}
+	
+	/**
+	 * Emit a jump, of which the target is set later.
+	 */
+	public Jump emitJump() {
+		Jump jump = new Jump(null);
+		emit(jump);
+		return jump;
+	}
+	
+	/**
+	 * Emit a jump that is taken if the given condition evaluates to false, of
+	 * which the target is set later.
+	 */
+	public Jump emitJumpIfFalse(CompiledBoolean condition) {
+		Jump jump = new Jump(condition);
+		emit(jump);
+		return jump;
+	}
+	
+	
+	//LOOPS
+	
+	public void beginLoop() {
+		loops.push(new Loop());
+	}
+	
+	/**
+	 * Emit a jump to the end of the innermost enclosing loop. Outside loops, the
+	 * break signals the caller of the function body to break its innermost loop
+	 * around the call, and is an error in the main statement.
+	 */
+	public void emitBreak() {
+		if (loops.isEmpty())
+			emit(program -> {
+				throw BreakSignal.INSTANCE;
+			});
+		else
+			loops.peek().breaks.add(emitJump());
+	}
+	
+	/**
+	 * End the innermost loop, of which the breaks jump to the given program counter.
+	 */
+	public void endLoop(int end) {
+		Loop loop = loops.pop();
+		loop.end = end;
+		for (Jump jump : loop.breaks)
+			jump.setTarget(end);
+	}
+	
+	private static class Loop {
+		private final List<Jump> breaks = new ArrayList<>();
+		private int end = -1;
+	}
+	
+	
+	public Code build() {
+		boolean[] isAction = new boolean[instructions.size()];
+		for (int pc : actions)
+			isAction[pc] = true;
+		int[] breakTargets = new int[instructions.size()];
+		for (int pc = 0; pc < breakTargets.length; pc++)
+			breakTargets[pc] = (enclosingLoops.get(pc) == null) ? -1 : enclosingLoops.get(pc).end;
+		return new Code(instructions.toArray(new Instruction[instructions.size()]),
+				locations.toArray(new SourceLocation[locations.size()]), isAction, breakTargets);
+	}
+	
+	
+	/**
+	 * An unconditional or conditional jump.
+	 */
+	public static class Jump implements Instruction {
+		
+		private Jump(CompiledBoolean condition) {
+			this.condition = condition;
+		}
+		
+		private final CompiledBoolean condition;
+		private int target = -1;
+		
+		public void setTarget(int target) {
+			this.target = target;
+		}
+		
+		@Override
+		public int execute(Program program, int pc) {
+			if (condition == null || !condition.evaluate(program))
+				return target;
+			return pc + 1;
+		}
+	}
+	
+}
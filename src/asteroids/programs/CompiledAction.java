@@ -0,0 +1,14 @@
+package asteroids.programs;
+
+import asteroids.model.Program;
+
+/**
+ * An action compiled into a closure, that evaluates the arguments of the
+ * action for a program.
+ */
+@FunctionalInterface
+public interface CompiledAction {
+
+	ShipAction evaluate(Program program);
+
+}
@@ -0,0 +1,15 @@
+package asteroids.programs;
+
+import asteroids.model.Program;
+
+/**
+ * An argument of a function call compiled into a closure that evaluates it and
+ * pushes its value on the call stack of a program, unboxed if it is a double or
+ * a boolean.
+ */
+@FunctionalInterface
+public interface CompiledArgument {
+
+	void push(Program program);
+
+}
@@ -0,0 +1,22 @@
+package asteroids.programs;
+
+import asteroids.model.Program;
+
+/**
+ * An expression of type boolean compiled into a closure that evaluates it
+ * without boxing its result.
+ */
+@FunctionalInterface
+public interface CompiledBoolean {
+
+	boolean evaluate(Program program);
+
+	/**
+	 * Return a closure that evaluates this expression to a boxed Boolean, for
+	 * statements and expressions that accept values of any type.
+	 */
+	default CompiledExpression boxed() {
+		return program -> evaluate(program);
+	}
+
+}
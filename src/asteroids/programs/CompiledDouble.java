@@ -0,0 +1,22 @@
+package asteroids.programs;
+
+import asteroids.model.Program;
+
+/**
+ * An expression of type double compiled into a closure that evaluates it
+ * without boxing its result.
+ */
+@FunctionalInterface
+public interface CompiledDouble {
+
+	double evaluate(Program program);
+
+	/**
+	 * Return a closure that evaluates this expression to a boxed Double, for
+	 * statements and expressions that accept values of any type.
+	 */
+	default CompiledExpression boxed() {
+		return program -> evaluate(program);
+	}
+
+}
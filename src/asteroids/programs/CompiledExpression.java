@@ -0,0 +1,14 @@
+package asteroids.programs;
+
+import asteroids.model.Program;
+
+/**
+ * An expression compiled into a closure. Its operands are compiled and linked
+ * once, so evaluating it for a program needs no further set-up.
+ */
+@FunctionalInterface
+public interface CompiledExpression {
+
+	Object evaluate(Program program);
+
+}
@@ -0,0 +1,92 @@
+package asteroids.programs;
+
+import asteroids.model.Program;
+
+/**
+ * The code of a function of a compiled program, compiled once from its optimized
+ * body, with its local variables resolved to slots in its frame on the call stack.
+ *
+ * Like the compiled program it belongs to, a compiled function does not change once
+ * it is created, so it can be called by any number of programs, on any number of
+ * threads.
+ */
+public final class CompiledFunction {
+
+	/**
+	 * Compile the body of the given function, with its local variables resolved in a
+	 * scope of its own, and its other variables in the given global scope.
+	 */
+	static CompiledFunction compile(Function function, Scope globals) {
+		Scope scope = Scope.createLocalScope(globals, function.getBody());
+		return new CompiledFunction(function.getName(), CodeBuilder.compile(function.getBody(), scope), scope.getNbSlots());
+	}
+
+	private CompiledFunction(String name, Code code, int nbLocals) {
+		this.name = name;
+		this.code = code;
+		this.nbLocals = nbLocals;
+	}
+
+
+	//NAME
+	private final String name;
+
+	public String getName() {
+		return this.name;
+	}
+
+
+	//CODE
+	private final Code code;
+
+	private final int nbLocals;
+
+	public Code getCode() {
+		return this.code;
+	}
+
+	/**
+	 * Return the number of local variables of this function.
+	 */
+	public int getNbLocals() {
+		return this.nbLocals;
+	}
+
+
+	//CALL
+
+	/**
+	 * Call this function for the given program, with the values of the given
+	 * arguments. Its return value is left in the call stack of the program.
+	 *
+	 * @throws IllegalArgumentException
+	 *         The function body ends without returning a value, the calls are
+	 *         nested too deep, or they take too many instructions.
+	 * @throws BreakSignal
+	 *         The function body breaks outside its loops.
+	 */
+	public void call(Program program, CompiledArgument[] arguments) throws IllegalArgumentException, BreakSignal {
+		CallStack stack = program.getCallStack();
+		// The last argument is pushed first, so that $n is the n-th slot below the frame.
+		int i = arguments.length;
+		try {
+			while (i > 0) {
+				arguments[i - 1].push(program);
+				i--;
+			}
+		} catch (RuntimeException exception) {
+			stack.popArguments(arguments.length - i);
+			throw exception;
+		}
+		stack.enter(arguments.length, this.getNbLocals());
+		boolean returned;
+		try {
+			returned = program.call(this.getCode());
+		} finally {
+			stack.exit();
+		}
+		if (!returned)
+			throw new IllegalArgumentException("Function " + this.getName() + " ends without returning a value");
+	}
+
+}
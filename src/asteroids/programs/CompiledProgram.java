@@ -0,0 +1,104 @@
+package asteroids.programs;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The code of a program, optimized and compiled once from its functions and main
+ * statement, with all variables resolved to slots.
+ * 
+ * A compiled program does not change once it is created, and its code refers to
+ * no program: all execution state, from the variables to the ship, is kept by
+ * the program that executes it and is passed to each instruction. One compiled
+ * program can therefore be executed by any number of programs, on any number of
+ * threads.
+ */
+public final class CompiledProgram {
+
+	/**
+	 * Check, optimize and compile the given functions and main statement. The
+	 * optimizer builds new statements, so the given statements are not changed,
+	 * and compiling them again gives the same code.
+	 * 
+	 * @throws IllegalTypeException
+	 *         The program is not well typed.
+	 * @throws IllegalArgumentException
+	 *         The program reads an undefined variable, assigns a variable with
+	 *         the name of a function, calls an undefined function, or prints or
+	 *         performs an action in a function body.
+	 */
+	public CompiledProgram(List<Function> functions, Statement main) throws IllegalArgumentException {
+		Map<String, Function> byName = new HashMap<>();
+		for (Function function : functions)
+			byName.put(function.getName(), function);
+		TypeChecker.check(byName, main);
+		Optimizer optimizer = new Optimizer();
+		Statement optimized = optimizer.optimize(main);
+		List<Function> optimizedFunctions = new ArrayList<>();
+		for (Function function : byName.values())
+			optimizedFunctions.add(function.optimize(optimizer));
+		Scope scope = Scope.createGlobalScope(optimized, optimizedFunctions);
+		this.compiledFunctions = new CompiledFunction[optimizedFunctions.size()];
+		for (int i = 0; i < compiledFunctions.length; i++)
+			this.compiledFunctions[i] = CompiledFunction.compile(optimizedFunctions.get(i), scope);
+		this.mainCode = CodeBuilder.compile(optimized, scope);
+		this.functions = Collections.unmodifiableMap(byName);
+		this.nbGlobals = scope.getNbSlots();
+		this.nbQuerySlots = scope.getNbQuerySlots();
+	}
+	
+	
+	//CODE
+	private final Code mainCode;
+	
+	/**
+	 * The compiled functions of this program, each at the index to which calls of
+	 * it are resolved.
+	 */
+	private final CompiledFunction[] compiledFunctions;
+	
+	/**
+	 * The functions of this program as they were given, by name.
+	 */
+	private final Map<String, Function> functions;
+	
+	public Code getMainCode() {
+		return this.mainCode;
+	}
+	
+	/**
+	 * Return the compiled function at the given index.
+	 */
+	public CompiledFunction getFunction(int index) {
+		return this.compiledFunctions[index];
+	}
+	
+	public Map<String, Function> getFunctions() {
+		return this.functions;
+	}
+	
+	
+	//SLOTS
+	private final int nbGlobals;
+	
+	private final int nbQuerySlots;
+	
+	/**
+	 * Return the number of global variables of this program.
+	 */
+	public int getNbGlobals() {
+		return this.nbGlobals;
+	}
+	
+	/**
+	 * Return the number of entity queries of this program of which the results
+	 * are cached.
+	 */
+	public int getNbQuerySlots() {
+		return this.nbQuerySlots;
+	}
+	
+}
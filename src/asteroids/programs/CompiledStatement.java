@@ -0,0 +1,14 @@
+package asteroids.programs;
+
+import asteroids.model.Program;
+
+/**
+ * A straight-line statement compiled into a closure. Its expressions are
+ * compiled and linked once, so executing it for a program needs no further set-up.
+ */
+@FunctionalInterface
+public interface CompiledStatement {
+
+	void execute(Program program);
+
+}
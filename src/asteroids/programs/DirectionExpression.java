@@ -2,11 +2,21 @@ package asteroids.programs;
 
 import java.util.List;
 
-public class DirectionExpression extends Expression {
+public class DirectionExpression extends Expression implements DoubleExpression {
 
 	@Override
-	protected Object getResult() {
-		return this.getShip().getOrientation();
+	public CompiledDouble compileDouble(Scope scope) {
+		return program -> program.getShipOrientation();
+	}
+
+	@Override
+	protected Type inferType(TypeChecker checker) {
+		return Type.DOUBLE;
+	}
+
+	@Override
+	protected CompiledExpression compile(Scope scope) {
+		return this.compileDouble(scope).boxed();
 	}
 
 }
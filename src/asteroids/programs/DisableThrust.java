@@ -1,20 +1,19 @@
 package asteroids.programs;
 
-import asteroids.model.Program;
 import asteroids.part3.programs.SourceLocation;
 
 public class DisableThrust extends ActionStatement{
 
 	
 	public DisableThrust(SourceLocation location) {
-	//	setSourceLocation(location);
-
+		setSourceLocation(location);
 	}
 	
 	@Override
-	public void executeAction(Program program) {
-		program.getShip().thrustOff();
-		
+	protected CompiledAction compileAction(Scope scope) {
+		return program -> THRUST_OFF;
 	}
+	
+	private static final ShipAction THRUST_OFF = ship -> ship.thrustOff();
 
 }
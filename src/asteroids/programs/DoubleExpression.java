@@ -1,11 +1,19 @@
 package asteroids.programs;
 
-import java.util.List;
-
 public interface DoubleExpression {
 
-	/*public default Boolean isValidDoubeOperand(Function function, List<Expression> arguments, Expression expression){
-		return (expression.getResult(function, arguments) instanceof Double);
-	};
-	*/
+	/**
+	 * Compile this expression into a closure that evaluates it to an unboxed
+	 * double, with its variables resolved in the given scope.
+	 */
+	CompiledDouble compileDouble(Scope scope);
+	
+	/**
+	 * Compile the given expression, which is checked to be of type double, into a
+	 * closure that evaluates it to an unboxed double.
+	 */
+	static CompiledDouble compileDouble(Expression expression, Scope scope) {
+		return ((DoubleExpression) expression).compileDouble(scope);
+	}
+	
 }
@@ -8,6 +8,7 @@ class DoubleLiteralExpression extends Expression implements DoubleExpression  {
 
 	protected DoubleLiteralExpression(double value) {
 		setValue(value);
+		setType(Type.DOUBLE);
 	}
 	
 	//VALUE
@@ -17,13 +18,26 @@ class DoubleLiteralExpression extends Expression implements DoubleExpression  {
 		this.value = value;
 	}
 	
-	private double getValue(){
+	double getValue(){
 		return this.value;
 	}
 
 	@Override
-	protected Object getResult() {
-		return (Double) this.getValue();
+	public CompiledDouble compileDouble(Scope scope) {
+		double value = this.getValue();
+		return program -> value;
+	}
+
+	@Override
+	protected Type inferType(TypeChecker checker) {
+		return Type.DOUBLE;
+	}
+
+	@Override
+	protected CompiledExpression compile(Scope scope) {
+		// Box the value once, instead of on every evaluation.
+		Double value = this.getValue();
+		return program -> value;
 	}
 
 
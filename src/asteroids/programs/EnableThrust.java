@@ -1,19 +1,19 @@
 package asteroids.programs;
 
-import asteroids.model.Program;
+import asteroids.part3.programs.SourceLocation;
 
 public class EnableThrust extends ActionStatement{
 
 	
-	public EnableThrust() {
-	//	setSourceLocation(location);
-
+	public EnableThrust(SourceLocation location) {
+		setSourceLocation(location);
 	}
 	
 	@Override
-	public void executeAction(Program program) {
-		program.getShip().thrustOn();
-		
+	protected CompiledAction compileAction(Scope scope) {
+		return program -> THRUST_ON;
 	}
+	
+	private static final ShipAction THRUST_ON = ship -> ship.thrustOn();
 
 }
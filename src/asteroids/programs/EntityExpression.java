@@ -1,17 +1,6 @@
 package asteroids.programs;
 
-import java.util.Map;
-import java.util.Collection;
-import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
-
-import asteroids.model.Asteroid;
-import asteroids.model.Bullet;
-import asteroids.model.Entity;
-import asteroids.model.MinorPlanet;
-import asteroids.model.Planetoid;
-import asteroids.model.Ship;
+import asteroids.model.Program;
 import asteroids.model.World;
 
 public abstract class EntityExpression extends Expression {
@@ -19,34 +8,38 @@ public abstract class EntityExpression extends Expression {
 	
 	
 	
-	//WORLD
-	protected World getWorld() {
-		return this.getShip().getWorld();
+	//TYPE
+	@Override
+	protected Type inferType(TypeChecker checker) {
+		return Type.ENTITY;
 	}
 	
-	protected Set<Entity> getOtherEntities() {
-		return getWorld().getAllEntities();
-	}
-
 	
-	protected Entity getClosest(Set<? extends Entity> set){
-		Ship ship = this.getShip();
-		Entity result = null;
-		
-		if (!set.isEmpty()){
-			// Makes a map with the distances as keys and the entities that have these distances in a list as values.
-			Map<Double, List<Entity>> ordered_map = (Map) set.stream().collect(Collectors.groupingBy(e -> ship.getDistanceBetween(e)));
-			
-			// get the smallest distance.
-			Double key = ordered_map.keySet().stream().reduce(Double::min).get();
-			
-			// get the first entity with this minimal distance.
-			result = (ordered_map.get(key)).get(0);
-		}
-		return result;
+	//WORLD
+	protected static World getWorld(Program program) {
+		return program.getShip().getWorld();
 	}
-	
 
 	
+	//CACHE
+	
+	/**
+	 * Compile the given query on the world of the ship of a program, so that it
+	 * is only evaluated again once that world has changed.
+	 */
+	protected static CompiledExpression compileCached(Scope scope, CompiledExpression query) {
+		int slot = scope.newQuerySlot();
+		return program -> {
+			World world = getWorld(program);
+			QueryCache cache = program.getQueryCache();
+			if (!cache.isValid(slot, world)) {
+				Object result = query.evaluate(program);
+				if (world == null)
+					return result;
+				cache.set(slot, world, result);
+			}
+			return cache.get(slot);
+		};
+	}
 
 }
@@ -2,7 +2,7 @@ package asteroids.programs;
 
 import asteroids.model.Entity;
 
-public abstract class EntityPropertyExpression extends Expression {
+public abstract class EntityPropertyExpression extends Expression implements DoubleExpression {
 	public EntityPropertyExpression(Expression operand){
 		this.setOperand(operand);
 	}
@@ -11,25 +11,31 @@ public abstract class EntityPropertyExpression extends Expression {
 	private Expression operand;
 	
 	private void setOperand(Expression operand) {
-		if (isLegalEntityOperand(operand))
-			this.operand = operand;
-		else
-			throw new IllegalArgumentException();
+		this.operand = operand;
 	}
 	
 	private Expression getOperand(){
 		return this.operand;
 	}
 	
-	protected Entity getOperandResultingEntity(){
-		this.getOperand().setProgram(getProgram());
-		return (Entity) this.getOperand().getResult();
+	protected CompiledExpression compileOperand(Scope scope){
+		return this.getOperand().compile(scope);
 	}
 	
+	@Override
+	protected CompiledExpression compile(Scope scope) {
+		return this.compileDouble(scope).boxed();
+	}
 	
-	public boolean isLegalEntityOperand(Expression operand){
-		return ((operand instanceof EntityExpression || operand instanceof VariableExpression)
-				&& !(operand instanceof NullExpression));
+	/**
+	 * The operand must be an entity, and cannot be the literal null.
+	 */
+	@Override
+	protected Type inferType(TypeChecker checker) {
+		if (this.getOperand() instanceof NullExpression)
+			throw new IllegalTypeException(this.getOperand().getSourceLocation(), "expected entity, found null");
+		checker.expect(this.getOperand(), Type.ENTITY);
+		return Type.DOUBLE;
 	}
 	
 }
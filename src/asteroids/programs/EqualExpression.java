@@ -2,20 +2,57 @@ package asteroids.programs;
 
 import java.util.List;
 
-public class EqualExpression extends BinaryExpression<Expression> implements BooleanExpression {
+public class EqualExpression extends BinaryExpression implements BooleanExpression {
 
 	protected EqualExpression(Expression leftExpression, Expression rightExpression) throws IllegalArgumentException {
 		super(leftExpression, rightExpression);
 	}
 
 	@Override
-	protected Object getResult() {
-
-		Object leftOperand = this.getLeftOperandResult();
-		Object rightOperand = this.getRightOperandResult();
-		
+	public CompiledBoolean compileBoolean(Scope scope) {
+		Type type = this.getLeftOperand().getType();
 		
-		return (leftOperand == rightOperand);
+		if (type != this.getRightOperand().getType()) {
+			// Values of different types are never equal, but both operands are
+			// still evaluated for the errors they raise.
+			CompiledExpression leftOperand = this.compileLeftOperand(scope);
+			CompiledExpression rightOperand = this.compileRightOperand(scope);
+			return program -> {
+				leftOperand.evaluate(program);
+				rightOperand.evaluate(program);
+				return false;
+			};
+		}
+		switch (type) {
+		case DOUBLE:
+			CompiledDouble leftDouble = DoubleExpression.compileDouble(this.getLeftOperand(), scope);
+			CompiledDouble rightDouble = DoubleExpression.compileDouble(this.getRightOperand(), scope);
+			return program -> leftDouble.evaluate(program) == rightDouble.evaluate(program);
+		case BOOLEAN:
+			CompiledBoolean leftBoolean = BooleanExpression.compileBoolean(this.getLeftOperand(), scope);
+			CompiledBoolean rightBoolean = BooleanExpression.compileBoolean(this.getRightOperand(), scope);
+			return program -> leftBoolean.evaluate(program) == rightBoolean.evaluate(program);
+		default:
+			CompiledExpression leftOperand = this.compileLeftOperand(scope);
+			CompiledExpression rightOperand = this.compileRightOperand(scope);
+			// Entities are compared by identity.
+			return program -> leftOperand.evaluate(program) == rightOperand.evaluate(program);
+		}
+	}
+
+	/**
+	 * The operands may be of any types, which need not be the same.
+	 */
+	@Override
+	protected Type inferType(TypeChecker checker) {
+		checker.check(this.getLeftOperand());
+		checker.check(this.getRightOperand());
+		return Type.BOOLEAN;
+	}
+
+	@Override
+	protected CompiledExpression compile(Scope scope) {
+		return this.compileBoolean(scope).boxed();
 	}
 
 }
@@ -2,29 +2,60 @@ package asteroids.programs;
 
 import java.util.List;
 
-import asteroids.model.Program;
-import asteroids.model.Ship;
+import asteroids.part3.programs.SourceLocation;
+
 
 public abstract class Expression {
 	
 	
 	private static final int O = 0;
-	//program
 	
-	private Program program;
 	
-	public void setProgram(Program program){
-		this.program = program;
+	//TYPE
+	private Type type;
+	
+	/**
+	 * Return the type of this expression, once it is checked.
+	 */
+	public Type getType(){
+		return this.type;
 	}
 	
-	public Program getProgram(){
-		return this.program;
+	void setType(Type type){
+		this.type = type;
 	}
 	
-	protected Ship getShip() {
-		return this.getProgram().getShip();
+	/**
+	 * Infer the type of this expression, after checking the types of its operands
+	 * with the given checker, or return null if it cannot be inferred yet.
+	 * 
+	 * @throws IllegalTypeException
+	 *         This expression is not well typed.
+	 */
+	protected abstract Type inferType(TypeChecker checker) throws IllegalTypeException;
+	
+	
+	//SOURCE LOCATION
+	private SourceLocation sourceLocation;
+	
+	/**
+	 * Return the location of this expression in the source code of its program,
+	 * or null if it is not known.
+	 */
+	public SourceLocation getSourceLocation(){
+		return sourceLocation;
 	}
 	
+	public void setSourceLocation(SourceLocation sourceLocation){
+		this.sourceLocation = sourceLocation;
+	}
+	
+	
+	//COMPILE
 	
-	protected abstract Object getResult();
+	/**
+	 * Compile this expression into a closure that evaluates it for a given program,
+	 * with its variables resolved in the given scope.
+	 */
+	protected abstract CompiledExpression compile(Scope scope);
 }
@@ -1,6 +1,6 @@
 package asteroids.programs;
 
-import asteroids.model.Program;
+import asteroids.model.Ship;
 import asteroids.model.exceptions.IllegalPositionException;
 import asteroids.model.exceptions.IllegalRadiusException;
 import asteroids.model.exceptions.IllegalShipException;
@@ -10,16 +10,35 @@ public class FireAction extends ActionStatement {
 
 	/// CONSTRUCTOR ///
 	
-	public FireAction() {
-		//setSourceLocation(location);
-		System.out.println("FIREACTION");
+	public FireAction(SourceLocation location) {
+		setSourceLocation(location);
 	}
 
 
 	@Override
-	public void executeAction(Program program) throws IllegalPositionException, IllegalRadiusException, IllegalShipException {
-		program.getShip().fireBullet();
-		
+	protected CompiledAction compileAction(Scope scope) {
+		return program -> FIRE;
 	}
+	
+	/**
+	 * Firing adds a bullet to the world of the ship, and may destroy whatever it
+	 * overlaps, so it changes the world.
+	 */
+	private static final ShipAction FIRE = new ShipAction() {
+		
+		@Override
+		public void perform(Ship ship) {
+			try {
+				ship.fireBullet();
+			} catch (IllegalPositionException | IllegalRadiusException | IllegalShipException e) {
+				e.printStackTrace();
+			}
+		}
+		
+		@Override
+		public boolean changesWorld() {
+			return true;
+		}
+	};
 
 }
\ No newline at end of file
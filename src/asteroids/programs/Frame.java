@@ -0,0 +1,37 @@
+package asteroids.programs;
+
+/**
+ * The execution state of a compiled statement: its code and the program counter
+ * of the next instruction to execute in it.
+ */
+public class Frame {
+
+	public Frame(Code code) {
+		this.code = code;
+	}
+	
+	
+	//CODE
+	private final Code code;
+	
+	public Code getCode() {
+		return this.code;
+	}
+	
+	
+	//PROGRAM COUNTER
+	private int pc = 0;
+	
+	public int getPc() {
+		return this.pc;
+	}
+	
+	public void setPc(int pc) {
+		this.pc = pc;
+	}
+	
+	public boolean isFinished() {
+		return this.pc >= this.code.getLength();
+	}
+	
+}
@@ -1,11 +1,5 @@
 package asteroids.programs;
 
-import java.util.HashMap;
-import java.util.Map;
-
-import asteroids.model.Program;
-
-
 public class Function {
 
 	public Function(String name, Statement bodyStatement){
@@ -23,22 +17,10 @@ public class Function {
 		return this.name;
 	}
 	
-	protected Map<String, Object> getVariables() {
-		return variables;
-	}
-
-	protected void setLocalVariables(Map<String, Object> local_variables) {
-		this.variables = variables;
-	}
-
 	protected void setName(String name) {
 		this.name = name;
 	}
 
-	public void setProgram(Program program) {
-		this.program = program;
-	}	
-	
 	protected void setBody(Statement body){
 		this.body = body;
 	}
@@ -47,8 +29,16 @@ public class Function {
 		return true;
 	}
 	
-	private Program program;
+	//COMPILE
+	
+	/**
+	 * Return a new function with the same name as this function, and its body
+	 * optimized with the given optimizer. This function is not changed.
+	 */
+	public Function optimize(Optimizer optimizer) {
+		return new Function(this.getName(), optimizer.optimize(this.getBody()));
+	}
+	
 	private String name;
 	private Statement body;
-	private Map<String, Object> variables = new HashMap<String, Object>();
 }
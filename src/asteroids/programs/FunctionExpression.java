@@ -1,24 +1,97 @@
 package asteroids.programs;
 
 import java.util.List;
-import java.util.Map;
 
-public class FunctionExpression extends Expression {
+public class FunctionExpression extends Expression implements DoubleExpression, BooleanExpression {
 
 	public FunctionExpression(String functionName, List<Expression> arguments) {
-		
+		setName(functionName);
+		setArguments(arguments);
 	}
 	
+	
+	//COMPILE
+	
+	/**
+	 * Compile a call of the function, which is resolved once to its index among
+	 * the compiled functions of the program, and of which the value is returned
+	 * unboxed if it is a double.
+	 * 
+	 * @throws IllegalArgumentException
+	 *         The function is not defined.
+	 */
 	@Override
-	protected Object getResult() {
-		return null;
+	public CompiledDouble compileDouble(Scope scope) throws IllegalArgumentException {
+		int function = scope.getFunctionIndex(this.getName());
+		CompiledArgument[] arguments = compileArguments(scope);
+		return program -> {
+			program.getCompiledProgram().getFunction(function).call(program, arguments);
+			return program.getCallStack().getReturnValue();
+		};
 	}
 	
+	/**
+	 * Booleans are returned as 1 or 0.
+	 */
+	@Override
+	public CompiledBoolean compileBoolean(Scope scope) throws IllegalArgumentException {
+		CompiledDouble value = this.compileDouble(scope);
+		return program -> value.evaluate(program) != 0;
+	}
 	
-	private Function getFunction() {
-	return null;
+	@Override
+	protected CompiledExpression compile(Scope scope) throws IllegalArgumentException {
+		switch (this.getType()) {
+		case DOUBLE:
+			return this.compileDouble(scope).boxed();
+		case BOOLEAN:
+			return this.compileBoolean(scope).boxed();
+		default:
+			int function = scope.getFunctionIndex(this.getName());
+			CompiledArgument[] arguments = compileArguments(scope);
+			return program -> {
+				program.getCompiledProgram().getFunction(function).call(program, arguments);
+				return program.getCallStack().getReturnObject();
+			};
+		}
 	}
 	
+	/**
+	 * Each argument gives its type to the parameter of the function it is passed
+	 * to, and the type of the call is the type of the values the function returns.
+	 */
+	@Override
+	protected Type inferType(TypeChecker checker) {
+		for (int i = 0; i < arguments.size(); i++)
+			checker.pass(this.getName(), i + 1, checker.check(arguments.get(i)), arguments.get(i).getSourceLocation());
+		return checker.getReturnType(this.getName(), this.getSourceLocation());
+	}
+	
+	/**
+	 * Compile the arguments of this call. Booleans are pushed as 1 or 0.
+	 */
+	private CompiledArgument[] compileArguments(Scope scope) {
+		CompiledArgument[] result = new CompiledArgument[arguments.size()];
+		for (int i = 0; i < result.length; i++) {
+			Expression argument = arguments.get(i);
+			switch (argument.getType()) {
+			case DOUBLE:
+				CompiledDouble value = DoubleExpression.compileDouble(argument, scope);
+				result[i] = program -> program.getCallStack().pushArgument(value.evaluate(program));
+				break;
+			case BOOLEAN:
+				CompiledBoolean condition = BooleanExpression.compileBoolean(argument, scope);
+				result[i] = program -> program.getCallStack().pushArgument(condition.evaluate(program) ? 1 : 0);
+				break;
+			default:
+				CompiledExpression entity = argument.compile(scope);
+				result[i] = program -> program.getCallStack().pushArgumentObject(entity.evaluate(program));
+			}
+		}
+		return result;
+	}
+	
+	
 	//NAME
 	private String name;
 	
@@ -34,9 +107,13 @@ public class FunctionExpression extends Expression {
 	
 	//ARGUMENTSLIST
 	private List<Expression> arguments;
+	
+	public List<Expression> getArguments() {
+		return this.arguments;
+	}
 
 	private void setArguments(List<Expression> arguments) {
-	//	this.arguments = arguments;
+		this.arguments = arguments;
 	}
 
 	
@@ -0,0 +1,52 @@
+package asteroids.programs;
+
+/**
+ * An expression that was hoisted out of a while loop, because its value does
+ * not change while the loop runs.
+ * 
+ * Its value is computed the first time it is needed after the loop is entered,
+ * and kept in a hidden variable for the remaining iterations. Evaluating it
+ * lazily keeps any error it raises where the loop would have raised it.
+ */
+class HoistedExpression extends Expression implements DoubleExpression {
+
+	protected HoistedExpression(String name, DoubleExpression value) {
+		this.name = name;
+		this.value = value;
+		setType(Type.DOUBLE);
+	}
+	
+	//NAME
+	private final String name;
+	
+	/**
+	 * Return the name of the hidden variable that holds the value of this
+	 * expression. It is not a valid identifier in programs.
+	 */
+	String getName(){
+		return this.name;
+	}
+	
+	//VALUE
+	private final DoubleExpression value;
+	
+	DoubleExpression getValue(){
+		return this.value;
+	}
+
+	@Override
+	public CompiledDouble compileDouble(Scope scope) {
+		return scope.compileCached(this.getName(), this.getValue().compileDouble(scope));
+	}
+
+	@Override
+	protected Type inferType(TypeChecker checker) {
+		return Type.DOUBLE;
+	}
+
+	@Override
+	protected CompiledExpression compile(Scope scope) {
+		return this.compileDouble(scope).boxed();
+	}
+
+}
@@ -1,47 +1,23 @@
 package asteroids.programs;
 
-import java.util.List;
+import java.util.Set;
 
 public class IfElseStatement extends Statement{
 
-	public IfElseStatement(BooleanExpression condition, Statement ifBody, Statement elseBody) {
-		System.out.println("IFELSESTATEMENT " + ifBody);
-
+	public IfElseStatement(Expression condition, Statement ifBody, Statement elseBody) {
 		this.setCondition(condition);
 		this.setThenStatement(ifBody);
 		this.setElseStatement(elseBody);
 	}
 	
-	private Boolean getConditionResult(){
-		((Expression) this.getCondition()).setProgram(getProgram());
-		boolean conditionResult = (boolean) ((Expression) this.getCondition()).getResult();
-		return conditionResult;
-		
-	}
-
-	@Override
-	public void run() {
-		System.out.println("IFELSESTATEMENT > RUN");
-		if(this.getConditionResult()){
-			this.getThenStatement().setProgram(this.getProgram());
-			this.getThenStatement().run();
-		} else {
-			if(this.getElseStatement() != null){
-				this.getElseStatement().setProgram(this.getProgram());
-				this.getElseStatement().run();
-			}
-		}
-	}
-	
 	//CONDITION
-	private BooleanExpression condition;
+	private Expression condition;
 	
-	public void setCondition(BooleanExpression condition){
+	public void setCondition(Expression condition){
 		this.condition = condition;
-		((Expression) condition).setProgram(getProgram());
 	}
 	
-	public BooleanExpression getCondition(){
+	public Expression getCondition(){
 		return this.condition;
 	}
 	
@@ -50,8 +26,6 @@ public class IfElseStatement extends Statement{
 	
 	public void setThenStatement(Statement thenStatement){
 		this.thenStatement= thenStatement;
-		this.getThenStatement().setProgram(getProgram());
-
 	}
 	
 	public Statement getThenStatement(){
@@ -63,26 +37,39 @@ public class IfElseStatement extends Statement{
 	
 	public void setElseStatement(Statement elseStatement){
 		this.elseStatement= elseStatement;
-		if(elseStatement != null){
-			this.getElseStatement().setProgram(getProgram());
-
-		}
-
 	}
 	
 	public Statement getElseStatement(){
 		return this.elseStatement;
 	}
 	
+	//COMPILE
 	@Override
-	public boolean navigateToAction(Bookmark bookmark){
-		if(this.getConditionResult()){
-			System.out.println("IFELSESTATEMENT > NAVIGATETOACTION thenStatement");
-			return this.getThenStatement().navigateToAction(bookmark);
+	protected void compile(CodeBuilder code) {
+		CodeBuilder.Jump toElse = code.emitJumpIfFalse(BooleanExpression.compileBoolean(this.getCondition(), code.getScope()));
+		code.compile(this.getThenStatement());
+		if (this.getElseStatement() == null) {
+			toElse.setTarget(code.getPc());
 		} else {
-			System.out.println("IFELSESTATEMENT > NAVIGATETOACTION elseStatement");
-			return this.getElseStatement().navigateToAction(bookmark);
+			CodeBuilder.Jump toEnd = code.emitJump();
+			toElse.setTarget(code.getPc());
+			code.compile(this.getElseStatement());
+			toEnd.setTarget(code.getPc());
 		}
-		
+	}
+	
+	@Override
+	protected void check(TypeChecker checker) {
+		checker.expect(this.getCondition(), Type.BOOLEAN);
+		checker.check(this.getThenStatement());
+		if (this.getElseStatement() != null)
+			checker.check(this.getElseStatement());
+	}
+	
+	@Override
+	protected void collectVariables(Set<String> names) {
+		this.getThenStatement().collectVariables(names);
+		if (this.getElseStatement() != null)
+			this.getElseStatement().collectVariables(names);
 	}
 }
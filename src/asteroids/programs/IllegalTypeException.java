@@ -0,0 +1,28 @@
+package asteroids.programs;
+
+import asteroids.part3.programs.SourceLocation;
+
+/**
+ * A type error in a program, found when the program is checked before it is
+ * compiled.
+ */
+public class IllegalTypeException extends IllegalArgumentException {
+
+	private static final long serialVersionUID = 1L;
+	
+	public IllegalTypeException(SourceLocation location, String message) {
+		super((location == null) ? message : location + ": " + message);
+		this.location = location;
+	}
+	
+	private final SourceLocation location;
+	
+	/**
+	 * Return the location of the error in the source code of the program, or
+	 * null if it is not known.
+	 */
+	public SourceLocation getSourceLocation() {
+		return this.location;
+	}
+	
+}
@@ -0,0 +1,30 @@
+package asteroids.programs;
+
+import asteroids.model.Program;
+
+/**
+ * An instruction in the flat code of a compiled statement.
+ */
+@FunctionalInterface
+public interface Instruction {
+
+	/**
+	 * Returned by an instruction that cannot be executed yet, such as an action
+	 * for which the program has too little time left. The program suspends at
+	 * that instruction, and executes it again when it is resumed.
+	 */
+	int SUSPEND = -1;
+	
+	/**
+	 * Returned by a return statement in a function body, which ends the call.
+	 */
+	int RETURN = Integer.MAX_VALUE;
+
+	/**
+	 * Execute this instruction, found at the given program counter, for the given
+	 * program, and return the program counter of the next instruction to execute,
+	 * SUSPEND or RETURN.
+	 */
+	int execute(Program program, int pc);
+
+}
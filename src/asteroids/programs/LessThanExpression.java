@@ -2,21 +2,32 @@ package asteroids.programs;
 
 import java.util.List;
 
-public class LessThanExpression extends BinaryExpression<DoubleExpression> implements BooleanExpression {
+public class LessThanExpression extends BinaryExpression implements BooleanExpression {
 
-	protected LessThanExpression(DoubleExpression leftExpression, DoubleExpression rightExpression)
+	protected LessThanExpression(Expression leftExpression, Expression rightExpression)
 			throws IllegalArgumentException {
 		super(leftExpression, rightExpression);
 		// TODO Auto-generated constructor stub
 	}
 
 	@Override
-	protected Object getResult() {
-		Double leftOperand = (Double) this.getLeftOperandResult();
-		Double rightOperand = (Double) this.getRightOperandResult();
-		
-		
-		return (leftOperand < rightOperand);
+	public CompiledBoolean compileBoolean(Scope scope) {
+		CompiledDouble leftOperand = DoubleExpression.compileDouble(this.getLeftOperand(), scope);
+		CompiledDouble rightOperand = DoubleExpression.compileDouble(this.getRightOperand(), scope);
+
+		return program -> leftOperand.evaluate(program) < rightOperand.evaluate(program);
+	}
+
+	@Override
+	protected Type inferType(TypeChecker checker) {
+		checker.expect(this.getLeftOperand(), Type.DOUBLE);
+		checker.expect(this.getRightOperand(), Type.DOUBLE);
+		return Type.BOOLEAN;
+	}
+
+	@Override
+	protected CompiledExpression compile(Scope scope) {
+		return this.compileBoolean(scope).boxed();
 	}
 
 }
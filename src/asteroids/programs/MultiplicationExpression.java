@@ -2,18 +2,30 @@ package asteroids.programs;
 
 import java.util.List;
 
-public class MultiplicationExpression extends BinaryExpression<DoubleExpression> implements DoubleExpression {
+public class MultiplicationExpression extends BinaryExpression implements DoubleExpression {
 
-	protected MultiplicationExpression(DoubleExpression leftExpression, DoubleExpression rightExpression) throws IllegalArgumentException {
+	protected MultiplicationExpression(Expression leftExpression, Expression rightExpression) throws IllegalArgumentException {
 		super(leftExpression, rightExpression);
 	}
 
 	@Override
-	protected Object getResult() {
-		Double left = (Double) this.getLeftOperandResult();
-		Double right = (Double) this.getRightOperandResult();
+	public CompiledDouble compileDouble(Scope scope) {
+		CompiledDouble left = DoubleExpression.compileDouble(this.getLeftOperand(), scope);
+		CompiledDouble right = DoubleExpression.compileDouble(this.getRightOperand(), scope);
 
-		return (left * right);
+		return program -> left.evaluate(program) * right.evaluate(program);
+	}
+
+	@Override
+	protected Type inferType(TypeChecker checker) {
+		checker.expect(this.getLeftOperand(), Type.DOUBLE);
+		checker.expect(this.getRightOperand(), Type.DOUBLE);
+		return Type.DOUBLE;
+	}
+
+	@Override
+	protected CompiledExpression compile(Scope scope) {
+		return this.compileDouble(scope).boxed();
 	}
 
 }
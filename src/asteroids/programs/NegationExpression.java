@@ -2,16 +2,28 @@ package asteroids.programs;
 
 import java.util.List;
 
-public class NegationExpression extends UnaryExpression<BooleanExpression> implements BooleanExpression {
+public class NegationExpression extends UnaryExpression implements BooleanExpression {
 
-	protected NegationExpression(BooleanExpression operand) {
+	protected NegationExpression(Expression operand) {
 		super(operand);
 	}
 
 	@Override
-	protected Object getResult() throws IllegalArgumentException{
-		return ! (Boolean) getOperandResult();
-		
+	public CompiledBoolean compileBoolean(Scope scope) {
+		CompiledBoolean operand = BooleanExpression.compileBoolean(this.getOperand(), scope);
+
+		return program -> ! operand.evaluate(program);
+	}
+
+	@Override
+	protected Type inferType(TypeChecker checker) {
+		checker.expect(this.getOperand(), Type.BOOLEAN);
+		return Type.BOOLEAN;
+	}
+
+	@Override
+	protected CompiledExpression compile(Scope scope) {
+		return this.compileBoolean(scope).boxed();
 	}
 
 	
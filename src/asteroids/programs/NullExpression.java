@@ -5,8 +5,13 @@ import java.util.List;
 public class NullExpression extends Expression {
 
 	@Override
-	protected Object getResult() {
-		return null;
+	protected Type inferType(TypeChecker checker) {
+		return Type.ENTITY;
+	}
+
+	@Override
+	protected CompiledExpression compile(Scope scope) {
+		return program -> null;
 	}
 
 }
@@ -0,0 +1,280 @@
+package asteroids.programs;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Optimizes the statements of a program before they are compiled.
+ * 
+ * Sub-expressions of which all operands are literals are folded into a single
+ * literal, if and while statements of which the condition is constant are
+ * replaced by the branch that is taken, and arithmetic that does not change
+ * while a loop runs is hoisted out of that loop.
+ * 
+ * The optimizations do not change the results of a program, nor the errors it
+ * raises: operations that fail, such as the square root of a negative number,
+ * are not folded, and hoisted expressions are still evaluated when the loop
+ * first needs them.
+ */
+public class Optimizer {
+
+	/**
+	 * Return an optimized version of the given statement. The given statement
+	 * is not changed: the parts of it that are optimized are built anew, so the
+	 * same statement can be optimized and compiled any number of times.
+	 */
+	public Statement optimize(Statement statement) {
+		return optimize(statement, null);
+	}
+	
+	/**
+	 * The number of expressions hoisted so far, to give each its own variable.
+	 */
+	private int nbHoisted = 0;
+	
+	
+	//STATEMENTS
+	
+	private Statement optimize(Statement statement, Loop loop) {
+		if (statement instanceof BlockStatement) {
+			BlockStatement block = (BlockStatement) statement;
+			List<Statement> statements = new ArrayList<>();
+			for (Statement part : block.getStatementsList()) {
+				Statement optimized = optimize(part, loop);
+				if (!isEmpty(optimized))
+					statements.add(optimized);
+			}
+			return located(new BlockStatement(statements), block);
+		}
+		if (statement instanceof IfElseStatement) {
+			IfElseStatement ifElse = (IfElseStatement) statement;
+			Expression condition = optimize(ifElse.getCondition(), loop);
+			if (condition instanceof BooleanLiteralExpression) {
+				if (((BooleanLiteralExpression) condition).getValue())
+					return optimize(ifElse.getThenStatement(), loop);
+				if (ifElse.getElseStatement() != null)
+					return optimize(ifElse.getElseStatement(), loop);
+				return new BlockStatement(new ArrayList<>());
+			}
+			Statement elseStatement = ifElse.getElseStatement() == null ? null : optimize(ifElse.getElseStatement(), loop);
+			return located(new IfElseStatement(condition, optimize(ifElse.getThenStatement(), loop), elseStatement), ifElse);
+		}
+		if (statement instanceof WhileStatement) {
+			WhileStatement whileStatement = (WhileStatement) statement;
+			Loop inner = new Loop(whileStatement.getBodyStatement());
+			Expression condition = optimize(whileStatement.getCondition(), inner);
+			if (condition instanceof BooleanLiteralExpression && !((BooleanLiteralExpression) condition).getValue())
+				return new BlockStatement(new ArrayList<>());
+			Statement body = optimize(whileStatement.getBodyStatement(), inner);
+			return located(new WhileStatement(condition, body, inner.hoisted), whileStatement);
+		}
+		if (statement instanceof AssignmentStatement) {
+			AssignmentStatement assignment = (AssignmentStatement) statement;
+			return located(new AssignmentStatement(assignment.getName(), optimize(assignment.getExpression(), loop)), assignment);
+		}
+		if (statement instanceof PrintStatement) {
+			PrintStatement print = (PrintStatement) statement;
+			return located(new PrintStatement(optimize(print.getExpression(), loop)), print);
+		}
+		if (statement instanceof ReturnStatement) {
+			ReturnStatement returnStatement = (ReturnStatement) statement;
+			return located(new ReturnStatement(optimize(returnStatement.getValue(), loop)), returnStatement);
+		}
+		if (statement instanceof TurnAction) {
+			TurnAction turn = (TurnAction) statement;
+			return located(new TurnAction(optimize(turn.getAngle(), loop)), turn);
+		}
+		return statement;
+	}
+	
+	private static boolean isEmpty(Statement statement) {
+		return statement instanceof BlockStatement && ((BlockStatement) statement).getStatementsList().isEmpty();
+	}
+	
+	/**
+	 * Give the given new statement the source location of the given statement
+	 * it replaces, and return it.
+	 */
+	private static Statement located(Statement statement, Statement original) {
+		statement.setSourceLocation(original.getSourceLocation());
+		return statement;
+	}
+	
+	
+	//EXPRESSIONS
+	
+	private Expression optimize(Expression expression, Loop loop) {
+		if (loop != null && loop.isHoistable(expression))
+			return loop.hoist(optimize(expression, null));
+		if (expression instanceof BinaryExpression) {
+			BinaryExpression binary = (BinaryExpression) expression;
+			Expression left = optimize(binary.getLeftOperand(), loop);
+			Expression right = optimize(binary.getRightOperand(), loop);
+			if (left != binary.getLeftOperand() || right != binary.getRightOperand())
+				expression = copy(binary, left, right);
+		} else if (expression instanceof UnaryExpression) {
+			UnaryExpression unary = (UnaryExpression) expression;
+			Expression operand = optimize(unary.getOperand(), loop);
+			if (operand != unary.getOperand())
+				expression = copy(unary, operand);
+		}
+		return fold(expression);
+	}
+	
+	/**
+	 * Return a new expression of the same kind, type and source location as the
+	 * given binary expression, with the given operands.
+	 */
+	private static Expression copy(BinaryExpression binary, Expression left, Expression right) {
+		Expression result;
+		if (binary instanceof AdditionExpression)
+			result = new AdditionExpression(left, right);
+		else if (binary instanceof MultiplicationExpression)
+			result = new MultiplicationExpression(left, right);
+		else if (binary instanceof LessThanExpression)
+			result = new LessThanExpression(left, right);
+		else if (binary instanceof EqualExpression)
+			result = new EqualExpression(left, right);
+		else
+			throw new IllegalArgumentException("Unknown binary expression: " + binary.getClass().getSimpleName());
+		return located(result, binary);
+	}
+	
+	/**
+	 * Return a new expression of the same kind, type and source location as the
+	 * given unary expression, with the given operand.
+	 */
+	private static Expression copy(UnaryExpression unary, Expression operand) {
+		Expression result;
+		if (unary instanceof SignChangeExpression)
+			result = new SignChangeExpression(operand);
+		else if (unary instanceof SqrtExpression)
+			result = new SqrtExpression(operand);
+		else if (unary instanceof NegationExpression)
+			result = new NegationExpression(operand);
+		else
+			throw new IllegalArgumentException("Unknown unary expression: " + unary.getClass().getSimpleName());
+		return located(result, unary);
+	}
+	
+	private static Expression located(Expression expression, Expression original) {
+		expression.setType(original.getType());
+		expression.setSourceLocation(original.getSourceLocation());
+		return expression;
+	}
+	
+	/**
+	 * Return a literal with the value of the given expression, if all its
+	 * operands are literals and it can be evaluated without errors, or the given
+	 * expression otherwise.
+	 */
+	private static Expression fold(Expression expression) {
+		if (expression instanceof AdditionExpression) {
+			AdditionExpression addition = (AdditionExpression) expression;
+			if (isLiteral(addition.getLeftOperand()) && isLiteral(addition.getRightOperand()))
+				return new DoubleLiteralExpression(valueOf(addition.getLeftOperand()) + valueOf(addition.getRightOperand()));
+		} else if (expression instanceof MultiplicationExpression) {
+			MultiplicationExpression multiplication = (MultiplicationExpression) expression;
+			if (isLiteral(multiplication.getLeftOperand()) && isLiteral(multiplication.getRightOperand()))
+				return new DoubleLiteralExpression(valueOf(multiplication.getLeftOperand()) * valueOf(multiplication.getRightOperand()));
+		} else if (expression instanceof SignChangeExpression) {
+			SignChangeExpression signChange = (SignChangeExpression) expression;
+			if (isLiteral(signChange.getOperand()))
+				return new DoubleLiteralExpression(- valueOf(signChange.getOperand()));
+		} else if (expression instanceof SqrtExpression) {
+			SqrtExpression sqrt = (SqrtExpression) expression;
+			if (isLiteral(sqrt.getOperand()) && valueOf(sqrt.getOperand()) >= 0)
+				return new DoubleLiteralExpression(Math.sqrt(valueOf(sqrt.getOperand())));
+		} else if (expression instanceof LessThanExpression) {
+			LessThanExpression lessThan = (LessThanExpression) expression;
+			if (isLiteral(lessThan.getLeftOperand()) && isLiteral(lessThan.getRightOperand()))
+				return new BooleanLiteralExpression(valueOf(lessThan.getLeftOperand()) < valueOf(lessThan.getRightOperand()));
+		} else if (expression instanceof EqualExpression) {
+			EqualExpression equal = (EqualExpression) expression;
+			Expression left = equal.getLeftOperand();
+			Expression right = equal.getRightOperand();
+			if (left instanceof DoubleLiteralExpression && right instanceof DoubleLiteralExpression)
+				return new BooleanLiteralExpression(valueOf(left) == valueOf(right));
+			if (left instanceof BooleanLiteralExpression && right instanceof BooleanLiteralExpression)
+				return new BooleanLiteralExpression(
+						((BooleanLiteralExpression) left).getValue() == ((BooleanLiteralExpression) right).getValue());
+		} else if (expression instanceof NegationExpression) {
+			NegationExpression negation = (NegationExpression) expression;
+			if (negation.getOperand() instanceof BooleanLiteralExpression)
+				return new BooleanLiteralExpression(! ((BooleanLiteralExpression) negation.getOperand()).getValue());
+		}
+		return expression;
+	}
+	
+	private static boolean isLiteral(Object expression) {
+		return expression instanceof DoubleLiteralExpression;
+	}
+	
+	private static double valueOf(Object literal) {
+		return ((DoubleLiteralExpression) literal).getValue();
+	}
+	
+	
+	//LOOPS
+	
+	/**
+	 * A while loop that is being optimized, with the expressions hoisted out of it.
+	 */
+	private class Loop {
+		
+		private Loop(Statement body) {
+			body.collectVariables(assigned);
+		}
+		
+		/**
+		 * The variables that are assigned in the body of this loop.
+		 */
+		private final Set<String> assigned = new HashSet<>();
+		
+		private final List<HoistedExpression> hoisted = new ArrayList<>();
+		
+		/**
+		 * Check whether the given expression is worth hoisting out of this loop:
+		 * arithmetic on variables that are not assigned in the loop.
+		 */
+		private boolean isHoistable(Expression expression) {
+			return expression instanceof DoubleExpression && !(expression instanceof VariableExpression)
+					&& readsVariables(expression) && isInvariant(expression);
+		}
+		
+		private boolean isInvariant(Object expression) {
+			if (expression instanceof DoubleLiteralExpression || expression instanceof HoistedExpression)
+				return true;
+			if (expression instanceof VariableExpression)
+				return !assigned.contains(((VariableExpression) expression).getName());
+			if (expression instanceof AdditionExpression || expression instanceof MultiplicationExpression) {
+				BinaryExpression binary = (BinaryExpression) expression;
+				return isInvariant(binary.getLeftOperand()) && isInvariant(binary.getRightOperand());
+			}
+			if (expression instanceof SignChangeExpression || expression instanceof SqrtExpression)
+				return isInvariant(((UnaryExpression) expression).getOperand());
+			return false;
+		}
+		
+		private boolean readsVariables(Object expression) {
+			if (expression instanceof VariableExpression)
+				return true;
+			if (expression instanceof BinaryExpression) {
+				BinaryExpression binary = (BinaryExpression) expression;
+				return readsVariables(binary.getLeftOperand()) || readsVariables(binary.getRightOperand());
+			}
+			if (expression instanceof UnaryExpression)
+				return readsVariables(((UnaryExpression) expression).getOperand());
+			return false;
+		}
+		
+		private HoistedExpression hoist(Expression expression) {
+			HoistedExpression result = new HoistedExpression("#hoisted" + nbHoisted++, (DoubleExpression) expression);
+			hoisted.add(result);
+			return result;
+		}
+	}
+	
+}
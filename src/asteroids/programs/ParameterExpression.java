@@ -1,11 +1,6 @@
 package asteroids.programs;
 
-import java.util.List;
-import java.util.Map;
-
-import asteroids.model.Program;
-
-public class ParameterExpression extends Expression {
+public class ParameterExpression extends Expression implements DoubleExpression, BooleanExpression {
 
 	public  ParameterExpression(String name){
 		this.setName(name);
@@ -24,9 +19,37 @@ public class ParameterExpression extends Expression {
 
 
 	@Override
-	protected Object getResult() {
+	public CompiledDouble compileDouble(Scope scope) {
+		return scope.compileParameter(this.getParameterNumber());
+	}
+
+	/**
+	 * Booleans are passed in the slots of doubles, as 1 or 0.
+	 */
+	@Override
+	public CompiledBoolean compileBoolean(Scope scope) {
+		CompiledDouble value = scope.compileParameter(this.getParameterNumber());
+		return program -> value.evaluate(program) != 0;
+	}
+
+	/**
+	 * A parameter has the type of the arguments passed to it.
+	 */
+	@Override
+	protected Type inferType(TypeChecker checker) {
+		return checker.getParameterType(this.getParameterNumber(), this.getSourceLocation());
+	}
 
-		return null;
+	@Override
+	protected CompiledExpression compile(Scope scope) {
+		switch (this.getType()) {
+		case DOUBLE:
+			return this.compileDouble(scope).boxed();
+		case BOOLEAN:
+			return this.compileBoolean(scope).boxed();
+		default:
+			return scope.compileParameterObject(this.getParameterNumber());
+		}
 	}
 
 	protected int getParameterNumber() {
@@ -1,18 +1,12 @@
 package asteroids.programs;
 
-import java.util.List;
-import java.util.Set;
-
 import asteroids.model.Planetoid;
 
 public class PlanetoidEntityExpression extends EntityExpression{
 
 	@Override
-	protected Object getResult() {
-		
-		Set<Planetoid> planetoids = getWorld().getSpecificEntities(Planetoid.class);
-		
-		return (Planetoid) this.getClosest(planetoids);
+	protected CompiledExpression compile(Scope scope) {
+		return compileCached(scope, program -> getWorld(program).getNearestEntity(program.getShip(), Planetoid.class));
 	}
 
 }
@@ -1,6 +1,6 @@
 package asteroids.programs;
 
-import java.util.List;
+import asteroids.model.Entity;
 
 public class PositionXExpression extends EntityPropertyExpression {
 
@@ -11,8 +11,10 @@ public class PositionXExpression extends EntityPropertyExpression {
 	}
 
 	@Override
-	protected Object getResult() {
-		return this.getOperandResultingEntity().getXPosition();
+	public CompiledDouble compileDouble(Scope scope) {
+		CompiledExpression operand = this.compileOperand(scope);
+
+		return program -> ((Entity) operand.evaluate(program)).getXPosition();
 	}
 
 }
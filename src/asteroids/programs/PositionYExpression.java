@@ -1,6 +1,6 @@
 package asteroids.programs;
 
-import java.util.List;
+import asteroids.model.Entity;
 
 public class PositionYExpression extends EntityPropertyExpression {
 
@@ -11,8 +11,10 @@ public class PositionYExpression extends EntityPropertyExpression {
 	}
 
 	@Override
-	protected Object getResult() {
-		return this.getOperandResultingEntity().getYPosition();
+	public CompiledDouble compileDouble(Scope scope) {
+		CompiledExpression operand = this.compileOperand(scope);
+
+		return program -> ((Entity) operand.evaluate(program)).getYPosition();
 	}
 
 }
@@ -21,18 +21,17 @@ public class PrintStatement extends Statement {
 
 
 	@Override
-	public void run() {
-		// TODO Auto-generated method stub ille
-		if (expression instanceof ParameterExpression)
-			throw new IllegalArgumentException();
-		
-		this.getExpression().setProgram(this.getProgram());
-		Object printResult = this.getExpression().getResult();
-		
-		this.getProgram().addToPrints(printResult);
-		System.out.println("RUN PRINTSTATEMENT: " + printResult);
+	protected void compile(CodeBuilder code) {
+		if (!code.getScope().isGlobal())
+			throw new IllegalArgumentException("Print in a function body");
+		CompiledExpression expression = this.getExpression().compile(code.getScope());
 
-		
+		code.emit(program -> program.addToPrints(expression.evaluate(program)));
+	}
+	
+	@Override
+	protected void check(TypeChecker checker) {
+		checker.check(this.getExpression());
 	}
 	
 
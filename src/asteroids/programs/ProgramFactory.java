@@ -9,289 +9,244 @@ import java.util.List;
 public class ProgramFactory<E, S, F, P> implements IProgramFactory<Expression, Statement, Function, Program> {
 
 	@Override
-	public Program createProgram(List<Function> functions, Statement main) { 
-		System.out.println("PROGRAMFACTORY CreateProgram");
+	public Program createProgram(List<Function> functions, Statement main) {
 		// TODO Auto-generated method stub
 		
 		return new Program(functions, main);
 	}
 
 	@Override
-	public Function createFunctionDefinition(String functionName, Statement body, SourceLocation sourceLocation) { System.out.println("PROGRAMFACTORY");
+	public Function createFunctionDefinition(String functionName, Statement body, SourceLocation sourceLocation) {
 		// TODO Auto-generated method stub
 		return new Function(functionName, body);
 	}
 
 	@Override
-	public Statement createAssignmentStatement(String variableName, Expression value, SourceLocation sourceLocation) { System.out.println("PROGRAMFACTORY");
+	public Statement createAssignmentStatement(String variableName, Expression value, SourceLocation sourceLocation) {
 		// TODO Auto-generated method stub
-		return new AssignmentStatement(variableName,value);
+		return located(new AssignmentStatement(variableName,value), sourceLocation);
 	}
 
 	@Override
-	public Statement createWhileStatement(Expression condition, Statement body, SourceLocation sourceLocation) { System.out.println("PROGRAMFACTORY");
-		try{
-			return new WhileStatement((BooleanExpression) condition, body);
-		} catch(ClassCastException e){
-			throw new IllegalArgumentException("no boolean");
-		}
+	public Statement createWhileStatement(Expression condition, Statement body, SourceLocation sourceLocation) {
+		return located(new WhileStatement(condition, body), sourceLocation);
 	}
 
 	@Override
-	public Statement createBreakStatement(SourceLocation sourceLocation) { System.out.println("PROGRAMFACTORY");
+	public Statement createBreakStatement(SourceLocation sourceLocation) {
 		// TODO Auto-generated method stub
-		return new BreakStatement();
+		return located(new BreakStatement(), sourceLocation);
 	}
 
 	@Override
-	public Statement createReturnStatement(Expression value, SourceLocation sourceLocation) { System.out.println("PROGRAMFACTORY");
+	public Statement createReturnStatement(Expression value, SourceLocation sourceLocation) {
 		// TODO Auto-generated method stub
-		return new ReturnStatement(value);
+		return located(new ReturnStatement(value), sourceLocation);
 	}
 
 	@Override
 	public Statement createIfStatement(Expression condition, Statement ifBody, Statement elseBody,
-			SourceLocation sourceLocation) { System.out.println("PROGRAMFACTORY");
-		try {
-			return new IfElseStatement((BooleanExpression) condition, ifBody, elseBody);
-		} catch (ClassCastException error) { System.out.println("PROGRAMFACTORY");
-			throw new IllegalArgumentException();
-		}
+			SourceLocation sourceLocation) {
+		return located(new IfElseStatement(condition, ifBody, elseBody), sourceLocation);
 	}
 
 	@Override
-	public Statement createPrintStatement(Expression value, SourceLocation sourceLocation) { System.out.println("PROGRAMFACTORY");
+	public Statement createPrintStatement(Expression value, SourceLocation sourceLocation) {
 		// TODO Auto-generated method stub
 		
-		return new PrintStatement(value);
+		return located(new PrintStatement(value), sourceLocation);
 	}
 
 	@Override
-	public Statement createSequenceStatement(List<Statement> statements, SourceLocation sourceLocation) { System.out.println("PROGRAMFACTORY");
+	public Statement createSequenceStatement(List<Statement> statements, SourceLocation sourceLocation) {
 		// TODO Auto-generated method stub
-		return new BlockStatement(statements);
+		return located(new BlockStatement(statements), sourceLocation);
 	}
 
 	@Override
-	public Expression createReadVariableExpression(String variableName, SourceLocation sourceLocation) { System.out.println("PROGRAMFACTORY");
+	public Expression createReadVariableExpression(String variableName, SourceLocation sourceLocation) {
 		// TODO Auto-generated method stub
-		return new VariableExpression(variableName);
+		return located(new VariableExpression(variableName), sourceLocation);
 	}
 
 	@Override
-	public Expression createReadParameterExpression(String parameterName, SourceLocation sourceLocation) { System.out.println("PROGRAMFACTORY");
+	public Expression createReadParameterExpression(String parameterName, SourceLocation sourceLocation) {
 		// TODO Auto-generated method stub
-		return new ParameterExpression(parameterName);
+		return located(new ParameterExpression(parameterName), sourceLocation);
 	}
 
 	@Override
 	public Expression createFunctionCallExpression(String functionName, List<Expression> actualArgs,
-			SourceLocation sourceLocation) { System.out.println("PROGRAMFACTORY");
-		return new FunctionExpression(functionName, actualArgs);
+			SourceLocation sourceLocation) {
+		return located(new FunctionExpression(functionName, actualArgs), sourceLocation);
 	}
 
 	@Override
-	public Expression createChangeSignExpression(Expression expression, SourceLocation sourceLocation) { System.out.println("PROGRAMFACTORY");
-		try {
-			return new SignChangeExpression((DoubleExpression) expression);
-		} catch (ClassCastException e) {
-			throw new IllegalArgumentException("You've made a negation with a non-arithmetic expression");
-		}
+	public Expression createChangeSignExpression(Expression expression, SourceLocation sourceLocation) {
+		return located(new SignChangeExpression(expression), sourceLocation);
 	}
 
 	@Override
-	public Expression createNotExpression(Expression expression, SourceLocation sourceLocation) { System.out.println("PROGRAMFACTORY");
-		try{
-			return new NegationExpression((BooleanExpression) expression);
-		} catch(ClassCastException e){
-			throw new IllegalArgumentException("no boolean value");
-		}
+	public Expression createNotExpression(Expression expression, SourceLocation sourceLocation) {
+		return located(new NegationExpression(expression), sourceLocation);
 	}
 
 	@Override
-	public Expression createDoubleLiteralExpression(double value, SourceLocation location) { System.out.println("PROGRAMFACTORY");
+	public Expression createDoubleLiteralExpression(double value, SourceLocation location) {
 		// TODO Auto-generated method stub
-		return new DoubleLiteralExpression(value);
+		return located(new DoubleLiteralExpression(value), location);
 	}
 
 	@Override
-	public Expression createNullExpression(SourceLocation location) { System.out.println("PROGRAMFACTORY");
+	public Expression createNullExpression(SourceLocation location) {
 		// TODO Auto-generated method stub
-		return new NullExpression();
+		return located(new NullExpression(), location);
 	}
 
 	@Override
-	public Expression createSelfExpression(SourceLocation location) { System.out.println("PROGRAMFACTORY");
+	public Expression createSelfExpression(SourceLocation location) {
 		// TODO Auto-generated method stub
-		return new SelfExpression();
+		return located(new SelfExpression(), location);
 	}
 
 	@Override
-	public Expression createShipExpression(SourceLocation location) { System.out.println("PROGRAMFACTORY");
+	public Expression createShipExpression(SourceLocation location) {
 		// TODO Auto-generated method stub
-		return new ShipEntityExpression();
+		return located(new ShipEntityExpression(), location);
 	}
 
 	@Override
-	public Expression createAsteroidExpression(SourceLocation location) { System.out.println("PROGRAMFACTORY");
+	public Expression createAsteroidExpression(SourceLocation location) {
 		// TODO Auto-generated method stub
-		return new AsteroidEntityExpression();
+		return located(new AsteroidEntityExpression(), location);
 	}
 
 	@Override
-	public Expression createPlanetoidExpression(SourceLocation location) { System.out.println("PROGRAMFACTORY");
+	public Expression createPlanetoidExpression(SourceLocation location) {
 		// TODO Auto-generated method stub
-		return new PlanetoidEntityExpression();
+		return located(new PlanetoidEntityExpression(), location);
 	}
 
 	@Override
-	public Expression createBulletExpression(SourceLocation location) { System.out.println("PROGRAMFACTORY");
+	public Expression createBulletExpression(SourceLocation location) {
 		// TODO Auto-generated method stub
-		return new BulletEntityExpression();
+		return located(new BulletEntityExpression(), location);
 	}
 
 	@Override
-	public Expression createPlanetExpression(SourceLocation location) { System.out.println("PROGRAMFACTORY");
+	public Expression createPlanetExpression(SourceLocation location) {
 		// TODO Auto-generated method stub
-		return new PlanetEntityExpression();
+		return located(new PlanetEntityExpression(), location);
 	}
 
 	@Override
-	public Expression createAnyExpression(SourceLocation location) { System.out.println("PROGRAMFACTORY");
+	public Expression createAnyExpression(SourceLocation location) {
 		// TODO Auto-generated method stub
-		return new AnyEntityExpression();
+		return located(new AnyEntityExpression(), location);
 	}
 
 	@Override
-	public Expression createGetXExpression(Expression e, SourceLocation location) { System.out.println("PROGRAMFACTORY");
-		try {
-			return new PositionXExpression(e);
-		} catch (IllegalArgumentException exception) {
-			throw new IllegalArgumentException("no entity");
-		}
+	public Expression createGetXExpression(Expression e, SourceLocation location) {
+		return located(new PositionXExpression(e), location);
 	}
 
 	@Override
-	public Expression createGetYExpression(Expression e, SourceLocation location) { System.out.println("PROGRAMFACTORY");
-		try {
-			return new PositionYExpression(e);
-		} catch (IllegalArgumentException exception) {
-			throw new IllegalArgumentException("no entity");
-		}
+	public Expression createGetYExpression(Expression e, SourceLocation location) {
+		return located(new PositionYExpression(e), location);
 	}
 
 	@Override
-	public Expression createGetVXExpression(Expression e, SourceLocation location) { System.out.println("PROGRAMFACTORY");
-		try {
-			return new VelocityXExpression(e);
-		} catch (IllegalArgumentException exception) {
-			throw new IllegalArgumentException("no entity");
-		}
+	public Expression createGetVXExpression(Expression e, SourceLocation location) {
+		return located(new VelocityXExpression(e), location);
 	}
 
 	@Override
-	public Expression createGetVYExpression(Expression e, SourceLocation location) { System.out.println("PROGRAMFACTORY");
-		try {
-			return new VelocityYExpression(e);
-		} catch (IllegalArgumentException exception) {
-			throw new IllegalArgumentException("no entity");
-		}
+	public Expression createGetVYExpression(Expression e, SourceLocation location) {
+		return located(new VelocityYExpression(e), location);
 	}
 
 	@Override
 	public Expression createGetRadiusExpression(
-			Expression e, SourceLocation location) { 
-		System.out.println("PROGRAMFACTORY radiusexp");
-		try {
-			return new RadiusExpression(e);
-		} catch (IllegalArgumentException exception) {
-			throw new IllegalArgumentException("not an entity");
-		}
+			Expression e, SourceLocation location) {
+		return located(new RadiusExpression(e), location);
 	}
 
 	@Override
-	public Expression createLessThanExpression(Expression e1, Expression e2, SourceLocation location) { 
-		System.out.println("PROGRAMFACTORY createLessThanExpression");
-	try {
-
-		System.out.println(e1);
-		System.out.println(e2);
-
-		return new LessThanExpression((DoubleExpression) e1, (DoubleExpression) e2);
-	} catch (ClassCastException e) {
-		throw new IllegalArgumentException("");
-	}
+	public Expression createLessThanExpression(Expression e1, Expression e2, SourceLocation location) {
+		return located(new LessThanExpression(e1, e2), location);
 	}
 
 	@Override
-	public Expression createEqualityExpression(Expression e1, Expression e2, SourceLocation location) { System.out.println("PROGRAMFACTORY");
+	public Expression createEqualityExpression(Expression e1, Expression e2, SourceLocation location) {
 		// TODO Auto-generated method stub
-		return new EqualExpression(e1, e2);
+		return located(new EqualExpression(e1, e2), location);
 	}
 
 	@Override
-	public Expression createAdditionExpression(Expression e1, Expression e2, SourceLocation location) { System.out.println("PROGRAMFACTORY");
+	public Expression createAdditionExpression(Expression e1, Expression e2, SourceLocation location) {
 		// TODO Auto-generated method stub
-		try{
-			return new AdditionExpression((DoubleExpression) e1, (DoubleExpression) e2);
-		} catch (ClassCastException e) {
-			throw new IllegalArgumentException();
-		}
+		return located(new AdditionExpression(e1, e2), location);
 	}
 
 	@Override
-	public Expression createMultiplicationExpression(Expression e1, Expression e2, SourceLocation location) { System.out.println("PROGRAMFACTORY");
+	public Expression createMultiplicationExpression(Expression e1, Expression e2, SourceLocation location) {
 		// TODO Auto-generated method stub
-	try{
-		return new MultiplicationExpression((DoubleExpression) e1, (DoubleExpression) e2);
-	} catch (ClassCastException e) {
-		throw new IllegalArgumentException();
-	}
+		return located(new MultiplicationExpression(e1, e2), location);
 	}
 
 	@Override
-	public Expression createSqrtExpression(Expression e, SourceLocation location) { System.out.println("PROGRAMFACTORY");
-	try {
-		return new SqrtExpression((DoubleExpression) e);
-	} catch (ClassCastException f) {
-		throw new IllegalArgumentException("non artihmetic");
-}
+	public Expression createSqrtExpression(Expression e, SourceLocation location) {
+		return located(new SqrtExpression(e), location);
 	}
 
 	@Override
-	public Expression createGetDirectionExpression(SourceLocation location) { System.out.println("PROGRAMFACTORY");
+	public Expression createGetDirectionExpression(SourceLocation location) {
 		// TODO Auto-generated method stub
-		return new DirectionExpression();
+		return located(new DirectionExpression(), location);
 	}
 
 	@Override
-	public Statement createThrustOnStatement(SourceLocation location) { System.out.println("PROGRAMFACTORY");
+	public Statement createThrustOnStatement(SourceLocation location) {
 		// TODO Auto-generated method stub
-		return new EnableThrust();
+		return new EnableThrust(location);
 	}
 
 	@Override
-	public Statement createThrustOffStatement(SourceLocation location) { System.out.println("PROGRAMFACTORY");
+	public Statement createThrustOffStatement(SourceLocation location) {
 		// TODO Auto-generated method stub
 		return new DisableThrust(location);
 	}
 
 	@Override
-	public Statement createFireStatement(SourceLocation location) { System.out.println("PROGRAMFACTORY");
+	public Statement createFireStatement(SourceLocation location) {
 		// TODO Auto-generated method stub
-		return new FireAction();
+		return new FireAction(location);
 	}
 
 	@Override
-	public Statement createTurnStatement(Expression angle, SourceLocation location) { 
-		System.out.println("PROGRAMFACTORY TURNACTION");
-
-		return new TurnAction(angle);
+	public Statement createTurnStatement(Expression angle, SourceLocation location) {
+		return located(new TurnAction(angle), location);
 	}
 
 	@Override
-	public Statement createSkipStatement(SourceLocation location) { System.out.println("PROGRAMFACTORY");
+	public Statement createSkipStatement(SourceLocation location) {
 		// TODO Auto-generated method stub
 		return new SkipAction(location);
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Return the given statement, after setting its location in the source code.
+	 */
+	private static Statement located(Statement statement, SourceLocation location) {
+		statement.setSourceLocation(location);
+		return statement;
+	}
+	
+	/**
+	 * Return the given expression, after setting its location in the source code.
+	 */
+	private static Expression located(Expression expression, SourceLocation location) {
+		expression.setSourceLocation(location);
+		return expression;
+	}
+}
@@ -0,0 +1,58 @@
+package asteroids.programs;
+
+import asteroids.model.World;
+
+/**
+ * The results of the entity queries of a program, each in a slot resolved when
+ * the program is compiled.
+ * 
+ * A result is only valid for the world and the version of that world in which
+ * it was computed. Each world increases its version on any change to itself or
+ * to its entities, so a valid result is always exact.
+ */
+public class QueryCache {
+
+	public QueryCache(int nbSlots) {
+		this.worlds = new World[nbSlots];
+		this.versions = new long[nbSlots];
+		this.values = new Object[nbSlots];
+	}
+	
+	private final World[] worlds;
+	private final long[] versions;
+	private final Object[] values;
+	
+	public int getNbSlots() {
+		return this.values.length;
+	}
+	
+	/**
+	 * Check whether the given slot holds a result for the current version of the
+	 * given world.
+	 */
+	public boolean isValid(int slot, World world) {
+		return worlds[slot] == world && world != null && versions[slot] == world.getVersion();
+	}
+	
+	public Object get(int slot) {
+		return values[slot];
+	}
+	
+	/**
+	 * Store the given result in the given slot, for the current version of the
+	 * given world.
+	 */
+	public void set(int slot, World world, Object value) {
+		worlds[slot] = world;
+		versions[slot] = world.getVersion();
+		values[slot] = value;
+	}
+	
+	public void clear() {
+		for (int slot = 0; slot < getNbSlots(); slot++) {
+			worlds[slot] = null;
+			values[slot] = null;
+		}
+	}
+	
+}
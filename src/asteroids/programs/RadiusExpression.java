@@ -1,6 +1,6 @@
 package asteroids.programs;
 
-import java.util.List;
+import asteroids.model.Entity;
 
 public class RadiusExpression extends EntityPropertyExpression {
 
@@ -11,9 +11,10 @@ public class RadiusExpression extends EntityPropertyExpression {
 	}
 
 	@Override
-	protected Object getResult() {
-		
-		return this.getOperandResultingEntity().getRadius();
+	public CompiledDouble compileDouble(Scope scope) {
+		CompiledExpression operand = this.compileOperand(scope);
+
+		return program -> ((Entity) operand.evaluate(program)).getRadius();
 	}
 
 }
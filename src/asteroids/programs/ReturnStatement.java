@@ -1,19 +1,55 @@
 package asteroids.programs;
 
-import java.util.List;
-
 public class ReturnStatement extends Statement {
 	
 	public ReturnStatement(Expression value) {
-		// TODO Auto-generated constructor stub
+		setValue(value);
+	}
+	
+	
+	//VALUE
+	private Expression value;
+	
+	public Expression getValue(){
+		return this.value;
+	}
+	
+	public void setValue(Expression value){
+		this.value = value;
 	}
 
 
-
 	@Override
-	public void run() {
-		throw new IllegalArgumentException();
-		
+	protected void compile(CodeBuilder code) {
+		if (code.getScope().isGlobal())
+			throw new IllegalArgumentException("Return outside a function body");
+		switch (this.getValue().getType()) {
+		case DOUBLE:
+			CompiledDouble value = DoubleExpression.compileDouble(this.getValue(), code.getScope());
+			code.emit((program, pc) -> {
+				program.getCallStack().setReturnValue(value.evaluate(program));
+				return Instruction.RETURN;
+			});
+			break;
+		case BOOLEAN:
+			CompiledBoolean condition = BooleanExpression.compileBoolean(this.getValue(), code.getScope());
+			code.emit((program, pc) -> {
+				program.getCallStack().setReturnValue(condition.evaluate(program) ? 1 : 0);
+				return Instruction.RETURN;
+			});
+			break;
+		default:
+			CompiledExpression entity = this.getValue().compile(code.getScope());
+			code.emit((program, pc) -> {
+				program.getCallStack().setReturnObject(entity.evaluate(program));
+				return Instruction.RETURN;
+			});
+		}
+	}
+	
+	@Override
+	protected void check(TypeChecker checker) {
+		checker.returns(checker.check(this.getValue()), this.getSourceLocation());
 	}
 
 }
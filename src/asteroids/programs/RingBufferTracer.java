@@ -0,0 +1,118 @@
+package asteroids.programs;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import asteroids.model.Program;
+import asteroids.part3.programs.SourceLocation;
+
+/**
+ * A tracer that records the most recent events of a program in a buffer of a
+ * fixed capacity, for post-mortem dumps. Recording an event does not allocate:
+ * once the buffer is full, each event overwrites the oldest one.
+ * 
+ * A ring buffer tracer is not thread-safe; it should trace a single program.
+ */
+public class RingBufferTracer implements Tracer {
+
+	public enum Kind {
+		STATEMENT, ACTION, SUSPEND
+	}
+	
+	/**
+	 * Initialize this new tracer with the given capacity.
+	 * 
+	 * @throws IllegalArgumentException
+	 *         The given capacity is not positive.
+	 */
+	public RingBufferTracer(int capacity) throws IllegalArgumentException {
+		if (capacity <= 0)
+			throw new IllegalArgumentException("Invalid capacity: " + capacity);
+		this.kinds = new Kind[capacity];
+		this.locations = new SourceLocation[capacity];
+		this.timesLeft = new double[capacity];
+	}
+	
+	
+	//BUFFER
+	private final Kind[] kinds;
+	private final SourceLocation[] locations;
+	private final double[] timesLeft;
+	
+	/**
+	 * The total number of events that have been recorded.
+	 */
+	private long nbRecorded = 0;
+	
+	public int getCapacity() {
+		return this.kinds.length;
+	}
+	
+	/**
+	 * Return the number of events in the buffer.
+	 */
+	public int getNbEvents() {
+		return (int) Math.min(nbRecorded, getCapacity());
+	}
+	
+	public long getNbRecorded() {
+		return this.nbRecorded;
+	}
+	
+	public void clear() {
+		this.nbRecorded = 0;
+	}
+	
+	private void record(Kind kind, Program program, SourceLocation location) {
+		int index = (int) (nbRecorded % getCapacity());
+		kinds[index] = kind;
+		locations[index] = location;
+		timesLeft[index] = program.getTimeLeft();
+		nbRecorded++;
+	}
+	
+	
+	//EVENTS
+	
+	@Override
+	public void statement(Program program, SourceLocation location) {
+		record(Kind.STATEMENT, program, location);
+	}
+	
+	@Override
+	public void action(Program program, SourceLocation location) {
+		record(Kind.ACTION, program, location);
+	}
+	
+	@Override
+	public void suspend(Program program, SourceLocation location) {
+		record(Kind.SUSPEND, program, location);
+	}
+	
+	
+	//DUMP
+	
+	/**
+	 * Return the events in the buffer, oldest first, each as its kind, the
+	 * location of its statement and the time the program had left.
+	 */
+	public List<String> getEvents() {
+		List<String> result = new ArrayList<>();
+		long first = nbRecorded - getNbEvents();
+		for (long i = first; i < nbRecorded; i++) {
+			int index = (int) (i % getCapacity());
+			result.add(kinds[index] + " " + locations[index] + " " + timesLeft[index]);
+		}
+		return result;
+	}
+	
+	/**
+	 * Print the events in the buffer, oldest first, to the given stream.
+	 */
+	public void dump(PrintStream out) {
+		for (String event : getEvents())
+			out.println(event);
+	}
+	
+}
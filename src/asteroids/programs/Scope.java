@@ -0,0 +1,245 @@
+package asteroids.programs;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * The variables of a program or of a function body, each resolved to a fixed
+ * slot when the program is compiled.
+ * 
+ * A variable belongs to the scope of the program or function body in which it
+ * is assigned. Global variables are stored in an array of the program; local
+ * variables in the frame of each call on the call stack of the program. Reading
+ * a variable that is not assigned in the scope of its function, nor globally,
+ * is an error when the program is compiled, and so is calling a function that
+ * is not defined.
+ */
+public class Scope {
+
+	/**
+	 * Create the global scope of a program with the given main statement and
+	 * functions. Each function is resolved to its index in the given list.
+	 * 
+	 * @throws IllegalArgumentException
+	 *         A global variable has the same name as a function.
+	 */
+	public static Scope createGlobalScope(Statement main, List<Function> functions)
+			throws IllegalArgumentException {
+		Scope scope = new Scope(null, main);
+		scope.functions = new HashMap<>();
+		for (Function function : functions)
+			scope.functions.put(function.getName(), scope.functions.size());
+		for (String name : scope.slots.keySet())
+			if (scope.functions.containsKey(name))
+				throw new IllegalArgumentException("Variable " + name + " is already used for a function");
+		return scope;
+	}
+	
+	/**
+	 * Create the local scope of a function with the given body.
+	 */
+	public static Scope createLocalScope(Scope globals, Statement body) {
+		return new Scope(globals, body);
+	}
+	
+	private Scope(Scope globals, Statement statement) {
+		this.globals = globals;
+		Set<String> names = new LinkedHashSet<>();
+		statement.collectVariables(names);
+		for (String name : names)
+			slots.put(name, slots.size());
+	}
+	
+	
+	//SLOTS
+	private final Scope globals;
+	private final Map<String, Integer> slots = new HashMap<>();
+	
+	public boolean isGlobal() {
+		return this.globals == null;
+	}
+	
+	/**
+	 * Return the number of variables in this scope.
+	 */
+	public int getNbSlots() {
+		return slots.size();
+	}
+	
+	
+	//FUNCTIONS
+	private Map<String, Integer> functions;
+	
+	/**
+	 * Return the index of the function with the given name among the compiled
+	 * functions of the program.
+	 * 
+	 * @throws IllegalArgumentException
+	 *         There is no function with the given name.
+	 */
+	public int getFunctionIndex(String name) throws IllegalArgumentException {
+		if (!isGlobal())
+			return globals.getFunctionIndex(name);
+		Integer index = functions.get(name);
+		if (index == null)
+			throw new IllegalArgumentException("Undefined function " + name);
+		return index;
+	}
+	
+	
+	//QUERIES
+	
+	/**
+	 * The number of query slots of the program, which are shared by the global
+	 * scope and all local scopes.
+	 */
+	private int nbQuerySlots = 0;
+	
+	/**
+	 * Return a new slot in the query cache of the program.
+	 */
+	public int newQuerySlot() {
+		if (!isGlobal())
+			return globals.newQuerySlot();
+		return nbQuerySlots++;
+	}
+	
+	public int getNbQuerySlots() {
+		if (!isGlobal())
+			return globals.getNbQuerySlots();
+		return nbQuerySlots;
+	}
+	
+	
+	//COMPILE
+	
+	/**
+	 * Compile a read of the variable with the given name.
+	 * 
+	 * @throws IllegalArgumentException
+	 *         There is no variable with the given name in this scope, nor globally.
+	 */
+	public CompiledDouble compileRead(String name) throws IllegalArgumentException {
+		Integer slot = slots.get(name);
+		if (slot == null) {
+			if (isGlobal())
+				throw new IllegalArgumentException("Undefined variable " + name);
+			return globals.compileRead(name);
+		}
+		int index = slot;
+		if (isGlobal())
+			return program -> program.getGlobals().get(index);
+		else
+			return program -> program.getCallStack().get(index);
+	}
+	
+	/**
+	 * Compile a write of the value of the given expression to the variable with
+	 * the given name in this scope.
+	 */
+	public CompiledStatement compileWrite(String name, CompiledDouble value) {
+		int index = slots.get(name);
+		if (isGlobal())
+			return program -> program.getGlobals().set(index, value.evaluate(program));
+		else
+			return program -> program.getCallStack().set(index, value.evaluate(program));
+	}
+	
+	/**
+	 * Compile a read of the entity in the variable with the given name.
+	 * 
+	 * @throws IllegalArgumentException
+	 *         There is no variable with the given name in this scope, nor globally.
+	 */
+	public CompiledExpression compileReadObject(String name) throws IllegalArgumentException {
+		Integer slot = slots.get(name);
+		if (slot == null) {
+			if (isGlobal())
+				throw new IllegalArgumentException("Undefined variable " + name);
+			return globals.compileReadObject(name);
+		}
+		int index = slot;
+		if (isGlobal())
+			return program -> program.getGlobals().getObject(index);
+		else
+			return program -> program.getCallStack().getObject(index);
+	}
+	
+	/**
+	 * Compile a write of the entity that the given expression evaluates to, to the
+	 * variable with the given name in this scope.
+	 */
+	public CompiledStatement compileWriteObject(String name, CompiledExpression value) {
+		int index = slots.get(name);
+		if (isGlobal())
+			return program -> program.getGlobals().setObject(index, value.evaluate(program));
+		else
+			return program -> program.getCallStack().setObject(index, value.evaluate(program));
+	}
+	
+	/**
+	 * Compile a read of the parameter with the given number.
+	 * 
+	 * @throws IllegalArgumentException
+	 *         This scope is not the scope of a function body.
+	 */
+	public CompiledDouble compileParameter(int number) throws IllegalArgumentException {
+		if (isGlobal())
+			throw new IllegalArgumentException("Parameter $" + number + " outside a function body");
+		return program -> program.getCallStack().getParameter(number);
+	}
+	
+	/**
+	 * Compile a read of the parameter with the given number, of type entity.
+	 * 
+	 * @throws IllegalArgumentException
+	 *         This scope is not the scope of a function body.
+	 */
+	public CompiledExpression compileParameterObject(int number) throws IllegalArgumentException {
+		if (isGlobal())
+			throw new IllegalArgumentException("Parameter $" + number + " outside a function body");
+		return program -> program.getCallStack().getParameterObject(number);
+	}
+	
+	/**
+	 * Compile a read of the hidden variable with the given name, that is first
+	 * assigned the value of the given expression if it has no value yet.
+	 */
+	public CompiledDouble compileCached(String name, CompiledDouble value) {
+		int index = slots.get(name);
+		if (isGlobal())
+			return program -> {
+				VariableSlots slots = program.getGlobals();
+				if (slots.isAssigned(index))
+					return slots.get(index);
+				double result = value.evaluate(program);
+				slots.set(index, result);
+				return result;
+			};
+		return program -> {
+			CallStack stack = program.getCallStack();
+			if (stack.isAssigned(index))
+				return stack.get(index);
+			double result = value.evaluate(program);
+			stack.set(index, result);
+			return result;
+		};
+	}
+	
+	/**
+	 * Compile a statement that removes the value of the hidden variable with the
+	 * given name.
+	 */
+	public CompiledStatement compileClear(String name) {
+		int index = slots.get(name);
+		if (isGlobal())
+			return program -> program.getGlobals().clear(index);
+		return program -> program.getCallStack().clear(index);
+	}
+	
+}
+
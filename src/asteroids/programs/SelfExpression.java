@@ -6,9 +6,8 @@ public class SelfExpression extends EntityExpression{
 
 
 	@Override
-	protected Object getResult() {
-		// TODO Auto-generated method stub
-		return this.getShip();
+	protected CompiledExpression compile(Scope scope) {
+		return program -> program.getShip();
 	}
 
 }
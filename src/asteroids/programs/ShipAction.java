@@ -0,0 +1,32 @@
+package asteroids.programs;
+
+import asteroids.model.Ship;
+
+/**
+ * The effect of an action of a program on its ship, with all its arguments
+ * evaluated. A program performs its actions on its ship right away, unless it
+ * is scheduled together with other programs, in which case the actions are
+ * performed at the end of the tick.
+ */
+@FunctionalInterface
+public interface ShipAction {
+
+	void perform(Ship ship);
+	
+	/**
+	 * Return the orientation of a ship with the given orientation, once this action
+	 * is performed on it.
+	 */
+	default double getOrientationAfter(double orientation) {
+		return orientation;
+	}
+	
+	/**
+	 * Check whether this action changes the world of the ship beyond the ship
+	 * itself, in a way other programs can see, so that it cannot be deferred.
+	 */
+	default boolean changesWorld() {
+		return false;
+	}
+
+}
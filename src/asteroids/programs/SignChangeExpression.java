@@ -2,21 +2,30 @@ package asteroids.programs;
 
 import java.util.List;
 
-public class SignChangeExpression extends UnaryExpression<DoubleExpression> implements DoubleExpression {
+public class SignChangeExpression extends UnaryExpression implements DoubleExpression {
 
 	
-	protected SignChangeExpression(DoubleExpression operand) {
+	protected SignChangeExpression(Expression operand) {
 		super(operand);
 		// TODO Auto-generated constructor stub
 	}
 
 	@Override
-	protected Object getResult() {
-		// TODO Auto-generated method stub
-		
-		Double operand = (Double) this.getOperandResult();
-		
-		return - operand;
+	public CompiledDouble compileDouble(Scope scope) {
+		CompiledDouble operand = DoubleExpression.compileDouble(this.getOperand(), scope);
+
+		return program -> - operand.evaluate(program);
+	}
+
+	@Override
+	protected Type inferType(TypeChecker checker) {
+		checker.expect(this.getOperand(), Type.DOUBLE);
+		return Type.DOUBLE;
+	}
+
+	@Override
+	protected CompiledExpression compile(Scope scope) {
+		return this.compileDouble(scope).boxed();
 	}
 
 
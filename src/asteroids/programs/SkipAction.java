@@ -1,9 +1,5 @@
 package asteroids.programs;
 
-import asteroids.model.Program;
-import asteroids.model.exceptions.IllegalPositionException;
-import asteroids.model.exceptions.IllegalRadiusException;
-import asteroids.model.exceptions.IllegalShipException;
 import asteroids.part3.programs.SourceLocation;
 
 class SkipAction extends ActionStatement {
@@ -11,15 +7,16 @@ class SkipAction extends ActionStatement {
 	/// CONSTRUCTOR ///
 	
 	public SkipAction(SourceLocation location) {
-		System.out.println("SKIPACTION");
-		//setSourceLocation(location);
+		setSourceLocation(location);
 	}
 
 	@Override
-	public void executeAction(Program program)
-			throws IllegalPositionException, IllegalRadiusException, IllegalShipException {
-		//do nothing		
+	protected CompiledAction compileAction(Scope scope) {
+		return program -> SKIP;
 	}
+	
+	//do nothing
+	private static final ShipAction SKIP = ship -> {};
 
 
 }
\ No newline at end of file
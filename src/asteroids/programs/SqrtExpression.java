@@ -2,23 +2,36 @@ package asteroids.programs;
 
 import java.util.List;
 
-public class SqrtExpression extends UnaryExpression<DoubleExpression> implements DoubleExpression{
+public class SqrtExpression extends UnaryExpression implements DoubleExpression{
 
 
-	protected SqrtExpression(DoubleExpression operand) {
+	protected SqrtExpression(Expression operand) {
 		super(operand);
 		// TODO Auto-generated constructor stub
 	}
 
 	@Override
-	protected Object getResult() {
-		
-		Double operandResult = (Double) this.getOperandResult();
-		
-		if (operandResult >= 0)
-			return Math.sqrt(operandResult);
-		else
-			throw new IllegalArgumentException();
+	public CompiledDouble compileDouble(Scope scope) {
+		CompiledDouble operand = DoubleExpression.compileDouble(this.getOperand(), scope);
+
+		return program -> {
+			double operandResult = operand.evaluate(program);
+			if (operandResult >= 0)
+				return Math.sqrt(operandResult);
+			else
+				throw new IllegalArgumentException();
+		};
+	}
+
+	@Override
+	protected Type inferType(TypeChecker checker) {
+		checker.expect(this.getOperand(), Type.DOUBLE);
+		return Type.DOUBLE;
+	}
+
+	@Override
+	protected CompiledExpression compile(Scope scope) {
+		return this.compileDouble(scope).boxed();
 	}
 
 }
@@ -1,71 +1,47 @@
 package asteroids.programs;
 
 import java.util.List;
+import java.util.Set;
 
-import asteroids.model.Program;
-import asteroids.model.Ship;
+import asteroids.part3.programs.SourceLocation;
 
 public abstract class Statement {
 
 
-	public void runAt(Bookmark bookmark){
-		System.out.println("STATEMENT " + this +" Runat");
-
-		if(bookmark.getFailedAction() == null){
-			System.out.println("STATEMENT > failedAction is null, RUN STATEMENT from beginning ");
-			this.run();
-		} else {
-			System.out.println("STATEMENT > failedAction not null, RUN STATEMENT from navigate ");
-
-			this.navigateToAction(bookmark);
-		}
-
-	}
-	
-	
-
-	//RUN
-	public abstract void run();
-	
+	//COMPILE
 	
-	//PROGRAM
-	private Program program;
+	/**
+	 * Compile this statement into instructions at the end of the given code.
+	 */
+	protected abstract void compile(CodeBuilder code);
 	
-	public Program getProgram(){
-		return program;
+	/**
+	 * Add the names of all variables that are assigned in this statement to the
+	 * given set.
+	 */
+	protected void collectVariables(Set<String> names) {
 	}
 	
-	public void setProgram(Program program){
-		this.program = program;
-		
+	/**
+	 * Check the types of the expressions in this statement with the given checker.
+	 */
+	protected void check(TypeChecker checker) {
 	}
 	
 	
-	//SHIP
-	public Ship getShip(){
-		return this.getProgram().getShip();
-	}
+	//SOURCE LOCATION
+	private SourceLocation sourceLocation;
 	
-
-	public boolean navigateToAction(Bookmark bookmark) {
-		Boolean failedIsThis = (bookmark.getFailedAction() == this);
-		System.out.println("SIMPEL STATEMENT > NAVIGATETOACTION, failedAction is this: " + failedIsThis);
-		return (failedIsThis);
-		
+	/**
+	 * Return the location of this statement in the source code of its program,
+	 * or null if it is not known.
+	 */
+	public SourceLocation getSourceLocation(){
+		return sourceLocation;
 	}
 	
-	
-	
-	
-	
-	
-	
-	
-	
-	
-	
-	
-	
-	
+	public void setSourceLocation(SourceLocation sourceLocation){
+		this.sourceLocation = sourceLocation;
+	}
 	
 }
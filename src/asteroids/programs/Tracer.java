@@ -0,0 +1,39 @@
+package asteroids.programs;
+
+import asteroids.model.Program;
+import asteroids.part3.programs.SourceLocation;
+
+/**
+ * A listener for the execution of a program, for debugging.
+ * 
+ * Programs are executed without any tracing as long as their tracer is NONE:
+ * the interpreter then runs a loop that does not consult the tracer at all, so
+ * the default tracer costs nothing.
+ */
+public interface Tracer {
+
+	/**
+	 * A tracer that ignores all events.
+	 */
+	Tracer NONE = new Tracer() {};
+	
+	/**
+	 * The program starts or resumes executing the statement at the given location.
+	 */
+	default void statement(Program program, SourceLocation location) {
+	}
+	
+	/**
+	 * The program has performed the action at the given location.
+	 */
+	default void action(Program program, SourceLocation location) {
+	}
+	
+	/**
+	 * The program suspends, before the action at the given location, until it
+	 * has enough time left to perform it.
+	 */
+	default void suspend(Program program, SourceLocation location) {
+	}
+	
+}
@@ -1,9 +1,6 @@
 package asteroids.programs;
 
-import asteroids.model.Program;
-import asteroids.model.exceptions.IllegalPositionException;
-import asteroids.model.exceptions.IllegalRadiusException;
-import asteroids.model.exceptions.IllegalShipException;
+import asteroids.model.Ship;
 import asteroids.programs.ActionStatement;
 
 class TurnAction extends ActionStatement {
@@ -11,7 +8,6 @@ class TurnAction extends ActionStatement {
 	/// CONSTRUCTOR ///
 
 	public TurnAction(Expression angle) {
-		System.out.println("TURN ACTION with angle: " + angle.getResult());
 		setAngle(angle);
 	}
 
@@ -19,35 +15,60 @@ class TurnAction extends ActionStatement {
 	//ANGLE
 	private Expression angle;
 	
-	private Expression getAngle() {
+	Expression getAngle() {
 		return angle;
 	}
 
-	private void setAngle(Expression angle) {
+	void setAngle(Expression angle) {
 		this.angle = angle;
-		System.out.println("angle set as: " + angle.getResult());
-
 	}
 
 	
+	//CHECK
+	@Override
+	protected void check(TypeChecker checker) {
+		checker.expect(this.getAngle(), Type.DOUBLE);
+	}
+	
+	
 	//EXECTUTE
 	@Override
-	public void executeAction(Program program) 
-			throws IllegalPositionException, IllegalRadiusException, IllegalShipException
-	{
-		System.out.println("EXECUTING TURN ACTION, program is: " + program);
-		Double angleValue = (Double) this.getAngle().getResult();
-		System.out.println("ANGLE VALUE IS: " + angleValue);
-
-		try {
-			this.getShip().turn(angleValue);
-			System.out.println(this.getShip());
-		} catch (AssertionError error) {
-			System.out.println("assertionerror");
-
-			throw new IllegalArgumentException();
+	protected CompiledAction compileAction(Scope scope) {
+		CompiledDouble angle = DoubleExpression.compileDouble(this.getAngle(), scope);
+
+		return program -> new Turn(angle.evaluate(program));
+	}
+	
+	private static class Turn implements ShipAction {
+		
+		private Turn(double angle) {
+			this.angle = angle;
+		}
+		
+		private final double angle;
+		
+		/**
+		 * @throws IllegalArgumentException
+		 *         The ship cannot turn over the angle of this turn.
+		 */
+		@Override
+		public void perform(Ship ship) throws IllegalArgumentException {
+			this.getOrientationAfter(ship.getOrientation());
+			ship.turn(angle);
 		}
 		
+		/**
+		 * @throws IllegalArgumentException
+		 *         A ship with the given orientation cannot turn over the angle of
+		 *         this turn.
+		 */
+		@Override
+		public double getOrientationAfter(double orientation) throws IllegalArgumentException {
+			double result = orientation + angle;
+			if (!Ship.isValidOrientation(result))
+				throw new IllegalArgumentException("Invalid orientation: " + result);
+			return result;
+		}
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,21 @@
+package asteroids.programs;
+
+/**
+ * The types of the values of expressions and variables in programs.
+ */
+public enum Type {
+
+	DOUBLE("double"), BOOLEAN("boolean"), ENTITY("entity");
+	
+	private Type(String name) {
+		this.name = name;
+	}
+	
+	private final String name;
+	
+	@Override
+	public String toString() {
+		return this.name;
+	}
+	
+}
@@ -0,0 +1,265 @@
+package asteroids.programs;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import asteroids.part3.programs.SourceLocation;
+
+/**
+ * Infers the type of every expression, variable and function of a program, and
+ * checks that the program is well typed, before it is compiled.
+ * 
+ * A variable has the type of the values assigned to it in its scope, a
+ * parameter the type of the arguments passed to it, and a function the type of
+ * the values it returns. Since a variable may be read
+ * before it is assigned in the source code, and a function may call itself,
+ * types are inferred in passes over the whole program, until a pass infers no
+ * new type. A last pass then rejects every expression of which the type is
+ * still unknown. Assigning or returning values of two types, or an operand of
+ * the wrong type, is rejected as soon as it is found.
+ * 
+ * Once a program is checked, each expression holds its type, so that it is
+ * compiled into code that does not check types while it runs.
+ */
+public class TypeChecker {
+
+	/**
+	 * Check the given functions, by name, and main statement.
+	 * 
+	 * @throws IllegalTypeException
+	 *         The program is not well typed, reads a variable that is never
+	 *         assigned, or calls an undefined function.
+	 */
+	public static void check(Map<String, Function> functions, Statement main) throws IllegalTypeException {
+		TypeChecker checker = new TypeChecker(functions, main);
+		do {
+			checker.changed = false;
+			checker.checkProgram(main);
+		} while (checker.changed || checker.completeParameterTypes());
+		checker.complete = true;
+		checker.checkProgram(main);
+	}
+	
+	private TypeChecker(Map<String, Function> functions, Statement main) {
+		this.functions = functions;
+		main.collectVariables(globalNames);
+		for (Function function : functions.values()) {
+			Set<String> names = new HashSet<>();
+			function.getBody().collectVariables(names);
+			localNames.put(function, names);
+			localTypes.put(function, new HashMap<>());
+			parameterTypes.put(function, new HashMap<>());
+		}
+	}
+	
+	private void checkProgram(Statement main) {
+		this.function = null;
+		check(main);
+		for (Function function : functions.values()) {
+			this.function = function;
+			check(function.getBody());
+		}
+	}
+	
+	
+	//PASSES
+	
+	/**
+	 * Whether the current pass inferred a new type.
+	 */
+	private boolean changed;
+	
+	/**
+	 * Whether the current pass is the last one, in which all types must be known.
+	 */
+	private boolean complete = false;
+	
+	/**
+	 * The function of which the body is being checked, or null for the main
+	 * statement.
+	 */
+	private Function function;
+	
+	public boolean isInFunctionBody() {
+		return this.function != null;
+	}
+	
+	
+	//CHECKS
+	
+	public void check(Statement statement) {
+		statement.check(this);
+	}
+	
+	/**
+	 * Infer the type of the given expression, and record it in the expression.
+	 * Return null if it cannot be inferred yet.
+	 */
+	public Type check(Expression expression) throws IllegalTypeException {
+		Type type = expression.inferType(this);
+		expression.setType(type);
+		return type;
+	}
+	
+	/**
+	 * Check that the given expression has the given type.
+	 * 
+	 * @throws IllegalTypeException
+	 *         The expression has another type.
+	 */
+	public void expect(Expression expression, Type type) throws IllegalTypeException {
+		Type actual = check(expression);
+		if (actual != null && actual != type)
+			throw new IllegalTypeException(expression.getSourceLocation(), "expected " + type + ", found " + actual);
+	}
+	
+	
+	//VARIABLES
+	private final Set<String> globalNames = new HashSet<>();
+	private final Map<String, Type> globalTypes = new HashMap<>();
+	private final Map<Function, Set<String>> localNames = new HashMap<>();
+	private final Map<Function, Map<String, Type>> localTypes = new HashMap<>();
+	
+	/**
+	 * Return the type of the variable with the given name, read at the given
+	 * location, or null if it is not known yet.
+	 * 
+	 * @throws IllegalTypeException
+	 *         The variable is never assigned, or its type cannot be inferred.
+	 */
+	public Type getVariableType(String name, SourceLocation location) throws IllegalTypeException {
+		Map<String, Type> types = globalTypes;
+		if (isInFunctionBody() && localNames.get(function).contains(name))
+			types = localTypes.get(function);
+		else if (!globalNames.contains(name))
+			throw new IllegalTypeException(location, "undefined variable " + name);
+		Type type = types.get(name);
+		if (type == null && complete)
+			throw new IllegalTypeException(location, "cannot infer the type of variable " + name);
+		return type;
+	}
+	
+	/**
+	 * Record the assignment of a value of the given type, or of a type that is not
+	 * known yet, to the variable with the given name, at the given location.
+	 * 
+	 * @throws IllegalTypeException
+	 *         The variable is assigned values of another type.
+	 */
+	public void assign(String name, Type type, SourceLocation location) throws IllegalTypeException {
+		if (type == null)
+			return;
+		Map<String, Type> types = isInFunctionBody() ? localTypes.get(function) : globalTypes;
+		Type previous = types.putIfAbsent(name, type);
+		if (previous == null)
+			changed = true;
+		else if (previous != type)
+			throw new IllegalTypeException(location, "variable " + name + " holds a value of type " + previous + ", not " + type);
+	}
+	
+	
+	//FUNCTIONS
+	private final Map<String, Function> functions;
+	private final Map<Function, Type> returnTypes = new HashMap<>();
+	
+	/**
+	 * Return the type of the values returned by the function with the given name,
+	 * called at the given location, or null if it is not known yet.
+	 * 
+	 * @throws IllegalTypeException
+	 *         The function is not defined, or its type cannot be inferred.
+	 */
+	public Type getReturnType(String name, SourceLocation location) throws IllegalTypeException {
+		Function called = functions.get(name);
+		if (called == null)
+			throw new IllegalTypeException(location, "undefined function " + name);
+		Type type = returnTypes.get(called);
+		if (type == null && complete)
+			throw new IllegalTypeException(location, "cannot infer the type of function " + name);
+		return type;
+	}
+	
+	/**
+	 * Record the return of a value of the given type, or of a type that is not
+	 * known yet, at the given location. Returns outside function bodies are
+	 * rejected when they are compiled.
+	 * 
+	 * @throws IllegalTypeException
+	 *         The function returns values of another type.
+	 */
+	public void returns(Type type, SourceLocation location) throws IllegalTypeException {
+		if (type == null || !isInFunctionBody())
+			return;
+		Type previous = returnTypes.putIfAbsent(function, type);
+		if (previous == null)
+			changed = true;
+		else if (previous != type)
+			throw new IllegalTypeException(location,
+					"function " + function.getName() + " returns a value of type " + previous + ", not " + type);
+	}
+	
+	
+	//PARAMETERS
+	
+	/**
+	 * The types of the parameters of each function, by number. A parameter that
+	 * is read, but of which the type is not known yet, maps to null.
+	 */
+	private final Map<Function, Map<Integer, Type>> parameterTypes = new HashMap<>();
+	
+	/**
+	 * Return the type of the parameter with the given number of the function of
+	 * which the body is being checked, read at the given location, or null if it
+	 * is not known yet. Parameters outside function bodies are rejected when they
+	 * are compiled.
+	 */
+	public Type getParameterType(int number, SourceLocation location) {
+		if (!isInFunctionBody())
+			return Type.DOUBLE;
+		Map<Integer, Type> types = parameterTypes.get(function);
+		types.putIfAbsent(number, null);
+		return types.get(number);
+	}
+	
+	/**
+	 * Record the passing of an argument of the given type, or of a type that is
+	 * not known yet, to the parameter with the given number of the function with
+	 * the given name, at the given location.
+	 * 
+	 * @throws IllegalTypeException
+	 *         The function is not defined, or its parameter is passed arguments of
+	 *         another type.
+	 */
+	public void pass(String name, int number, Type type, SourceLocation location) throws IllegalTypeException {
+		Function called = functions.get(name);
+		if (called == null)
+			throw new IllegalTypeException(location, "undefined function " + name);
+		if (type == null)
+			return;
+		Type previous = parameterTypes.get(called).putIfAbsent(number, type);
+		if (previous == null)
+			changed = true;
+		else if (previous != type)
+			throw new IllegalTypeException(location,
+					"parameter $" + number + " of function " + name + " holds a value of type " + previous + ", not " + type);
+	}
+	
+	/**
+	 * Give the type double to each parameter that is read, but that is never
+	 * passed an argument of a known type, such as the parameters of a function
+	 * that is never called. Return whether there was such a parameter.
+	 */
+	private boolean completeParameterTypes() {
+		boolean result = false;
+		for (Map<Integer, Type> types : parameterTypes.values())
+			for (Map.Entry<Integer, Type> entry : types.entrySet())
+				if (entry.getValue() == null) {
+					entry.setValue(Type.DOUBLE);
+					result = true;
+				}
+		return result;
+	}
+	
+}
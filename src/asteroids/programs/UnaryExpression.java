@@ -2,29 +2,28 @@ package asteroids.programs;
 
 import java.util.List;
 
-public abstract class UnaryExpression<U> extends Expression {
+public abstract class UnaryExpression extends Expression {
 
-	protected UnaryExpression(U operand){
+	protected UnaryExpression(Expression operand){
 		setOperand(operand);
 	}
 	
 	
 	//OPERAND
-	private U operand;
+	private Expression operand;
 
-	public void setOperand(U operand){
+	public void setOperand(Expression operand){
 		this.operand= operand;
 	}
 	
 	
-	protected U getOperand(){
+	protected Expression getOperand(){
 		return this.operand;
 
 	}
 	
-	protected Object getOperandResult() {
-		((Expression) this.getOperand()).setProgram(this.getProgram());
-		return ((Expression) this.getOperand()).getResult();
+	protected CompiledExpression compileOperand(Scope scope) {
+		return this.getOperand().compile(scope);
 	}
 	
 }
@@ -5,10 +5,9 @@ import java.util.Map;
 
 import asteroids.model.Program;
 
-public class VariableExpression extends Expression implements DoubleExpression{
+public class VariableExpression extends Expression implements DoubleExpression, BooleanExpression {
 
 	protected VariableExpression(String name){
-		System.out.println("VARIABLEEXP name: " + name);
 		this.setName(name);
 	}
 	
@@ -25,14 +24,34 @@ public class VariableExpression extends Expression implements DoubleExpression{
 
 	
 	@Override
-	protected Object getResult() {
-		Object resultExpression = this.getProgram().getVariables().get(this.getName());
-	
-		if (resultExpression == null)
-			throw new IllegalArgumentException();
+	public CompiledDouble compileDouble(Scope scope) {
+		return scope.compileRead(this.getName());
+	}
+
+	/**
+	 * Booleans are stored in the slots of doubles, as 1 or 0.
+	 */
+	@Override
+	public CompiledBoolean compileBoolean(Scope scope) {
+		CompiledDouble value = scope.compileRead(this.getName());
+		return program -> value.evaluate(program) != 0;
+	}
 
-		return resultExpression;
-			
+	@Override
+	protected CompiledExpression compile(Scope scope) {
+		switch (this.getType()) {
+		case DOUBLE:
+			return this.compileDouble(scope).boxed();
+		case BOOLEAN:
+			return this.compileBoolean(scope).boxed();
+		default:
+			return scope.compileReadObject(this.getName());
+		}
+	}
+
+	@Override
+	protected Type inferType(TypeChecker checker) {
+		return checker.getVariableType(this.getName(), this.getSourceLocation());
 	}
 
 	
@@ -0,0 +1,78 @@
+package asteroids.programs;
+
+/**
+ * The values of the variables of a scope, stored by slot: doubles and booleans
+ * unboxed, entities as objects.
+ */
+public class VariableSlots {
+
+	public VariableSlots(int nbSlots) {
+		this.values = new double[nbSlots];
+		this.objects = new Object[nbSlots];
+		this.assigned = new boolean[nbSlots];
+	}
+	
+	private final double[] values;
+	private final Object[] objects;
+	private final boolean[] assigned;
+	
+	/**
+	 * Return the value of the variable in the given slot.
+	 * 
+	 * @throws IllegalArgumentException
+	 *         The variable has not been assigned yet.
+	 */
+	public double get(int slot) throws IllegalArgumentException {
+		if (!assigned[slot])
+			throw new IllegalArgumentException();
+		return values[slot];
+	}
+	
+	public void set(int slot, double value) {
+		values[slot] = value;
+		assigned[slot] = true;
+	}
+	
+	/**
+	 * Return the entity in the given slot.
+	 * 
+	 * @throws IllegalArgumentException
+	 *         The variable has not been assigned yet.
+	 */
+	public Object getObject(int slot) throws IllegalArgumentException {
+		if (!assigned[slot])
+			throw new IllegalArgumentException();
+		return objects[slot];
+	}
+	
+	public void setObject(int slot, Object value) {
+		objects[slot] = value;
+		assigned[slot] = true;
+	}
+	
+	public boolean isAssigned(int slot) {
+		return assigned[slot];
+	}
+	
+	/**
+	 * Turn the variable in the given slot back into an unassigned variable.
+	 */
+	public void clear(int slot) {
+		assigned[slot] = false;
+	}
+	
+	public int getNbSlots() {
+		return values.length;
+	}
+	
+	/**
+	 * Give each variable of these slots the value of the variable in the same slot
+	 * of the given slots, which have as many slots as these.
+	 */
+	public void setAll(VariableSlots other) {
+		System.arraycopy(other.values, 0, this.values, 0, this.values.length);
+		System.arraycopy(other.objects, 0, this.objects, 0, this.objects.length);
+		System.arraycopy(other.assigned, 0, this.assigned, 0, this.assigned.length);
+	}
+	
+}
@@ -1,5 +1,7 @@
 package asteroids.programs;
 
+import asteroids.model.Entity;
+
 public class VelocityYExpression extends EntityPropertyExpression {
 
 
@@ -8,8 +10,10 @@ public class VelocityYExpression extends EntityPropertyExpression {
 	}
 
 	@Override
-	protected Object getResult() {
-		return this.getOperandResultingEntity().getYVelocity();
+	public CompiledDouble compileDouble(Scope scope) {
+		CompiledExpression operand = this.compileOperand(scope);
+
+		return program -> ((Entity) operand.evaluate(program)).getYVelocity();
 	}
 
 }
@@ -1,109 +1,93 @@
 package asteroids.programs;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
 public class WhileStatement extends Statement {
 
-	public WhileStatement(BooleanExpression condition, Statement bodyStatement){
+	public WhileStatement(Expression condition, Statement bodyStatement){
+		this(condition, bodyStatement, new ArrayList<>());
+	}
+	
+	/**
+	 * Initialize this new while statement with the given condition and body, out
+	 * of which the optimizer hoisted the given expressions.
+	 */
+	WhileStatement(Expression condition, Statement bodyStatement, List<HoistedExpression> hoisted){
 		this.setCondition(condition);
 		this.setBodyStatement(bodyStatement);
+		this.hoisted = hoisted;
+	}
+	
+	//COMPILE
+	@Override
+	protected void compile(CodeBuilder code) {
+		for (HoistedExpression expression : hoisted)
+			code.emit(code.getScope().compileClear(expression.getName()));
+		int start = code.getPc();
+		// A loop of which the condition is always true only ends with a break.
+		CodeBuilder.Jump toEnd = isInfinite() ? null
+				: code.emitJumpIfFalse(BooleanExpression.compileBoolean(this.getCondition(), code.getScope()));
+		code.beginLoop();
+		code.compile(this.getBodyStatement());
+		code.emit((program, pc) -> start);
+		int end = code.getPc();
+		code.endLoop(end);
+		if (toEnd != null)
+			toEnd.setTarget(end);
+	}
+	
+	private boolean isInfinite() {
+		return (this.getCondition() instanceof BooleanLiteralExpression)
+				&& ((BooleanLiteralExpression) this.getCondition()).getValue();
+	}
+	
+	@Override
+	protected void check(TypeChecker checker) {
+		checker.expect(this.getCondition(), Type.BOOLEAN);
+		checker.check(this.getBodyStatement());
 	}
 	
 	@Override
-	public void run() {
-		removeConditionError();
-		while ((boolean) this.getConditionResult() && !conditionError()) {
-			try {
-				this.getBodyStatement().setProgram(getProgram());
-				this.getBodyStatement().run();
-			} catch (IllegalAccessError error) {
-				setConditionError();
-			}
-		}
-		
+	protected void collectVariables(Set<String> names) {
+		for (HoistedExpression expression : hoisted)
+			names.add(expression.getName());
+		this.getBodyStatement().collectVariables(names);
 	}
 
 
+	//HOISTED EXPRESSIONS
+	
+	/**
+	 * The expressions that were hoisted out of the condition and the body of this
+	 * loop by the optimizer. Their values are forgotten each time the loop is entered.
+	 */
+	private final List<HoistedExpression> hoisted;
+	
+	
 	//STATEMENT
 	private Statement bodyStatement;
 	
 	public void setBodyStatement(Statement bodyStatement){
 		this.bodyStatement= bodyStatement;
-		this.getBodyStatement().setProgram(getProgram());
 	}
 	
 	public Statement getBodyStatement(){
 		return this.bodyStatement;
 	}
 	
-	
-	//CONDITIONERROR
-	
-	private boolean conditionError = false;
-	private boolean conditionError() {
-		return this.conditionError;
-	}
-	
-	private void setConditionError(){
-		this.conditionError=true;
-	}
-	
-	private void removeConditionError(){
-		this.conditionError=false;
-	}
-	
 
 	
 	//CONDITION
-	private BooleanExpression condition;
+	private Expression condition;
 	
-	public void setCondition(BooleanExpression condition){
+	public void setCondition(Expression condition){
 		this.condition = condition;
-		((Expression) condition).setProgram(getProgram());
 	}
 	
-	public BooleanExpression getCondition(){
+	public Expression getCondition(){
 		return this.condition;
 	}
 	
-	private Boolean getConditionResult(){
-		((Expression) this.getCondition()).setProgram(getProgram());
-
-		boolean conditionResult = (boolean) ((Expression) this.getCondition()).getResult();
-		System.out.println("WHILESTATEMENT > conditionresult: " + conditionResult);
-
-		return conditionResult;
-		
-	}
-	
-	@Override
-	public boolean navigateToAction(Bookmark bookmark){
-		System.out.println("WHILESTATEMENT > NAVIGATETOACTION");
-
-		removeConditionError();
-		
-		boolean foundBookmark = false;
-		while ((boolean) this.getConditionResult() && !conditionError()) {
-
-			try {
-				this.getBodyStatement().setProgram(getProgram());
-
-				if(foundBookmark){
-					System.out.println("WHILESTATEMENT > FOUNDBOOKMARK, running ");
-
-					this.getBodyStatement().run();
-				} else {
-					System.out.println("WHILESTATEMENT > searching foundBookmark ");
-
-					foundBookmark = this.getBodyStatement().navigateToAction(bookmark);
-
-				}
-			} catch (IllegalAccessError error) {
-				setConditionError();
-			}
-		}
-		
-		return foundBookmark;
-		
-	}
-	
-	
 }
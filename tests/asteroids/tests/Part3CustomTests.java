@@ -1,8 +1,20 @@
 package asteroids.tests;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -10,14 +22,38 @@ import org.junit.Test;
 
 import asteroids.model.Asteroid;
 import asteroids.model.Bullet;
+import asteroids.model.CollisionGrid;
+import asteroids.model.Entity;
+import asteroids.model.MinorPlanet;
 import asteroids.model.Planetoid;
 import asteroids.model.Program;
+import asteroids.model.ProgramScheduler;
 import asteroids.model.Ship;
+import asteroids.model.TrajectoryPrediction;
 import asteroids.model.World;
+import asteroids.model.WorldSnapshot;
+import asteroids.model.exceptions.IllegalBulletException;
+import asteroids.model.exceptions.IllegalCollisionException;
+import asteroids.model.exceptions.IllegalDurationException;
 import asteroids.model.exceptions.IllegalPositionException;
 import asteroids.model.exceptions.IllegalRadiusException;
+import asteroids.part2.internal.SpriteCache;
+import asteroids.part2.internal.WorldView2;
 import asteroids.part3.facade.IFacade;
 import asteroids.part3.programs.IProgramFactory;
+import asteroids.part3.programs.internal.ParseOutcome;
+import asteroids.part3.programs.internal.ProgramCache;
+import asteroids.part3.programs.internal.ProgramParser;
+import asteroids.programs.AssignmentStatement;
+import asteroids.programs.BlockStatement;
+import asteroids.programs.CompiledProgram;
+import asteroids.programs.Function;
+import asteroids.programs.IllegalTypeException;
+import asteroids.programs.MultiplicationExpression;
+import asteroids.programs.ProgramFactory;
+import asteroids.programs.RingBufferTracer;
+import asteroids.programs.Statement;
+import asteroids.programs.WhileStatement;
 import asteroids.util.ModelException;
 
 
@@ -312,4 +348,778 @@ public class Part3CustomTests {
 	   }
 	  
 	 
+	//-------------------------------------------
+	// SIMULTANEOUS COLLISIONS TESTS
+	//-------------------------------------------
+	  
+	  @Test
+	  public void testSimultaneousBoundaryCollisions() throws ModelException, IllegalPositionException, IllegalRadiusException, IllegalCollisionException {
+		  
+	      World world = facade.createWorld(1000, 1000);
+	      
+	      Asteroid[] asteroids = new Asteroid[5];
+	      for (int i = 0; i < asteroids.length; i++) {
+	    	  asteroids[i] = new Asteroid(110, 100 + 50 * i, -10, 0, 10);
+	    	  facade.addAsteroidToWorld(world, asteroids[i]);
+	      }
+	      
+	      assertEquals(asteroids.length, world.getFirstCollisionEvents(20).size());
+	      
+	      facade.evolve(world, 20, null);
+	      
+	      for (Asteroid asteroid : asteroids) {
+	    	  assertEquals(110, facade.getAsteroidPosition(asteroid)[0], EPSILON);
+	    	  assertEquals(10, facade.getAsteroidVelocity(asteroid)[0], EPSILON);
+	      }
+	      
+	   }
+	 
+	  @Test
+	  public void testFastBulletCandidates() throws ModelException, IllegalPositionException, IllegalRadiusException {
+		  
+	      World world = facade.createWorld(1000, 1000);
+
+	      Bullet bullet = new Bullet(20, 20, 250, 250, 1);
+		  Asteroid nearPath = new Asteroid(500, 505, 0, 0, 5);
+		  Asteroid farFromPath = new Asteroid(500, 900, 0, 0, 5);
+		  
+		  facade.addBulletToWorld(world, bullet);
+		  facade.addAsteroidToWorld(world, nearPath);
+		  facade.addAsteroidToWorld(world, farFromPath);
+		  
+		  CollisionGrid grid = new CollisionGrid(world.getAllEntities(), 3);
+		  assertTrue(grid.getCandidates(bullet).contains(nearPath));
+		  assertFalse(grid.getCandidates(bullet).contains(farFromPath));
+		  
+		  facade.evolve(world, 3, null);
+		  assertTrue(facade.isTerminatedAsteroid(nearPath));
+		  assertTrue(facade.isTerminatedBullet(bullet));
+		  assertFalse(facade.isTerminatedAsteroid(farFromPath));
+	      
+	   }
+	 
+	//-------------------------------------------
+	// PREDICTION TESTS
+	//-------------------------------------------
+	  
+	  @Test
+	  public void testPredictBoundaryCollision() throws ModelException, IllegalPositionException, IllegalRadiusException, IllegalDurationException {
+		  
+	      World world = facade.createWorld(1000, 1000);
+
+		  Asteroid asteroid = new Asteroid(210, 100, -10, 0, 10);
+		  facade.addAsteroidToWorld(world, asteroid);
+		  long version = world.getVersion();
+		  
+		  TrajectoryPrediction prediction = world.predict(asteroid, 30);
+		  assertEquals(version, world.getVersion());
+		  assertEquals(210, facade.getAsteroidPosition(asteroid)[0], EPSILON);
+		  assertFalse(prediction.isInterrupted());
+		  assertEquals(110, prediction.getPosition()[0], EPSILON);
+		  assertEquals(10, prediction.getVelocity()[0], EPSILON);
+		  
+		  facade.evolve(world, 30, null);
+		  assertEquals(prediction.getPosition()[0], facade.getAsteroidPosition(asteroid)[0], EPSILON);
+		  assertTrue(world.getVersion() > version);
+	      
+	   }
+	  
+	  @Test
+	  public void testPredictInterruptedTrajectory() throws ModelException, IllegalPositionException, IllegalRadiusException, IllegalDurationException {
+		  
+	      World world = facade.createWorld(1000, 1000);
+
+		  Asteroid asteroid = new Asteroid(200, 100, 0, 0, 10);
+		  Bullet bullet = new Bullet(100, 100, 10, 0, 10);
+		  facade.addAsteroidToWorld(world, asteroid);
+		  facade.addBulletToWorld(world, bullet);
+		  
+		  TrajectoryPrediction prediction = world.predict(bullet, 10);
+		  assertTrue(prediction.isInterrupted());
+		  assertEquals(8, prediction.getTime(), EPSILON);
+		  assertEquals(180, prediction.getPosition()[0], EPSILON);
+		  assertFalse(facade.isTerminatedBullet(bullet));
+	      
+	   }
+	  
+	  @Test
+	  public void testPredictionsAreCachedForRecentTimesOnly() throws ModelException, IllegalPositionException, IllegalRadiusException, IllegalDurationException {
+		  
+	      World world = facade.createWorld(1000, 1000);
+
+		  Asteroid asteroid = new Asteroid(210, 100, -10, 0, 10);
+		  facade.addAsteroidToWorld(world, asteroid);
+		  
+		  TrajectoryPrediction prediction = world.predict(asteroid, 30);
+		  assertTrue(prediction == world.predict(asteroid, 30));
+		  // Requesting many other times drops the prediction, which is then simulated again.
+		  for (int time = 0; time < 100; time++)
+			  world.predict(asteroid, time + 0.5);
+		  TrajectoryPrediction again = world.predict(asteroid, 30);
+		  assertFalse(prediction == again);
+		  assertEquals(prediction.getPosition()[0], again.getPosition()[0], EPSILON);
+	      
+	   }
+	 
+	//-------------------------------------------
+	// FORK TESTS
+	//-------------------------------------------
+	  
+	  @Test
+	  public void testForkIsolation() throws ModelException, IllegalPositionException, IllegalRadiusException {
+		  
+	      World world = facade.createWorld(1000, 1000);
+
+		  Asteroid asteroid = new Asteroid(100, 100, 10, 0, 10);
+		  facade.addAsteroidToWorld(world, asteroid);
+		  
+		  World fork = world.fork();
+		  assertTrue(fork.isSharedEntity(asteroid));
+		  
+		  facade.evolve(fork, 10, null);
+		  assertEquals(100, facade.getAsteroidPosition(asteroid)[0], EPSILON);
+		  Asteroid forkedAsteroid = (Asteroid) fork.getOwnEntity(asteroid);
+		  assertEquals(200, facade.getAsteroidPosition(forkedAsteroid)[0], EPSILON);
+		  assertEquals(asteroid.getSequenceNumber(), forkedAsteroid.getSequenceNumber());
+		  
+		  World otherFork = world.fork();
+		  facade.evolve(world, 5, null);
+		  assertEquals(150, facade.getAsteroidPosition(asteroid)[0], EPSILON);
+		  try {
+			  otherFork.getOwnEntity(asteroid);
+			  fail();
+		  } catch (IllegalStateException exc) {
+		  }
+		  try {
+			  facade.evolve(otherFork, 1, null);
+			  fail();
+		  } catch (IllegalStateException exc) {
+		  }
+	      
+	   }
+	 
+	  @Test
+	  public void testForkOnlyCopiesChangedEntities() throws ModelException, IllegalPositionException, IllegalRadiusException {
+		  
+	      World world = facade.createWorld(1000, 1000);
+
+		  Asteroid moving = new Asteroid(100, 100, 10, 0, 10);
+		  Asteroid resting = new Asteroid(500, 500, 0, 0, 10);
+		  Asteroid target = new Asteroid(100, 800, 0, 0, 20);
+		  Asteroid bumper = new Asteroid(100, 700, 0, 50, 20);
+		  facade.addAsteroidToWorld(world, moving);
+		  facade.addAsteroidToWorld(world, resting);
+		  facade.addAsteroidToWorld(world, target);
+		  facade.addAsteroidToWorld(world, bumper);
+		  long version = world.getVersion();
+		  
+		  World fork = world.fork();
+		  World forkOfFork = fork.fork();
+		  facade.evolve(fork, 2, null);
+		  assertEquals(version, world.getVersion());
+		  assertTrue(fork.isSharedEntity(resting));
+		  assertFalse(fork.isSharedEntity(moving));
+		  assertFalse(fork.isSharedEntity(target));
+		  assertEquals(120, facade.getAsteroidPosition((Asteroid) fork.getOwnEntity(moving))[0], EPSILON);
+		  assertTrue(facade.getAsteroidVelocity((Asteroid) fork.getOwnEntity(target))[1] > 0);
+		  assertEquals(100, facade.getAsteroidPosition(moving)[0], EPSILON);
+		  assertEquals(0, facade.getAsteroidVelocity(target)[1], EPSILON);
+		  try {
+			  forkOfFork.getOwnEntity(moving);
+			  fail();
+		  } catch (IllegalStateException exc) {
+		  }
+	      
+	   }
+	 
+	  @Test
+	  public void testSnapshotAfterEvolve() throws ModelException, IllegalPositionException, IllegalRadiusException {
+		  
+	      World world = facade.createWorld(1000, 1000);
+
+		  Asteroid asteroid = new Asteroid(100, 100, 10, 0, 10);
+		  facade.addAsteroidToWorld(world, asteroid);
+		  WorldSnapshot before = world.getSnapshot();
+		  
+		  facade.evolve(world, 10, null);
+		  WorldSnapshot after = world.getSnapshot();
+		  assertEquals(100, before.getX(before.indexOf(asteroid)), EPSILON);
+		  assertEquals(200, after.getX(after.indexOf(asteroid)), EPSILON);
+		  assertEquals(WorldSnapshot.ASTEROID, after.getType(after.indexOf(asteroid)));
+		  assertEquals(10, after.getTime(), EPSILON);
+		  assertEquals(world.getVersion(), after.getVersion());
+	      
+	   }
+	 
+	  @Test
+	  public void testEntitiesWithinRectangle() throws ModelException, IllegalPositionException, IllegalRadiusException {
+		  
+	      World world = facade.createWorld(5000, 5000);
+
+		  Asteroid near = new Asteroid(100, 100, 0, 0, 10);
+		  Asteroid edge = new Asteroid(215, 100, 0, 0, 20);
+		  Asteroid far = new Asteroid(4000, 4000, 0, 0, 10);
+		  facade.addAsteroidToWorld(world, near);
+		  facade.addAsteroidToWorld(world, edge);
+		  facade.addAsteroidToWorld(world, far);
+		  
+		  Set<Entity> visible = world.getEntitiesWithin(0, 0, 200, 200);
+		  assertEquals(2, visible.size());
+		  assertTrue(visible.contains(near));
+		  assertTrue(visible.contains(edge));
+		  
+		  facade.evolve(world, 1, null);
+		  assertEquals(1, world.getEntitiesWithin(3900, 3900, 5000, 5000).size());
+	      
+	   }
+	 
+	  @Test
+	  public void testVisibleEntitiesInWorldTallerThanPanel() throws ModelException, IllegalPositionException, IllegalRadiusException {
+		  
+	      World world = facade.createWorld(1000, 3000);
+		  Asteroid top = new Asteroid(500, 2900, 0, 0, 10);
+		  Asteroid bottom = new Asteroid(500, 300, 0, 0, 10);
+		  Planetoid planetoid = new Planetoid(200, 2700, 0, 0, 20, 0);
+		  facade.addAsteroidToWorld(world, top);
+		  facade.addAsteroidToWorld(world, bottom);
+		  facade.addPlanetoidToWorld(world, planetoid);
+		  WorldSnapshot snapshot = world.getSnapshot();
+		  
+		  // A panel of 1000 by 600 with the camera on its centre shows the top of the world.
+		  int[] visible = WorldView2.getVisibleIndices(snapshot, 1000, 600, 500, 300, 1);
+		  Set<Entity> entities = new HashSet<>();
+		  for (int index : visible)
+			  entities.add(snapshot.getEntity(index));
+		  assertEquals(2, entities.size());
+		  assertTrue(entities.contains(top));
+		  assertTrue(entities.contains(planetoid));
+		  assertEquals(100, WorldView2.worldToScreenY(snapshot, 2900), EPSILON);
+		  assertEquals(2700, WorldView2.worldToScreenY(snapshot, 300), EPSILON);
+	      
+	   }
+	 
+	  @Test
+	  public void testSpritesLargerThanTheCacheAreNotCached() {
+		  
+		  SpriteCache cache = new SpriteCache(100 * 100);
+		  BufferedImage image = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB);
+		  assertNull(cache.getSprite(image, 60));
+		  assertEquals(0, cache.size());
+		  BufferedImage sprite = cache.getSprite(image, 20);
+		  assertEquals(40, sprite.getWidth());
+		  assertEquals(1, cache.size());
+		  // Drawing an image too large for the cache scales it instead.
+		  BufferedImage target = new BufferedImage(200, 200, BufferedImage.TYPE_INT_ARGB);
+		  cache.draw(target.createGraphics(), image, 100, 100, 60);
+		  assertEquals(1, cache.size());
+	      
+	   }
+	 
+	  @Test
+	  public void testNearestEntities() throws ModelException, IllegalPositionException, IllegalRadiusException {
+		  
+	      World world = facade.createWorld(5000, 5000);
+	      Ship ship = facade.createShip(2500, 2500, 0, 0, 10, 0, 1.0E20);
+	      Ship other = facade.createShip(4000, 2500, 0, 0, 10, 0, 1.0E20);
+	      facade.addShipToWorld(world, ship);
+	      facade.addShipToWorld(world, other);
+	      // Asteroids on a lattice, with radii that make their distances to the ship differ.
+	      List<Asteroid> asteroids = new ArrayList<>();
+	      for (int i = 0; i < 20; i++)
+	    	  for (int j = 0; j < 20; j++) {
+	    		  if (i == 9 || i == 10 || (i == 15 && j == 10))
+	    			  continue;
+	    		  Asteroid asteroid = new Asteroid(125 + 250 * i, 125 + 250 * j, 0, 0, 5 + (i * 7 + j * 3) % 50);
+	    		  facade.addAsteroidToWorld(world, asteroid);
+	    		  asteroids.add(asteroid);
+	    	  }
+	      Planetoid planetoid = new Planetoid(2300, 2500, 0, 0, 20, 0);
+	      facade.addPlanetoidToWorld(world, planetoid);
+	      
+	      asteroids.sort((a, b) -> Double.compare(ship.getDistanceBetween(a), ship.getDistanceBetween(b)));
+	      assertEquals(asteroids.subList(0, 5), world.getNearestEntities(ship, Asteroid.class, 5));
+	      assertEquals(asteroids.get(0), world.getNearestEntity(ship, Asteroid.class));
+	      assertEquals(planetoid, world.getNearestEntity(ship, MinorPlanet.class));
+	      // The ship itself is excluded.
+	      assertEquals(other, world.getNearestEntity(ship, Ship.class));
+	      assertNull(world.getNearestEntity(ship, Bullet.class));
+	      
+	   }
+	 
+	  @Test
+	  public void testNearestEntitiesInterleavedWithActions() throws ModelException, IllegalPositionException, IllegalRadiusException {
+		  
+	      World world = facade.createWorld(5000, 5000);
+	      Ship ship = facade.createShip(2500, 2500, 0, 0, 10, 0, 1.0E20);
+	      facade.addShipToWorld(world, ship);
+	      facade.loadBulletOnShip(ship, facade.createBullet(2500, 2500, 0, 0, 2));
+	      List<Asteroid> asteroids = new ArrayList<>();
+	      for (int i = 0; i < 10; i++)
+	    	  for (int j = 0; j < 10; j++) {
+	    		  if (i == 5 && j == 5)
+	    			  continue;
+	    		  Asteroid asteroid = new Asteroid(250 + 500 * i, 250 + 500 * j, 13 * (i - j), 7 * (i + j - 9), 10 + i + j);
+	    		  facade.addAsteroidToWorld(world, asteroid);
+	    		  asteroids.add(asteroid);
+	    	  }
+	      WorldSnapshot snapshot = world.getSnapshot();
+	      
+	      for (int step = 0; step < 20; step++) {
+	    	  // Actions change the world, but queries in between do not publish a new snapshot.
+	    	  facade.turn(ship, 0.1);
+	    	  facade.setThrusterActive(ship, step % 2 == 0);
+	    	  asteroids.sort((a, b) -> Double.compare(ship.getDistanceBetween(a), ship.getDistanceBetween(b)));
+	    	  assertEquals(asteroids.subList(0, 3), world.getNearestEntities(ship, Asteroid.class, 3));
+	    	  if (step == 10) {
+	    		  facade.fireBullet(ship);
+	    		  Bullet bullet = world.getNearestEntity(ship, Bullet.class);
+	    		  assertNotNull(bullet);
+	    		  assertTrue(world.getEntitiesWithin(2400, 2400, 2600, 2600).contains(bullet));
+	    	  }
+	    	  assertTrue(snapshot == world.getSnapshot());
+	    	  facade.evolve(world, 0.5, null);
+	    	  assertFalse(snapshot == world.getSnapshot());
+	    	  snapshot = world.getSnapshot();
+	    	  asteroids.removeIf(asteroid -> asteroid.getWorld() != world);
+	      }
+	      
+	   }
+	 
+	 
+	//-------------------------------------------
+	// PROGRAM TESTS
+	//-------------------------------------------
+	 
+	  @Test
+	  public void testResumeAfterConditionChanged() throws ModelException {
+		  
+		  String code = "a := 1.0; " + "if a < 2.0 { " + "  a := 5.0; " + "  skip; " + "  print a; " + "} " + "print 7.0; ";
+		  Program program = ProgramParser.parseProgramFromString(code, programFactory);
+		  facade.loadProgramOnShip(ship1, program);
+		  assertNull(facade.executeProgram(ship1, 0.1));
+		  
+		  // The program resumes at the skip, without evaluating the condition again.
+		  List<Object> results = facade.executeProgram(ship1, 0.1);
+		  Object[] expecteds = { 5.0, 7.0 };
+		  assertArrayEquals(expecteds, results.toArray());
+	      
+	   }
+	 
+	  @Test
+	  public void testUndefinedVariableRejectedAtLoad() throws ModelException {
+		  
+		  // The read of b is never executed, but is still resolved when the program is compiled.
+		  String code = "a := 1.0; " + "if a < 0.0 { " + "  print b; " + "} ";
+		  assertNull(ProgramParser.parseProgramFromString(code, programFactory));
+		  
+		  code = "a := 1.0; " + "print a; ";
+		  assertNotNull(ProgramParser.parseProgramFromString(code, programFactory));
+	      
+	   }
+	 
+	  @Test
+	  public void testOptimizedLoop() throws ModelException {
+		  
+		  // (a * b) + 4.0 and a * (b + -1.0) are hoisted out of the loop, 1.0 < 2.0 is folded.
+		  String code = "a := 2.0; " + "b := 3.0; " + "x := 0.0; " + "while x < (a * b) + 4.0 { "
+				  + "  x := x + (a * (b + -1.0)); " + "  if 1.0 < 2.0 { print x; } " + "}";
+		  Program program = ProgramParser.parseProgramFromString(code, programFactory);
+		  facade.loadProgramOnShip(ship1, program);
+		  Object[] expecteds = { 4.0, 8.0, 12.0 };
+		  assertArrayEquals(expecteds, facade.executeProgram(ship1, 1.0).toArray());
+	      
+	   }
+	 
+	  @Test(expected = ModelException.class)
+	  public void testHoistedExpressionFailsInLoop() throws ModelException {
+		  
+		  // The square root is only evaluated, and fails, in the last iteration.
+		  String code = "b := -4.0; " + "x := 0.0; " + "while x < 3.0 { " + "  x := x + 1.0; "
+				  + "  if 2.0 < x { print sqrt(b * 1.0); } " + "}";
+		  Program program = ProgramParser.parseProgramFromString(code, programFactory);
+		  facade.loadProgramOnShip(ship1, program);
+		  facade.executeProgram(ship1, 1.0);
+	      
+	   }
+	 
+	  @Test
+	  public void testTracedProgram() throws ModelException {
+		  
+		  String code = "a := 1.0; " + "skip; " + "print a; ";
+		  Program program = ProgramParser.parseProgramFromString(code, programFactory);
+		  RingBufferTracer tracer = new RingBufferTracer(4);
+		  program.setTracer(tracer);
+		  facade.loadProgramOnShip(ship1, program);
+		  assertNull(facade.executeProgram(ship1, 0.1));
+		  assertEquals(3, tracer.getNbEvents());
+		  assertTrue(tracer.getEvents().get(2).startsWith("SUSPEND @1,10"));
+		  
+		  Object[] expecteds = { 1.0 };
+		  assertArrayEquals(expecteds, facade.executeProgram(ship1, 0.2).toArray());
+		  // Only the four most recent of the six events are kept.
+		  assertEquals(6, tracer.getNbRecorded());
+		  List<String> events = tracer.getEvents();
+		  assertEquals(4, events.size());
+		  assertTrue(events.get(0).startsWith("SUSPEND @1,10"));
+		  assertTrue(events.get(1).startsWith("STATEMENT @1,10"));
+		  assertTrue(events.get(2).startsWith("ACTION @1,10"));
+		  assertTrue(events.get(3).startsWith("STATEMENT @1,16"));
+	      
+	   }
+	 
+	  @Test
+	  public void testCachedQueryAfterWorldChange() throws ModelException, IllegalPositionException, IllegalRadiusException {
+		  
+	      World world = facade.createWorld(5000, 5000);
+	      Ship ship = facade.createShip(100, 100, 0, 0, 10, 0, 1.0E20);
+	      facade.addShipToWorld(world, ship);
+	      facade.addAsteroidToWorld(world, new Asteroid(1000, 100, 0, 0, 10));
+		  String code = "a := getx asteroid; " + "b := getx asteroid; " + "skip; " + "print a; " + "print b; "
+				  + "print getx asteroid; ";
+		  Program program = ProgramParser.parseProgramFromString(code, programFactory);
+		  facade.loadProgramOnShip(ship, program);
+		  assertNull(facade.executeProgram(ship, 0.1));
+		  // Each query has a slot, holding its result for the current version of the world.
+		  assertEquals(3, program.getQueryCache().getNbSlots());
+		  assertTrue(program.getQueryCache().isValid(0, world));
+		  assertFalse(program.getQueryCache().isValid(2, world));
+		  
+		  facade.addAsteroidToWorld(world, new Asteroid(500, 100, 0, 0, 10));
+		  Object[] expecteds = { 1000.0, 1000.0, 500.0 };
+		  assertArrayEquals(expecteds, facade.executeProgram(ship, 0.2).toArray());
+	      
+	   }
+	 
+	  @Test
+	  public void testScheduledProgramsMatchSequential() throws ModelException, IllegalCollisionException,
+			  IllegalPositionException, IllegalDurationException, IllegalBulletException {
+		  
+		  // Six iterations of two actions each, which finish in the fifth tick.
+		  String code = "n := 0.0; " + "while n < 6.0 { " + "  d := getdir; " + "  turn 0.1; " + "  print d; "
+				  + "  print getx ship; " + "  thrust; " + "  n := n + 1.0; " + "}";
+		  World sequential = facade.createWorld(5000, 5000);
+		  World scheduled = facade.createWorld(5000, 5000);
+		  List<Ship> sequentialShips = new ArrayList<>();
+		  List<Ship> scheduledShips = new ArrayList<>();
+		  for (int i = 0; i < 8; i++) {
+			  for (World world : new World[] { sequential, scheduled }) {
+				  Ship ship = facade.createShip(200 + 500 * i, 300 + 400 * (i % 3), 10, 0, 20, 0, 1.0E20);
+				  facade.addShipToWorld(world, ship);
+				  facade.loadProgramOnShip(ship, ProgramParser.parseProgramFromString(code, programFactory));
+				  (world == sequential ? sequentialShips : scheduledShips).add(ship);
+			  }
+		  }
+		  
+		  ProgramScheduler scheduler = new ProgramScheduler(4);
+		  for (int tick = 0; tick < 5; tick++) {
+			  Map<Ship, List<Object>> results = scheduler.run(scheduled, 0.5);
+			  for (int i = 0; i < 8; i++) {
+				  List<Object> expected = facade.executeProgram(sequentialShips.get(i), 0.5);
+				  assertEquals(expected, results.get(scheduledShips.get(i)));
+				  assertEquals(sequentialShips.get(i).getOrientation(), scheduledShips.get(i).getOrientation(), EPSILON);
+				  assertEquals(sequentialShips.get(i).getThrustState(), scheduledShips.get(i).getThrustState());
+			  }
+			  sequential.evolve(0.5);
+			  scheduled.evolve(0.5);
+		  }
+		  assertEquals(12, facade.executeProgram(scheduledShips.get(0), 0.0).size());
+		  scheduler.shutdown();
+	      
+	   }
+	 
+	  @Test
+	  public void testScheduledProgramsThatFireMatchSequential() throws ModelException, IllegalCollisionException,
+			  IllegalPositionException, IllegalDurationException, IllegalBulletException {
+		  
+		  // The first ship destroys the second one, right next to it, with its first bullet,
+		  // and the third ship sees the first one as its nearest ship from then on.
+		  String code = "print getx ship; " + "fire; " + "print getx ship; " + "turn 0.1; " + "print getdir; "
+				  + "fire; " + "print getx ship; ";
+		  double[][] positions = { { 1000, 500 }, { 1050, 500 }, { 1200, 500 }, { 200, 800 }, { 2000, 200 }, { 2600, 700 } };
+		  World sequential = facade.createWorld(3000, 1000);
+		  World scheduled = facade.createWorld(3000, 1000);
+		  List<Ship> sequentialShips = new ArrayList<>();
+		  List<Ship> scheduledShips = new ArrayList<>();
+		  for (int i = 0; i < positions.length; i++) {
+			  for (World world : new World[] { sequential, scheduled }) {
+				  Ship ship = facade.createShip(positions[i][0], positions[i][1], 0, 0, 20, 0, 1.0E20);
+				  facade.addShipToWorld(world, ship);
+				  for (int j = 0; j < 2; j++)
+					  facade.loadBulletOnShip(ship, facade.createBullet(positions[i][0], positions[i][1], 0, 0, i == 0 ? 8 : 3));
+				  facade.loadProgramOnShip(ship, ProgramParser.parseProgramFromString(code, programFactory));
+				  (world == sequential ? sequentialShips : scheduledShips).add(ship);
+			  }
+		  }
+		  
+		  ProgramScheduler scheduler = new ProgramScheduler(4);
+		  for (int tick = 0; tick < 3; tick++) {
+			  Map<Ship, List<Object>> results = scheduler.run(scheduled, 0.3);
+			  for (int i = 0; i < positions.length; i++) {
+				  Ship sequentialShip = sequentialShips.get(i);
+				  Ship scheduledShip = scheduledShips.get(i);
+				  if (sequentialShip.getWorld() == sequential)
+					  assertEquals(facade.executeProgram(sequentialShip, 0.3), results.get(scheduledShip));
+				  else
+					  assertFalse(results.containsKey(scheduledShip));
+				  assertEquals(sequentialShip.getWorld() == sequential, scheduledShip.getWorld() == scheduled);
+				  assertEquals(sequentialShip.getOrientation(), scheduledShip.getOrientation(), EPSILON);
+				  assertEquals(sequentialShip.getNbOfBullets(), scheduledShip.getNbOfBullets());
+			  }
+			  assertEquals(sequential.getSpecificEntities(Bullet.class).size(),
+					  scheduled.getSpecificEntities(Bullet.class).size());
+			  sequential.evolve(0.1);
+			  scheduled.evolve(0.1);
+		  }
+		  assertFalse(scheduledShips.get(1).getWorld() == scheduled);
+		  assertEquals(1000.0, facade.executeProgram(scheduledShips.get(2), 0.0).get(0));
+		  scheduler.shutdown();
+	      
+	   }
+	 
+	  @Test
+	  public void testEvolveExecutesProgramsAndChecksActionsWhenDeferred() throws ModelException {
+		  
+		  World world = facade.createWorld(5000, 5000);
+		  Ship first = facade.createShip(100, 100, 0, 0, 10, 0, 1.0E20);
+		  Ship second = facade.createShip(500, 100, 0, 0, 10, 0, 1.0E20);
+		  Ship third = facade.createShip(900, 100, 0, 0, 10, 0, 1.0E20);
+		  for (Ship ship : new Ship[] { first, second, third })
+			  facade.addShipToWorld(world, ship);
+		  facade.loadProgramOnShip(first, ProgramParser.parseProgramFromString("turn 0.2; print 1.0; ", programFactory));
+		  facade.loadProgramOnShip(second, ProgramParser.parseProgramFromString("turn 0.5; turn 7.0; ", programFactory));
+		  facade.loadProgramOnShip(third, ProgramParser.parseProgramFromString("turn 0.3; ", programFactory));
+		  
+		  // The invalid turn fails when it is deferred, so the turn before it is still
+		  // performed, but the program of the third ship is not executed.
+		  try {
+			  facade.evolve(world, 0.5, null);
+			  fail();
+		  } catch (ModelException exc) {
+			  // expected
+		  }
+		  assertEquals(0.2, first.getOrientation(), EPSILON);
+		  assertEquals(0.5, second.getOrientation(), EPSILON);
+		  assertEquals(0.0, third.getOrientation(), EPSILON);
+	      
+	   }
+	 
+	  @Test
+	  public void testEvolveKeepsBulletsFiredBeforeAProgramFails() throws ModelException {
+		  
+		  World world = facade.createWorld(5000, 5000);
+		  Ship first = facade.createShip(100, 100, 10, 0, 10, 0, 1.0E20);
+		  Ship second = facade.createShip(100, 500, 10, 0, 10, 0, 1.0E20);
+		  Ship third = facade.createShip(100, 900, 10, 0, 10, 0, 1.0E20);
+		  for (Ship ship : new Ship[] { first, second, third }) {
+			  facade.addShipToWorld(world, ship);
+			  facade.loadBulletOnShip(ship, facade.createBullet(100, ship.getPosition()[1], 0, 0, 3));
+		  }
+		  facade.loadProgramOnShip(first, ProgramParser.parseProgramFromString("fire; print 1.0; ", programFactory));
+		  facade.loadProgramOnShip(second, ProgramParser.parseProgramFromString("turn 0.5; turn 7.0; ", programFactory));
+		  facade.loadProgramOnShip(third, ProgramParser.parseProgramFromString("turn 0.3; fire; ", programFactory));
+		  
+		  // The bullet of the first ship stays fired, the program of the third ship is
+		  // left as it was, and the world does not evolve.
+		  try {
+			  facade.evolve(world, 0.5, null);
+			  fail();
+		  } catch (ModelException exc) {
+			  // expected
+		  }
+		  assertEquals(0, facade.getNbBulletsOnShip(first));
+		  assertEquals(1, world.getSpecificEntities(Bullet.class).size());
+		  assertEquals(0.5, second.getOrientation(), EPSILON);
+		  assertEquals(0.0, third.getOrientation(), EPSILON);
+		  assertEquals(1, facade.getNbBulletsOnShip(third));
+		  assertEquals(100.0, first.getPosition()[0], EPSILON);
+		  assertEquals(100.0, third.getPosition()[0], EPSILON);
+		  assertNotNull(facade.executeProgram(third, 0.5));
+		  assertEquals(0.3, third.getOrientation(), EPSILON);
+		  assertEquals(0, facade.getNbBulletsOnShip(third));
+	      
+	   }
+	 
+	  @Test
+	  public void testLoopWithoutActionsIsPreempted() throws ModelException {
+		  
+		  String code = "x := 0.0; " + "while 1.0 < 2.0 { " + "  x := x + 1.0; " + "}";
+		  Program program = ProgramParser.parseProgramFromString(code, programFactory);
+		  program.setInstructionBudget(1001);
+		  facade.loadProgramOnShip(ship1, program);
+		  assertNull(facade.executeProgram(ship1, 0.1));
+		  // The first assignment, then two instructions for each iteration.
+		  assertEquals(500.0, program.getGlobals().get(0), EPSILON);
+		  assertNull(facade.executeProgram(ship1, 0.1));
+		  assertEquals(1001.0, program.getGlobals().get(0), EPSILON);
+	      
+	   }
+	 
+	  @Test
+	  public void testFunctionCallHasItsOwnInstructionBudget() throws ModelException {
+		  
+		  String code = "def sum { " + "  s := 0.0; " + "  n := 0.0; " + "  while n < $1 { " + "    s := s + n; "
+				  + "    n := n + 1.0; " + "  } " + "  return s; " + "} " + "print sum(2000.0); ";
+		  Program program = ProgramParser.parseProgramFromString(code, programFactory);
+		  program.setInstructionBudget(1001);
+		  facade.loadProgramOnShip(ship1, program);
+		  // The call takes more instructions than a slice, but is not suspended.
+		  Object[] expecteds = { 1999000.0 };
+		  assertArrayEquals(expecteds, facade.executeProgram(ship1, 0.1).toArray());
+		  
+		  program = ProgramParser.parseProgramFromString(code, programFactory);
+		  program.setCallInstructionBudget(1001);
+		  facade.loadProgramOnShip(ship2, program);
+		  try {
+			  facade.executeProgram(ship2, 0.1);
+			  fail();
+		  } catch (ModelException exc) {
+			  assertEquals(0, program.getCallStack().getDepth());
+		  }
+	      
+	   }
+	 
+	  @Test
+	  public void testRecursionDepthIsLimited() throws ModelException {
+		  
+		  String code = "def count { " + "  if $1 < 0.5 { " + "    return 0.0; " + "  }"
+				  + "  return 1.0 + count($1 + -1.0); " + "} " + "print count(900.0); " + "print count(1500.0); ";
+		  Program program = ProgramParser.parseProgramFromString(code, programFactory);
+		  facade.loadProgramOnShip(ship1, program);
+		  try {
+			  facade.executeProgram(ship1, 0.3);
+			  fail();
+		  } catch (ModelException exc) {
+			  // The first call fits in the call stack, and leaves it empty.
+			  assertEquals(0, program.getCallStack().getDepth());
+		  }
+	      
+	   }
+	 
+	  @Test
+	  public void testParsedProgramsAreCachedByText() throws ModelException {
+		  
+		  String code = "x := 0.0; " + "while x < 3.5 { " + "  x := x + 1.0; " + "  print x; " + "}";
+		  ProgramCache cache = ProgramCache.getDefault();
+		  ProgramParser.parseProgramFromString(code, programFactory);
+		  long hits = cache.getNbHits();
+		  Program first = ProgramParser.parseProgramFromString(code, programFactory);
+		  Program second = ProgramParser.parseProgramFromString(code, programFactory);
+		  assertEquals(hits + 2, cache.getNbHits());
+		  assertTrue(first != second);
+		  assertTrue(first.getCompiledProgram() == second.getCompiledProgram());
+		  
+		  facade.loadProgramOnShip(ship1, first);
+		  facade.loadProgramOnShip(ship2, second);
+		  Object[] expecteds = { 1.0, 2.0, 3.0, 4.0 };
+		  assertArrayEquals(expecteds, facade.executeProgram(ship1, 1.0).toArray());
+		  assertArrayEquals(expecteds, facade.executeProgram(ship2, 1.0).toArray());
+		  
+		  ProgramCache small = new ProgramCache(2);
+		  for (int i = 0; i < 3; i++) {
+			  String text = "print " + i + ".0; ";
+			  small.get(text, programFactory.getClass(), () -> ProgramParser.create(programFactory).parseString(text).getSuccessValue());
+		  }
+		  assertEquals(2, small.size());
+		  assertEquals(1, small.getNbEvictions());
+		  assertEquals(3, small.getNbMisses());
+	      
+	   }
+	 
+	  @Test
+	  public void testCompiledProgramIsSharedByShips() throws ModelException {
+		  
+		  String code = "def twice { " + "  return 2.0 * $1; " + "} " + "x := getx self; " + "print twice(x); ";
+		  Program first = ProgramParser.parseProgramFromString(code, programFactory);
+		  CompiledProgram compiled = first.getCompiledProgram();
+		  Program second = new Program(compiled);
+		  facade.loadProgramOnShip(ship1, first);
+		  facade.loadProgramOnShip(ship2, second);
+		  assertEquals(2.0 * ship1.getPosition()[0], (Double) facade.executeProgram(ship1, 0.3).get(0), EPSILON);
+		  assertEquals(2.0 * ship2.getPosition()[0], (Double) facade.executeProgram(ship2, 0.3).get(0), EPSILON);
+		  assertTrue(first.getGlobals() != second.getGlobals());
+		  assertTrue(compiled == second.getCompiledProgram());
+	      
+	   }
+	 
+	  @Test
+	  public void testStatementsCanBeCompiledAgain() throws ModelException {
+		  
+		  // x := 2.0; n := 0.0; while n < 3.0 { y := x * 2.0; n := n + 1.0; } print y; print one();
+		  ProgramFactory<?, ?, ?, ?> factory = new ProgramFactory<>();
+		  Statement loop = factory.createWhileStatement(
+				  factory.createLessThanExpression(factory.createReadVariableExpression("n", null),
+						  factory.createDoubleLiteralExpression(3.0, null), null),
+				  factory.createSequenceStatement(Arrays.asList(
+						  factory.createAssignmentStatement("y", factory.createMultiplicationExpression(
+								  factory.createReadVariableExpression("x", null), factory.createDoubleLiteralExpression(2.0, null), null), null),
+						  factory.createAssignmentStatement("n", factory.createAdditionExpression(
+								  factory.createReadVariableExpression("n", null), factory.createDoubleLiteralExpression(1.0, null), null), null)),
+						  null),
+				  null);
+		  Statement main = factory.createSequenceStatement(Arrays.asList(
+				  factory.createAssignmentStatement("x", factory.createDoubleLiteralExpression(2.0, null), null),
+				  factory.createAssignmentStatement("n", factory.createDoubleLiteralExpression(0.0, null), null),
+				  loop, factory.createPrintStatement(factory.createReadVariableExpression("y", null), null),
+				  factory.createPrintStatement(factory.createFunctionCallExpression("one", new ArrayList<>(), null), null)), null);
+		  Function function = factory.createFunctionDefinition("one",
+				  factory.createReturnStatement(factory.createAdditionExpression(
+						  factory.createDoubleLiteralExpression(0.5, null), factory.createDoubleLiteralExpression(0.5, null), null), null), null);
+		  Program first = factory.createProgram(Arrays.asList(function), main);
+		  facade.loadProgramOnShip(ship1, first);
+		  Object[] expecteds = { 4.0, 1.0 };
+		  assertArrayEquals(expecteds, facade.executeProgram(ship1, 0.3).toArray());
+		  
+		  // The optimizer hoisted x * 2.0 out of the loop, and folded 0.5 + 0.5, in
+		  // new statements: the parsed ones are unchanged and compile to the same code.
+		  Statement body = ((WhileStatement) loop).getBodyStatement();
+		  Statement assignment = ((BlockStatement) body).getStatementsList().get(0);
+		  assertTrue(((AssignmentStatement) assignment).getExpression() instanceof MultiplicationExpression);
+		  Program second = factory.createProgram(Arrays.asList(function), main);
+		  facade.loadProgramOnShip(ship2, second);
+		  assertArrayEquals(expecteds, facade.executeProgram(ship2, 0.3).toArray());
+		  // The code of the function is kept by each compiled program, not by the function.
+		  assertTrue(first.getFunctions().get("one") == second.getFunctions().get("one"));
+		  assertTrue(first.getCompiledProgram().getFunction(0) != second.getCompiledProgram().getFunction(0));
+		  assertEquals("one", second.getCompiledProgram().getFunction(0).getName());
+	      
+	   }
+	 
+	  @Test
+	  public void testProgramsAreTypeCheckedWhenLoaded() throws ModelException {
+		  
+		  String code = "def closest { " + "  return ship; " + "} " + "a := closest(); " + "print a == null; " + "print getx a == getx ship; ";
+		  Program program = ProgramParser.parseProgramFromString(code, programFactory);
+		  facade.loadProgramOnShip(ship1, program);
+		  Object[] expecteds = { false, true };
+		  assertArrayEquals(expecteds, facade.executeProgram(ship1, 0.3).toArray());
+		  
+		  ParseOutcome<Program> outcome = ProgramParser.create(programFactory).parseString("x := 1.0; " + "x := self; ");
+		  assertTrue(outcome.isFail());
+		  assertTrue(outcome.getFailValue().get(0).contains(IllegalTypeException.class.getName()));
+		  outcome = ProgramParser.create(programFactory).parseString("print 3.0 + (4.0 < 5.0); ");
+		  assertTrue(outcome.isFail());
+		  outcome = ProgramParser.create(programFactory).parseString("while self { print 1.0; } ");
+		  assertTrue(outcome.isFail());
+	      
+	   }
+	 
+	  @Test
+	  public void testFunctionParametersAreTypedByTheirArguments() throws ModelException {
+		  
+		  String code = "def pick { " + "  if $2 { " + "    return $1; " + "  } " + "  return self; " + "} "
+				  + "def radius { " + "  return getradius $1; " + "} " + "a := pick(ship, 0.5 < 1.0); "
+				  + "print getx a == getx ship; " + "print radius(pick(ship, 1.0 < 0.5)); " + "print pick(ship, 2.0 < 1.0) == self; ";
+		  facade.loadProgramOnShip(ship1, ProgramParser.parseProgramFromString(code, programFactory));
+		  Object[] expecteds = { true, ship1.getRadius(), true };
+		  assertArrayEquals(expecteds, facade.executeProgram(ship1, 0.3).toArray());
+		  
+		  ParseOutcome<Program> outcome = ProgramParser.create(programFactory)
+				  .parseString("def same { return $1; } " + "print same(1.0); " + "print same(self); ");
+		  assertTrue(outcome.isFail());
+		  assertTrue(outcome.getFailValue().get(0).contains(IllegalTypeException.class.getName()));
+		  outcome = ProgramParser.create(programFactory).parseString("def next { return $1 + 1.0; } " + "print next(self); ");
+		  assertTrue(outcome.isFail());
+	      
+	   }
+	 
 }